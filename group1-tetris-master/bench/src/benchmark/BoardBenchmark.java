@@ -0,0 +1,189 @@
+package benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import model.Board;
+import model.TetrisPiece;
+
+/**
+ * Benchmarks of the hot paths of the Board model.
+ * <p>Every benchmark runs on boards of several sizes, each filled to several
+ * densities with garbage rows whose hole is in the rightmost column. The pieces
+ * come from a piece sequence drawn from a fixed seed, so every run measures the
+ * same games:</p>
+ * <ul>
+ * <li>down: one row down from the spawn position of each piece of the sequence.</li>
+ * <li>leftRight: one move left or right in open space, which is move and
+ *     isPieceLegal.</li>
+ * <li>rotateCW: one rotation in open space.</li>
+ * <li>rotateCWKick: a rotation of a vertical I against the left wall that only
+ *     succeeds after wall kicks.</li>
+ * <li>drop: a hard drop of each piece of the sequence onto the garbage, including
+ *     the freeze and checkRows.</li>
+ * <li>dropClear: a vertical I dropped into the hole of the garbage, clearing up to
+ *     four rows in checkRows.</li>
+ * <li>boardDataCopy: the copy of the board data sent with a board event.</li>
+ * </ul>
+ * <p>Usage: {@code java benchmark.BoardBenchmark [filter [iterations [millis]]]},
+ * for example {@code BoardBenchmark "drop" 10} to run only the drop benchmarks
+ * with ten measurement iterations.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class BoardBenchmark {
+
+    /** The board sizes benchmarked, as width and height. */
+    private static final int[][] SIZES = {{10, 20}, {10, 40}, {20, 40}};
+
+    /** The fractions of the rows filled with garbage. */
+    private static final double[] FILLS = {0, 0.5, 0.75};
+
+    /** The seed of the piece sequence. */
+    private static final long SEED = 305;
+
+    /** The number of pieces in the sequence. */
+    private static final int SEQUENCE_LENGTH = 28;
+
+    /** The board. */
+    private final Board myBoard;
+
+    /** The parameters, for the table. */
+    private final String myParams;
+
+    /** The state with each piece of the sequence at its spawn position. */
+    private final ByteBuffer[] mySpawnStates;
+
+    /** The state with a vertical I against the left wall. */
+    private final ByteBuffer myKickState;
+
+    /** The state with a vertical I above the hole of the garbage. */
+    private final ByteBuffer myClearState;
+
+    /**
+     * Prepares the states of one board size and fill.
+     * @param theWidth the width of the board.
+     * @param theHeight the height of the board.
+     * @param theFill the fraction of the rows filled with garbage.
+     */
+    private BoardBenchmark(final int theWidth, final int theHeight, final double theFill) {
+        myBoard = new Board(theWidth, theHeight);
+        myParams = String.format(Locale.ROOT, "%dx%d %.2f", theWidth, theHeight, theFill);
+        myBoard.newGame();
+        myBoard.addGarbageRows((int) Math.round(theFill * theHeight), theWidth - 1);
+
+        final List<TetrisPiece> sequence = sequence();
+        mySpawnStates = new ByteBuffer[sequence.size()];
+        for (int i = 0; i < sequence.size(); i++) {
+            //Rotating the sequence puts piece i at the spawn position
+            final List<TetrisPiece> rotated = new ArrayList<>(sequence);
+            Collections.rotate(rotated, -i);
+            myBoard.setPieceSequence(rotated);
+            mySpawnStates[i] = save();
+        }
+
+        myBoard.setPieceSequence(List.of(TetrisPiece.I));
+        myBoard.rotateCW();
+        for (int i = 0; i < theWidth; i++) {
+            myBoard.left();
+        }
+        myKickState = save();
+
+        restore(myKickState);
+        for (int i = 0; i < theWidth; i++) {
+            myBoard.right();
+        }
+        myClearState = save();
+    }
+
+    /**
+     * Runs every benchmark on every board size and fill.
+     * @param theArgs [filter [iterations [millis]]]
+     */
+    public static void main(final String[] theArgs) {
+        final Harness harness = Harness.fromArgs(theArgs);
+        for (final int[] size : SIZES) {
+            for (final double fill : FILLS) {
+                new BoardBenchmark(size[0], size[1], fill).run(harness);
+            }
+        }
+    }
+
+    /**
+     * Runs the benchmarks of this board size and fill.
+     * @param theHarness the harness.
+     */
+    private void run(final Harness theHarness) {
+        final int spawns = mySpawnStates.length;
+        theHarness.run("Board.down", myParams,
+            i -> restore(mySpawnStates[i % spawns]), i -> myBoard.down());
+
+        restore(mySpawnStates[0]);
+        theHarness.run("Board.leftRight", myParams, null, i -> {
+            if ((i & 1) == 0) {
+                myBoard.left();
+            } else {
+                myBoard.right();
+            }
+        });
+
+        restore(mySpawnStates[0]);
+        theHarness.run("Board.rotateCW", myParams, null, i -> myBoard.rotateCW());
+
+        theHarness.run("Board.rotateCWKick", myParams,
+            i -> restore(myKickState), i -> myBoard.rotateCW());
+
+        theHarness.run("Board.drop", myParams,
+            i -> restore(mySpawnStates[i % spawns]), i -> myBoard.drop());
+
+        theHarness.run("Board.dropClear", myParams,
+            i -> restore(myClearState), i -> myBoard.drop());
+
+        if (theHarness.isSelected("Board.boardDataCopy")) {
+            restore(mySpawnStates[0]);
+            myBoard.addPropertyChangeListener(e -> Harness.consume(e.getNewValue()));
+            theHarness.run("Board.boardDataCopy", myParams, null,
+                i -> myBoard.notifyObserversOfBoardChange(Board.PROPERTY_CHANGE_BOARD));
+        }
+    }
+
+    /**
+     * Saves the state of the board.
+     * @return the state, ready to be restored.
+     */
+    private ByteBuffer save() {
+        final ByteBuffer result = ByteBuffer.allocate(myBoard.getStateSize());
+        myBoard.saveState(result);
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Restores a saved state of the board.
+     * @param theState the state.
+     */
+    private void restore(final ByteBuffer theState) {
+        theState.rewind();
+        myBoard.restoreState(theState);
+    }
+
+    /**
+     * Draws the piece sequence from the fixed seed.
+     * @return the pieces.
+     */
+    private static List<TetrisPiece> sequence() {
+        final Random random = new Random(SEED);
+        final TetrisPiece[] pieces = TetrisPiece.values();
+        final List<TetrisPiece> result = new ArrayList<>();
+        for (int i = 0; i < SEQUENCE_LENGTH; i++) {
+            result.add(pieces[random.nextInt(pieces.length)]);
+        }
+        return result;
+    }
+}
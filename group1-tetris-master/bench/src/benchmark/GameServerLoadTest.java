@@ -0,0 +1,195 @@
+package benchmark;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import metrics.LatencyHistogram;
+import model.GameJournal.Operation;
+import network.GameServer;
+import network.GameSession;
+import network.Protocol;
+
+/**
+ * Measures a GameServer under many concurrent sessions on the loopback interface.
+ * <p>The test starts a server in this JVM, connects the requested number of
+ * sessions and has a few client threads send inputs round-robin over all of them,
+ * timing each input from the send until its acknowledgement has been read. It
+ * prints the latency percentiles and the memory the server holds per session.</p>
+ * <p>Usage: {@code java benchmark.GameServerLoadTest [sessions [inputs [clientThreads]]]}</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class GameServerLoadTest {
+
+    /** Default number of sessions. */
+    private static final int DEFAULT_SESSIONS = 1000;
+
+    /** Default number of inputs per session. */
+    private static final int DEFAULT_INPUTS = 100;
+
+    /** The inputs sent after the new game, in turn. */
+    private static final Operation[] INPUTS = {Operation.LEFT, Operation.ROTATE_CW,
+        Operation.RIGHT, Operation.DOWN, Operation.STEP, Operation.ROTATE_CCW,
+        Operation.DROP};
+
+    /** Input to acknowledgement latencies in nanoseconds. */
+    private final LatencyHistogram myLatencies = new LatencyHistogram();
+
+    private GameServerLoadTest() { }
+
+    /**
+     * Runs the load test.
+     * @param theArgs [sessions [inputs [clientThreads]]]
+     * @throws IOException if a connection failed.
+     * @throws InterruptedException if interrupted while waiting for the clients.
+     */
+    public static void main(final String[] theArgs) throws IOException, InterruptedException {
+        final int sessions = theArgs.length > 0 ? Integer.parseInt(theArgs[0])
+                : DEFAULT_SESSIONS;
+        final int inputs = theArgs.length > 1 ? Integer.parseInt(theArgs[1]) : DEFAULT_INPUTS;
+        final int clients = theArgs.length > 2 ? Integer.parseInt(theArgs[2])
+                : Runtime.getRuntime().availableProcessors();
+        new GameServerLoadTest().run(sessions, inputs,
+                Math.max(1, Math.min(clients, sessions)));
+    }
+
+    /**
+     * Connects the sessions, sends the inputs and prints the results.
+     * @param theSessions the number of sessions.
+     * @param theInputs the number of inputs per session.
+     * @param theClients the number of client threads.
+     * @throws IOException if a connection failed.
+     * @throws InterruptedException if interrupted while waiting for the clients.
+     */
+    private void run(final int theSessions, final int theInputs, final int theClients)
+            throws IOException, InterruptedException {
+        try (GameServer server = new GameServer(0)) {
+            final InetSocketAddress address = new InetSocketAddress(
+                    InetAddress.getLoopbackAddress(), server.getPort());
+            final List<List<SocketChannel>> slices = new ArrayList<>();
+            for (int i = 0; i < theClients; i++) {
+                slices.add(new ArrayList<>());
+            }
+            for (int i = 0; i < theSessions; i++) {
+                final SocketChannel channel = SocketChannel.open(address);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                slices.get(i % theClients).add(channel);
+            }
+            System.out.printf("%d sessions on %s threads%n", theSessions,
+                    server.isVirtual() ? "virtual" : "platform");
+
+            final long start = System.nanoTime();
+            final List<Thread> threads = new ArrayList<>();
+            for (final List<SocketChannel> slice : slices) {
+                final Thread thread = new Thread(() -> drive(slice, theInputs),
+                        "GameServerLoadTest");
+                threads.add(thread);
+                thread.start();
+            }
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+            final double seconds = (System.nanoTime() - start)
+                    / (double) TimeUnit.SECONDS.toNanos(1);
+
+            final LatencyHistogram.Snapshot latencies = myLatencies.snapshot();
+            System.out.printf("%d inputs in %.2f s, %.0f inputs/s%n", latencies.getCount(),
+                    seconds, latencies.getCount() / seconds);
+            System.out.printf("input to ack p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                    latencies.percentile(LatencyHistogram.MEDIAN)
+                            / LatencyHistogram.NANOS_PER_MICRO,
+                    latencies.percentile(LatencyHistogram.TAIL)
+                            / LatencyHistogram.NANOS_PER_MICRO,
+                    latencies.percentile(LatencyHistogram.MAX)
+                            / LatencyHistogram.NANOS_PER_MICRO);
+            long allocated = 0;
+            for (final GameSession session : server.getSessions()) {
+                allocated += Math.max(0, session.getAllocatedBytes());
+            }
+            System.out.printf("retained %d bytes/session, allocated %d bytes/input%n",
+                    server.getRetainedBytes() / Math.max(1, server.getSessionCount()),
+                    allocated / Math.max(1, latencies.getCount()));
+
+            for (final List<SocketChannel> slice : slices) {
+                for (final SocketChannel channel : slice) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Client thread loop that sends inputs round-robin over its sessions.
+     * @param theChannels the sessions of this thread.
+     * @param theInputs the number of inputs per session.
+     */
+    private void drive(final List<SocketChannel> theChannels, final int theInputs) {
+        final ByteBuffer input = ByteBuffer.allocateDirect(Protocol.INPUT_SIZE);
+        final ByteBuffer ack = ByteBuffer.allocateDirect(Short.MAX_VALUE);
+        try {
+            for (int i = 0; i < theInputs; i++) {
+                final Operation op = i == 0 ? Operation.NEW_GAME
+                        : INPUTS[(i - 1) % INPUTS.length];
+                for (final SocketChannel channel : theChannels) {
+                    input.clear();
+                    input.put((byte) op.ordinal()).putShort((short) i).flip();
+                    final long sent = System.nanoTime();
+                    while (input.hasRemaining()) {
+                        channel.write(input);
+                    }
+                    readAck(channel, ack, i);
+                    myLatencies.record(System.nanoTime() - sent);
+                }
+            }
+        } catch (final IOException e) {
+            System.err.println("Client failed: " + e);
+        }
+    }
+
+    /**
+     * Reads one acknowledgement and checks its sequence number.
+     * @param theChannel the session.
+     * @param theBuffer a buffer large enough for any acknowledgement.
+     * @param theSequence the expected sequence number.
+     * @throws IOException if the connection failed or the acknowledgement is wrong.
+     */
+    private static void readAck(final SocketChannel theChannel, final ByteBuffer theBuffer,
+                                final int theSequence) throws IOException {
+        theBuffer.clear().limit(Protocol.ACK_HEADER_SIZE);
+        readFully(theChannel, theBuffer);
+        if (theBuffer.get(0) != Protocol.ACK
+                || (theBuffer.getShort(1) & Protocol.SHORT_MASK)
+                        != (theSequence & Protocol.SHORT_MASK)) {
+            throw new IOException("Unexpected acknowledgement");
+        }
+        final int length = theBuffer.getShort(Protocol.ACK_HEADER_SIZE - 2)
+                & Protocol.SHORT_MASK;
+        theBuffer.clear().limit(length);
+        readFully(theChannel, theBuffer);
+    }
+
+    /**
+     * Fills a buffer from a channel.
+     * @param theChannel the channel.
+     * @param theBuffer the buffer.
+     * @throws IOException if the connection failed or closed.
+     */
+    private static void readFully(final SocketChannel theChannel, final ByteBuffer theBuffer)
+            throws IOException {
+        while (theBuffer.hasRemaining()) {
+            if (theChannel.read(theBuffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Runs microbenchmarks in the manner of JMH and prints a table of the results.
+ * <p>Every benchmark runs a number of timed warmup iterations that are thrown away,
+ * then measurement iterations whose average time per operation is reported with
+ * the standard deviation across iterations, then one more iteration that counts
+ * the bytes the thread allocated per operation, like the gc profiler of JMH.</p>
+ * <p>A benchmark without a set up runs its operation in a tight loop and times the
+ * whole loop. A benchmark with a set up, for an operation that changes the state it
+ * needs, runs the set up before every invocation and times only the operation,
+ * like {@code Level.Invocation} in JMH; the timer then adds a few tens of
+ * nanoseconds to every operation, so such benchmarks suit operations of a
+ * microsecond or more.</p>
+ * <p>All benchmarks run in the JVM of the harness, one after another, so run the
+ * same selection before and after a change and compare the two.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class Harness {
+
+    /** Default number of warmup iterations. */
+    public static final int DEFAULT_WARMUPS = 3;
+
+    /** Default number of measurement iterations. */
+    public static final int DEFAULT_ITERATIONS = 5;
+
+    /** Default length of an iteration. */
+    public static final long DEFAULT_MILLIS = 200;
+
+    /** Operations between checks of the clock in a loop without set up. */
+    private static final int BATCH = 64;
+
+    /** Counts the bytes allocated by a thread, or null if the JVM can not. */
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    /** Format of a row of the table. */
+    private static final String ROW = "%-34s %-14s %12s %10s %10s%n";
+
+    /** Receives the values benchmarks consume, so that they are not optimized away. */
+    private static volatile Object ourSink;
+
+    /** Runs only the benchmarks whose names match. */
+    private final Pattern myFilter;
+
+    /** Warmup iterations per benchmark. */
+    private final int myWarmups;
+
+    /** Measurement iterations per benchmark. */
+    private final int myIterations;
+
+    /** Length of an iteration in nanoseconds. */
+    private final long myIterationNanos;
+
+    /**
+     * Creates a harness and prints the header of the table.
+     * @param theFilter a regular expression matched against the benchmark names.
+     * @param theWarmups the warmup iterations per benchmark.
+     * @param theIterations the measurement iterations per benchmark.
+     * @param theMillis the length of an iteration in milliseconds.
+     */
+    public Harness(final String theFilter, final int theWarmups, final int theIterations,
+                   final long theMillis) {
+        if (theIterations < 1 || theWarmups < 0 || theMillis < 1) {
+            throw new IllegalArgumentException("Iterations and their length must be positive");
+        }
+        myFilter = Pattern.compile(theFilter);
+        myWarmups = theWarmups;
+        myIterations = theIterations;
+        myIterationNanos = TimeUnit.MILLISECONDS.toNanos(theMillis);
+        System.out.printf(Locale.ROOT, ROW, "Benchmark", "Params", "ns/op", "stdev",
+                "B/op");
+    }
+
+    /**
+     * Creates a harness from the arguments of a benchmark main method.
+     * @param theArgs [filter [iterations [millis]]]
+     * @return the harness.
+     */
+    public static Harness fromArgs(final String... theArgs) {
+        final String filter = theArgs.length > 0 ? theArgs[0] : ".*";
+        final int iterations = theArgs.length > 1 ? Integer.parseInt(theArgs[1])
+                : DEFAULT_ITERATIONS;
+        final long millis = theArgs.length > 2 ? Long.parseLong(theArgs[2]) : DEFAULT_MILLIS;
+        return new Harness(filter, DEFAULT_WARMUPS, iterations, millis);
+    }
+
+    /**
+     * Keeps a value alive so that the computation of it is not optimized away.
+     * @param theValue the value.
+     */
+    public static void consume(final Object theValue) {
+        ourSink = theValue;
+    }
+
+    /**
+     * Checks whether a benchmark is selected by the filter.
+     * @param theName the name of the benchmark.
+     * @return true if it should run.
+     */
+    public boolean isSelected(final String theName) {
+        return myFilter.matcher(theName).find();
+    }
+
+    /**
+     * Runs a benchmark if it is selected and prints its row.
+     * @param theName the name of the benchmark.
+     * @param theParams the parameters, printed next to the name.
+     * @param theSetUp prepares invocation i and is not timed, or null if the operation
+     *                 can simply be repeated.
+     * @param theOperation performs invocation i.
+     */
+    public void run(final String theName, final String theParams, final IntConsumer theSetUp,
+                    final IntConsumer theOperation) {
+        if (isSelected(theName)) {
+            for (int i = 0; i < myWarmups; i++) {
+                iteration(theSetUp, theOperation);
+            }
+            final double[] scores = new double[myIterations];
+            double sum = 0;
+            for (int i = 0; i < myIterations; i++) {
+                scores[i] = iteration(theSetUp, theOperation);
+                sum += scores[i];
+            }
+            final double mean = sum / myIterations;
+            double squares = 0;
+            for (final double score : scores) {
+                squares += (score - mean) * (score - mean);
+            }
+            final double stdev = myIterations > 1 ? Math.sqrt(squares / (myIterations - 1)) : 0;
+            final long allocated = allocation(theSetUp, theOperation);
+            System.out.printf(Locale.ROOT, ROW, theName, theParams,
+                    String.format(Locale.ROOT, "%.1f", mean),
+                    String.format(Locale.ROOT, "%.1f", stdev),
+                    allocated < 0 ? "n/a" : Long.toString(allocated));
+        }
+    }
+
+    /**
+     * Runs one timed iteration.
+     * @param theSetUp prepares an invocation, or null.
+     * @param theOperation performs an invocation.
+     * @return the average nanoseconds per operation.
+     */
+    private double iteration(final IntConsumer theSetUp, final IntConsumer theOperation) {
+        long operations = 0;
+        long timed = 0;
+        final long start = System.nanoTime();
+        final long end = start + myIterationNanos;
+        if (theSetUp == null) {
+            long now = start;
+            while (now < end) {
+                for (int i = 0; i < BATCH; i++) {
+                    theOperation.accept((int) operations + i);
+                }
+                operations += BATCH;
+                now = System.nanoTime();
+            }
+            timed = now - start;
+        } else {
+            while (System.nanoTime() < end) {
+                theSetUp.accept((int) operations);
+                final long before = System.nanoTime();
+                theOperation.accept((int) operations);
+                timed += System.nanoTime() - before;
+                operations++;
+            }
+        }
+        return (double) timed / operations;
+    }
+
+    /**
+     * Runs one iteration counting the bytes allocated by the operations only.
+     * @param theSetUp prepares an invocation, or null.
+     * @param theOperation performs an invocation.
+     * @return the bytes allocated per operation, or -1 if they can not be counted.
+     */
+    private long allocation(final IntConsumer theSetUp, final IntConsumer theOperation) {
+        long result = -1;
+        if (THREADS != null) {
+            long operations = 0;
+            long allocated = 0;
+            final long end = System.nanoTime() + myIterationNanos;
+            while (System.nanoTime() < end) {
+                if (theSetUp != null) {
+                    theSetUp.accept((int) operations);
+                }
+                final long before = THREADS.getCurrentThreadAllocatedBytes();
+                theOperation.accept((int) operations);
+                allocated += THREADS.getCurrentThreadAllocatedBytes() - before;
+                operations++;
+            }
+            result = Math.round((double) allocated / operations);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the thread bean if it can count allocations.
+     * @return the bean, or null.
+     */
+    private static com.sun.management.ThreadMXBean threadBean() {
+        com.sun.management.ThreadMXBean result = null;
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean)
+                        .isThreadAllocatedMemorySupported()) {
+            result = (com.sun.management.ThreadMXBean) bean;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import model.Board;
+import model.GameJournal;
+import model.TetrisPiece;
+
+/**
+ * Checks that GameJournal.rebuild reproduces the games a journal recorded.
+ * <p>Each round plays a Board with random moves, steps, garbage rows, piece sequences
+ * and new games while a journal records it, then rebuilds a Board from the journal
+ * and compares the saved states of the two, which cover every frozen block, the
+ * pieces, the generator and the game status. The moves come from the round number,
+ * so a failing round can be replayed.</p>
+ * <p>Usage: {@code java benchmark.JournalCheck [rounds [operations]]}; the exit
+ * status is 1 if a rebuilt Board differed.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class JournalCheck {
+
+    /** Default number of journals recorded and rebuilt. */
+    private static final int DEFAULT_ROUNDS = 200;
+
+    /** Default number of operations per journal. */
+    private static final int DEFAULT_OPERATIONS = 2000;
+
+    /** The kinds of random operation: the six moves, garbage, a sequence, a new game. */
+    private static final int KINDS = 9;
+
+    /** One in this many operations is chosen from all kinds instead of only moves. */
+    private static final int RARE_EVERY = 20;
+
+    /** The most pieces of a random piece sequence. */
+    private static final int MAX_SEQUENCE = 8;
+
+    /** The most garbage rows of one attack. */
+    private static final int MAX_GARBAGE = 4;
+
+    private JournalCheck() { }
+
+    /**
+     * Records and rebuilds the journals and reports the ones that differ.
+     * @param theArgs [rounds [operations]]
+     * @throws IOException if a journal could not be written or read.
+     */
+    public static void main(final String[] theArgs) throws IOException {
+        final int rounds = theArgs.length > 0 ? Integer.parseInt(theArgs[0])
+                : DEFAULT_ROUNDS;
+        final int operations = theArgs.length > 1 ? Integer.parseInt(theArgs[1])
+                : DEFAULT_OPERATIONS;
+        int failed = 0;
+        long bytes = 0;
+        for (int round = 0; round < rounds; round++) {
+            final ByteArrayOutputStream journal = new ByteArrayOutputStream();
+            final Board played = play(round, operations, journal);
+            bytes += journal.size();
+            final Board rebuilt = GameJournal.rebuild(Channels.newChannel(
+                    new ByteArrayInputStream(journal.toByteArray())));
+            if (!Arrays.equals(state(played), state(rebuilt))) {
+                System.out.println("round " + round + ": the rebuilt board differs");
+                failed++;
+            }
+        }
+        System.out.printf("%d journals of %d operations, %d KB, %d rebuilt boards "
+                + "differ%n", rounds, operations, bytes / 1024, failed);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a Board with random operations while a journal records it.
+     * @param theRound the round, which seeds the operations.
+     * @param theOperations the number of operations.
+     * @param theJournal receives the journal.
+     * @return the Board played.
+     * @throws IOException if the journal could not be written.
+     */
+    private static Board play(final int theRound, final int theOperations,
+                              final ByteArrayOutputStream theJournal) throws IOException {
+        final Random random = new Random(theRound);
+        final Board result = new Board();
+        try (GameJournal journal = new GameJournal(Channels.newChannel(theJournal))) {
+            result.setJournal(journal);
+            result.newGame();
+            for (int i = 0; i < theOperations; i++) {
+                final int kind = random.nextInt(RARE_EVERY) == 0 ? random.nextInt(KINDS)
+                        : random.nextInt(KINDS - 3);
+                switch (kind) {
+                    case 0 -> result.left();
+                    case 1 -> result.right();
+                    case 2 -> result.rotateCW();
+                    case 3 -> result.rotateCCW();
+                    case 4 -> result.down();
+                    case 5 -> result.drop();
+                    case 6 -> result.addGarbageRows(1 + random.nextInt(MAX_GARBAGE),
+                            random.nextInt(result.getWidth()));
+                    case 7 -> result.setPieceSequence(sequence(random));
+                    default -> result.newGame();
+                }
+                if (result.isGameOver()) {
+                    result.newGame();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Draws a random piece sequence.
+     * @param theRandom the generator.
+     * @return the sequence, of at least one piece.
+     */
+    private static List<TetrisPiece> sequence(final Random theRandom) {
+        final List<TetrisPiece> result = new ArrayList<>();
+        final TetrisPiece[] pieces = TetrisPiece.values();
+        for (int i = 1 + theRandom.nextInt(MAX_SEQUENCE); i > 0; i--) {
+            result.add(pieces[theRandom.nextInt(pieces.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * Saves the state of a Board.
+     * @param theBoard the board.
+     * @return the saved state.
+     */
+    private static byte[] state(final Board theBoard) {
+        final ByteBuffer result = ByteBuffer.allocate(theBoard.getStateSize());
+        theBoard.saveState(result);
+        return result.array();
+    }
+}
@@ -0,0 +1,272 @@
+package benchmark;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays UDP datagrams on the loopback address with added latency, jitter and loss,
+ * to test netcode such as RollbackPeer without a real network.
+ * <p>Each route listens on one port and forwards everything it receives to another.
+ * A datagram is dropped with the given probability, otherwise it is held for the
+ * delay plus a uniform random jitter, so jitter larger than the gap between
+ * datagrams also reorders them. The randomness is seeded, so runs are repeatable
+ * up to the timing of the peers.</p>
+ * <p>Usage: {@code java benchmark.LatencyProxy delayMs jitterMs lossPercent
+ * listenPort:forwardPort...}, for example {@code 50 10 2 7100:7001 7101:7000} between
+ * peers on ports 7000 and 7001 that send to ports 7100 and 7101.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class LatencyProxy implements Closeable {
+
+    /** The largest datagram relayed. */
+    private static final int MAX_DATAGRAM = 2048;
+
+    /** Percent as a fraction. */
+    private static final double PERCENT = 100.0;
+
+    /** Seed of the jitter and loss. */
+    private static final long SEED = 1;
+
+    /** Waits for datagrams. */
+    private final Selector mySelector;
+
+    /** Datagrams waiting for their delay to pass, earliest first. */
+    private final PriorityQueue<Delayed> myDelayed = new PriorityQueue<>();
+
+    /** Draws the jitter and the losses. */
+    private final Random myRandom = new Random(SEED);
+
+    /** Receives the datagrams. */
+    private final ByteBuffer myBuffer = ByteBuffer.allocate(MAX_DATAGRAM);
+
+    /** The fixed delay in nanoseconds. */
+    private final long myDelay;
+
+    /** The most random delay added, in nanoseconds. */
+    private final long myJitter;
+
+    /** The probability that a datagram is dropped. */
+    private final double myLoss;
+
+    /** The number of datagrams relayed. */
+    private long myRelayed;
+
+    /** The number of datagrams dropped. */
+    private long myDropped;
+
+    /** The number of datagrams received so far, which orders equal due times. */
+    private long myReceived;
+
+    /**
+     * Creates a proxy without routes.
+     * @param theDelayMillis the fixed delay in milliseconds.
+     * @param theJitterMillis the most random delay added, in milliseconds.
+     * @param theLossPercent the percentage of datagrams dropped.
+     * @throws IOException if the selector could not be opened.
+     */
+    public LatencyProxy(final long theDelayMillis, final long theJitterMillis,
+                        final double theLossPercent) throws IOException {
+        myDelay = TimeUnit.MILLISECONDS.toNanos(theDelayMillis);
+        myJitter = TimeUnit.MILLISECONDS.toNanos(theJitterMillis);
+        myLoss = theLossPercent / PERCENT;
+        mySelector = Selector.open();
+    }
+
+    /**
+     * Relays datagrams along the routes given on the command line until killed.
+     * @param theArgs delayMs jitterMs lossPercent listenPort:forwardPort...
+     * @throws IOException if a port could not be bound.
+     */
+    public static void main(final String[] theArgs) throws IOException {
+        if (theArgs.length < 4) {
+            System.err.println("Usage: LatencyProxy delayMs jitterMs lossPercent "
+                    + "listenPort:forwardPort...");
+            System.exit(1);
+        }
+        try (LatencyProxy proxy = new LatencyProxy(Long.parseLong(theArgs[0]),
+                Long.parseLong(theArgs[1]), Double.parseDouble(theArgs[2]))) {
+            for (int i = 3; i < theArgs.length; i++) {
+                final String[] ports = theArgs[i].split(":");
+                proxy.addRoute(Integer.parseInt(ports[0]), Integer.parseInt(ports[1]));
+            }
+            proxy.run();
+        }
+    }
+
+    /**
+     * Adds a route.
+     * @param theListenPort the port to receive on.
+     * @param theForwardPort the port to forward to.
+     * @throws IOException if the port could not be bound.
+     */
+    public void addRoute(final int theListenPort, final int theForwardPort)
+            throws IOException {
+        final InetAddress loopback = InetAddress.getLoopbackAddress();
+        final DatagramChannel channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(loopback, theListenPort));
+        channel.configureBlocking(false);
+        channel.register(mySelector, SelectionKey.OP_READ,
+                new InetSocketAddress(loopback, theForwardPort));
+    }
+
+    /**
+     * Relays datagrams until the thread is interrupted.
+     * @throws IOException if a socket failed.
+     */
+    public void run() throws IOException {
+        while (!Thread.currentThread().isInterrupted()) {
+            final Delayed first = myDelayed.peek();
+            if (first == null) {
+                mySelector.select();
+            } else {
+                final long wait = first.myDue - System.nanoTime();
+                if (wait > 0) {
+                    mySelector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+                } else {
+                    mySelector.selectNow();
+                }
+            }
+            for (final SelectionKey key : mySelector.selectedKeys()) {
+                receive(key);
+            }
+            mySelector.selectedKeys().clear();
+            forwardDue();
+        }
+    }
+
+    /**
+     * Gets the number of datagrams relayed.
+     * @return the datagrams relayed.
+     */
+    public long getRelayedCount() {
+        return myRelayed;
+    }
+
+    /**
+     * Gets the number of datagrams dropped.
+     * @return the datagrams dropped.
+     */
+    public long getDroppedCount() {
+        return myDropped;
+    }
+
+    /**
+     * Closes the sockets of all routes.
+     * @throws IOException if a socket could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        for (final SelectionKey key : mySelector.keys()) {
+            key.channel().close();
+        }
+        mySelector.close();
+    }
+
+    /**
+     * Receives every datagram waiting on a route and holds or drops each.
+     * @param theKey the key of the route.
+     * @throws IOException if the socket failed.
+     */
+    private void receive(final SelectionKey theKey) throws IOException {
+        final DatagramChannel channel = (DatagramChannel) theKey.channel();
+        myBuffer.clear();
+        while (channel.receive(myBuffer) != null) {
+            myBuffer.flip();
+            if (myRandom.nextDouble() < myLoss) {
+                myDropped++;
+            } else {
+                final byte[] data = new byte[myBuffer.remaining()];
+                myBuffer.get(data);
+                final long jitter = myJitter > 0 ? (long) (myRandom.nextDouble() * myJitter)
+                        : 0;
+                myDelayed.add(new Delayed(System.nanoTime() + myDelay + jitter, myReceived,
+                        channel, (InetSocketAddress) theKey.attachment(), data));
+            }
+            myReceived++;
+            myBuffer.clear();
+        }
+    }
+
+    /**
+     * Forwards the held datagrams whose delay has passed.
+     * @throws IOException if a socket failed.
+     */
+    private void forwardDue() throws IOException {
+        final long now = System.nanoTime();
+        while (!myDelayed.isEmpty() && myDelayed.peek().myDue <= now) {
+            final Delayed datagram = myDelayed.poll();
+            try {
+                datagram.myChannel.send(ByteBuffer.wrap(datagram.myData), datagram.myTarget);
+                myRelayed++;
+            } catch (final IOException e) {
+                //The receiver is not listening, which a lossy network may do as well
+                myDropped++;
+            }
+        }
+    }
+
+    /**
+     * A datagram held until its due time.
+     */
+    private static final class Delayed implements Comparable<Delayed> {
+
+        /** The time to forward the datagram, in System.nanoTime terms. */
+        private final long myDue;
+
+        /** The order in which the datagram was received. */
+        private final long mySequence;
+
+        /** The channel to forward from. */
+        private final DatagramChannel myChannel;
+
+        /** The address to forward to. */
+        private final InetSocketAddress myTarget;
+
+        /** The contents. */
+        private final byte[] myData;
+
+        /**
+         * Creates a held datagram.
+         * @param theDue the time to forward it.
+         * @param theSequence the order in which it was received.
+         * @param theChannel the channel to forward from.
+         * @param theTarget the address to forward to.
+         * @param theData the contents.
+         */
+        Delayed(final long theDue, final long theSequence, final DatagramChannel theChannel,
+                final InetSocketAddress theTarget, final byte[] theData) {
+            myDue = theDue;
+            mySequence = theSequence;
+            myChannel = theChannel;
+            myTarget = theTarget;
+            myData = theData;
+        }
+
+        /**
+         * Orders datagrams by due time, then by the order they were received.
+         * @param theOther the other datagram.
+         * @return a negative number if this datagram is forwarded first.
+         */
+        @Override
+        public int compareTo(final Delayed theOther) {
+            int result = Long.compare(myDue, theOther.myDue);
+            if (result == 0) {
+                result = Long.compare(mySequence, theOther.mySequence);
+            }
+            return result;
+        }
+    }
+}
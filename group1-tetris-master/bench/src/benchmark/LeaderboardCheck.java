@@ -0,0 +1,122 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import leaderboard.Leaderboard;
+import leaderboard.ScoreEntry;
+
+/**
+ * Checks that a Leaderboard stays correct under concurrent submissions.
+ * <p>Several threads submit random scores for the same few players at once, each
+ * remembering the highest score it submitted per player. Once they are done, the
+ * best score of every player must be the highest score any thread submitted for
+ * them, and the rank of every player must be their position in getTop. The check
+ * runs once with scores spread over many rank buckets and once with scores so
+ * close that most share a bucket and tie.</p>
+ * <p>Usage: {@code java benchmark.LeaderboardCheck [players [submissions [threads]]]}
+ * where submissions is per thread; the exit status is 1 if a check failed.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class LeaderboardCheck {
+
+    /** Default number of players. */
+    private static final int DEFAULT_PLAYERS = 1000;
+
+    /** Default number of submissions per thread. */
+    private static final int DEFAULT_SUBMISSIONS = 200_000;
+
+    /** The exclusive upper bounds of the random scores of each run. */
+    private static final int[] SCORE_RANGES = {1 << 20, 100};
+
+    /** The highest score of a player no thread submitted for. */
+    private static final int NONE = -1;
+
+    private LeaderboardCheck() { }
+
+    /**
+     * Runs the check with each range of scores.
+     * @param theArgs [players [submissions [threads]]]
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    public static void main(final String[] theArgs) throws InterruptedException {
+        final int players = theArgs.length > 0 ? Integer.parseInt(theArgs[0])
+                : DEFAULT_PLAYERS;
+        final int submissions = theArgs.length > 1 ? Integer.parseInt(theArgs[1])
+                : DEFAULT_SUBMISSIONS;
+        final int threads = theArgs.length > 2 ? Integer.parseInt(theArgs[2])
+                : Runtime.getRuntime().availableProcessors();
+        final String[] names = new String[players];
+        for (int i = 0; i < players; i++) {
+            names[i] = "player" + i;
+        }
+        boolean passed = true;
+        for (final int range : SCORE_RANGES) {
+            passed &= check(names, submissions, threads, range);
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Submits scores from several threads and checks the bests and the ranks.
+     * @param theNames the players.
+     * @param theSubmissions the submissions per thread.
+     * @param theThreads the number of threads.
+     * @param theRange the exclusive upper bound of the scores.
+     * @return true if every best and every rank was right.
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    private static boolean check(final String[] theNames, final int theSubmissions,
+                                 final int theThreads, final int theRange)
+            throws InterruptedException {
+        final Leaderboard board = new Leaderboard();
+        final int[][] highest = new int[theThreads][theNames.length];
+        final Thread[] submitters = new Thread[theThreads];
+        for (int t = 0; t < theThreads; t++) {
+            final int[] mine = highest[t];
+            Arrays.fill(mine, NONE);
+            submitters[t] = new Thread(() -> {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < theSubmissions; i++) {
+                    final int player = random.nextInt(theNames.length);
+                    final int score = random.nextInt(theRange);
+                    board.submit(theNames[player], score);
+                    mine[player] = Math.max(mine[player], score);
+                }
+            });
+            submitters[t].start();
+        }
+        for (final Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        int wrongBests = 0;
+        for (int player = 0; player < theNames.length; player++) {
+            int expected = NONE;
+            for (final int[] mine : highest) {
+                expected = Math.max(expected, mine[player]);
+            }
+            final ScoreEntry best = board.getBest(theNames[player]);
+            if (best == null ? expected != NONE : best.getScore() != expected) {
+                wrongBests++;
+            }
+        }
+        final List<ScoreEntry> top = board.getTop(theNames.length);
+        int wrongRanks = Math.abs(top.size() - board.size());
+        for (int i = 0; i < top.size(); i++) {
+            if (board.getRank(top.get(i).getPlayer()) != i + 1) {
+                wrongRanks++;
+            }
+        }
+        System.out.printf("scores below %d: %d players ranked, %d wrong bests, "
+                        + "%d wrong ranks%n", theRange, board.size(), wrongBests,
+                wrongRanks);
+        return wrongBests == 0 && wrongRanks == 0;
+    }
+}
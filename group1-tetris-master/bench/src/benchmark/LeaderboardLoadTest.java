@@ -0,0 +1,122 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import leaderboard.Leaderboard;
+import metrics.LatencyHistogram;
+
+/**
+ * Measures a Leaderboard under concurrent submissions.
+ * <p>The test submits random scores for random players from several threads for a
+ * while, then times each kind of query and a snapshot saved and loaded again, and
+ * prints the submissions per second and the query times.</p>
+ * <p>Usage: {@code java benchmark.LeaderboardLoadTest [players [seconds [threads]]]}</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class LeaderboardLoadTest {
+
+    /** Default number of players. */
+    private static final int DEFAULT_PLAYERS = 100_000;
+
+    /** Default seconds scores are submitted. */
+    private static final int DEFAULT_SECONDS = 5;
+
+    /** Highest random score. */
+    private static final int MAX_RANDOM_SCORE = 1 << 20;
+
+    /** Queries of each kind timed. */
+    private static final int QUERIES = 10_000;
+
+    /** Entries returned by the queries. */
+    private static final int QUERY_SIZE = 10;
+
+    private LeaderboardLoadTest() { }
+
+    /**
+     * Submits random scores from several threads and times the queries.
+     * @param theArgs [players [seconds [threads]]]
+     * @throws IOException if the snapshot could not be written.
+     * @throws InterruptedException if interrupted while waiting for the threads.
+     */
+    public static void main(final String[] theArgs) throws IOException, InterruptedException {
+        final int players = theArgs.length > 0 ? Integer.parseInt(theArgs[0])
+                : DEFAULT_PLAYERS;
+        final int seconds = theArgs.length > 1 ? Integer.parseInt(theArgs[1])
+                : DEFAULT_SECONDS;
+        final int threads = theArgs.length > 2 ? Integer.parseInt(theArgs[2])
+                : Runtime.getRuntime().availableProcessors();
+        final Leaderboard board = new Leaderboard();
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        final Thread[] submitters = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            submitters[i] = new Thread(() -> {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    board.submit("player" + random.nextInt(players),
+                            random.nextInt(MAX_RANDOM_SCORE));
+                }
+            });
+            submitters[i].start();
+        }
+        for (final Thread submitter : submitters) {
+            submitter.join();
+        }
+        System.out.printf("%d submissions/s, %d players ranked%n",
+                board.getSubmissionCount() / seconds, board.size());
+
+        final LatencyHistogram top = new LatencyHistogram();
+        final LatencyHistogram rank = new LatencyHistogram();
+        final LatencyHistogram around = new LatencyHistogram();
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < QUERIES; i++) {
+            final String player = "player" + random.nextInt(players);
+            long start = System.nanoTime();
+            board.getTop(QUERY_SIZE);
+            top.record(System.nanoTime() - start);
+            start = System.nanoTime();
+            board.getRank(player);
+            rank.record(System.nanoTime() - start);
+            start = System.nanoTime();
+            board.getAround(player, QUERY_SIZE);
+            around.record(System.nanoTime() - start);
+        }
+        printQuery("top " + QUERY_SIZE, top.snapshot());
+        printQuery("rank", rank.snapshot());
+        printQuery("around " + QUERY_SIZE, around.snapshot());
+
+        final Path file = Files.createTempFile("leaderboard", ".bin");
+        try {
+            long start = System.nanoTime();
+            board.save(file);
+            final long saved = System.nanoTime() - start;
+            start = System.nanoTime();
+            final Leaderboard loaded = Leaderboard.load(file);
+            System.out.printf("snapshot of %d KB saved in %.1f ms, %d players loaded in "
+                            + "%.1f ms%n", Files.size(file) / 1024,
+                    saved / LatencyHistogram.NANOS_PER_MICRO / LatencyHistogram.NANOS_PER_MICRO,
+                    loaded.size(), (System.nanoTime() - start)
+                            / LatencyHistogram.NANOS_PER_MICRO / LatencyHistogram.NANOS_PER_MICRO);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Prints the time taken by one kind of query.
+     * @param theName the query.
+     * @param theTimes the times in nanoseconds.
+     */
+    private static void printQuery(final String theName,
+                                   final LatencyHistogram.Snapshot theTimes) {
+        System.out.printf("%s: p50 %.1f us, p99 %.1f us%n", theName,
+                theTimes.percentile(LatencyHistogram.MEDIAN) / LatencyHistogram.NANOS_PER_MICRO,
+                theTimes.percentile(LatencyHistogram.TAIL) / LatencyHistogram.NANOS_PER_MICRO);
+    }
+}
@@ -0,0 +1,256 @@
+package benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import javax.swing.JComponent;
+import model.Block;
+import model.Board;
+import model.ScoreKeeper;
+import model.TetrisPiece;
+import view.BoardPanel;
+import view.NextPiecePanel;
+import view.OtherPanel;
+
+/**
+ * Benchmarks of painting the panels of the game window into offscreen images.
+ * <p>The benchmarks run with {@code java.awt.headless} set, so they need no
+ * display. A frame is what Swing does to paint a component: validate it, create a
+ * Graphics for the image, scaled for the device scale, paint the component and its
+ * children through paint, and dispose of the Graphics. Each panel is painted at
+ * device scales of 1, 1.5 and 2, as on standard and high density screens:</p>
+ * <ul>
+ * <li>BoardPanel.frame: a full frame of a board that is empty, half full or near
+ *     top-out. The boards are filled by dropping pieces at columns and rotations
+ *     drawn from a fixed seed, so they have the holes and colors of real games.</li>
+ * <li>NextPiecePanel.frame: a frame of an unchanged next piece.</li>
+ * <li>NextPiecePanel.changedFrame: the first frame after the next piece changed.</li>
+ * <li>OtherPanel.frame: a frame of unchanged scores.</li>
+ * <li>OtherPanel.changedFrame: the first frame after the score changed.</li>
+ * </ul>
+ * <p>Usage: {@code java benchmark.RenderBenchmark [filter [iterations [millis]]]},
+ * for example {@code RenderBenchmark "BoardPanel"}.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class RenderBenchmark {
+
+    /** The device scales benchmarked. */
+    private static final double[] SCALES = {1, 1.5, 2};
+
+    /** The names of the board states. */
+    private static final String[] STATES = {"empty", "half", "top-out"};
+
+    /** The seed of the pieces dropped to fill the boards. */
+    private static final long SEED = 305;
+
+    /** Free rows left above the stack of a board near top-out. */
+    private static final int TOP_OUT_ROWS = 3;
+
+    /** The rotations a piece can be dropped in. */
+    private static final int ROTATIONS = 4;
+
+    private RenderBenchmark() { }
+
+    /**
+     * Runs every benchmark at every scale.
+     * @param theArgs [filter [iterations [millis]]]
+     */
+    public static void main(final String[] theArgs) {
+        System.setProperty("java.awt.headless", "true");
+        final Harness harness = Harness.fromArgs(theArgs);
+        boardPanel(harness);
+        nextPiecePanel(harness);
+        otherPanel(harness);
+    }
+
+    /**
+     * Runs the BoardPanel benchmarks.
+     * @param theHarness the harness.
+     */
+    private static void boardPanel(final Harness theHarness) {
+        if (theHarness.isSelected("BoardPanel.frame")) {
+            final Random random = new Random(SEED);
+            for (final String state : STATES) {
+                final Board board = new Board();
+                final BoardPanel panel = new BoardPanel(board.getWidth(), board.getHeight());
+                board.addPropertyChangeListener(panel);
+                board.newGame();
+                final int height;
+                if ("empty".equals(state)) {
+                    height = 0;
+                } else if ("half".equals(state)) {
+                    height = board.getHeight() / 2;
+                } else {
+                    height = board.getHeight() - TOP_OUT_ROWS;
+                }
+                fill(board, height, random);
+                prepare(panel);
+                for (final double scale : SCALES) {
+                    final BufferedImage image = image(panel, scale);
+                    theHarness.run("BoardPanel.frame", params(state, scale), null,
+                        i -> frame(panel, image, scale));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the NextPiecePanel benchmarks.
+     * @param theHarness the harness.
+     */
+    private static void nextPiecePanel(final Harness theHarness) {
+        final NextPiecePanel panel = new NextPiecePanel();
+        final TetrisPiece[] pieces = TetrisPiece.values();
+        panel.propertyChange(new PropertyChangeEvent(panel, Board.PROPERTY_CHANGE_NEXT,
+                null, TetrisPiece.T));
+        prepare(panel);
+        for (final double scale : SCALES) {
+            final BufferedImage image = image(panel, scale);
+            theHarness.run("NextPiecePanel.frame", params(null, scale), null,
+                i -> frame(panel, image, scale));
+            theHarness.run("NextPiecePanel.changedFrame", params(null, scale),
+                i -> panel.propertyChange(new PropertyChangeEvent(panel,
+                        Board.PROPERTY_CHANGE_NEXT, null, pieces[i % pieces.length])),
+                i -> frame(panel, image, scale));
+        }
+    }
+
+    /**
+     * Runs the OtherPanel benchmarks.
+     * @param theHarness the harness.
+     */
+    private static void otherPanel(final Harness theHarness) {
+        final OtherPanel panel = new OtherPanel();
+        prepare(panel);
+        for (final double scale : SCALES) {
+            final BufferedImage image = image(panel, scale);
+            theHarness.run("OtherPanel.frame", params(null, scale), null,
+                i -> frame(panel, image, scale));
+            theHarness.run("OtherPanel.changedFrame", params(null, scale),
+                i -> panel.propertyChange(new PropertyChangeEvent(panel,
+                        ScoreKeeper.PROPERTY_CHANGE_SCORE, null, i)),
+                i -> frame(panel, image, scale));
+        }
+    }
+
+    /**
+     * Drops pieces at random columns and rotations until the stack of a board is at
+     * least a number of rows high, starting new games when a game is over. The height
+     * is measured from the frozen blocks the board sends with its BOARD events.
+     * @param theBoard the board, with a new game started.
+     * @param theHeight the rows the stack must reach.
+     * @param theRandom chooses the columns and rotations.
+     */
+    private static void fill(final Board theBoard, final int theHeight,
+                             final Random theRandom) {
+        final int width = theBoard.getWidth();
+        final int[] stack = new int[1];
+        final PropertyChangeListener listener = theEvent -> {
+            if (Board.PROPERTY_CHANGE_BOARD.equals(theEvent.getPropertyName())) {
+                stack[0] = stackHeight((List<?>) theEvent.getNewValue());
+            }
+        };
+        theBoard.addPropertyChangeListener(listener);
+        while (stack[0] < theHeight) {
+            final int rotations = theRandom.nextInt(ROTATIONS);
+            for (int i = 0; i < rotations; i++) {
+                theBoard.rotateCW();
+            }
+            final int shift = theRandom.nextInt(width) - width / 2;
+            for (int i = 0; i < Math.abs(shift); i++) {
+                if (shift < 0) {
+                    theBoard.left();
+                } else {
+                    theBoard.right();
+                }
+            }
+            theBoard.drop();
+            if (theBoard.isGameOver()) {
+                theBoard.newGame();
+            }
+        }
+        theBoard.removePropertyChangeListener(listener);
+    }
+
+    /**
+     * Finds the height of the stack of frozen blocks of a board.
+     * @param theRows the rows of a BOARD event, bottom row first.
+     * @return the number of rows up to the highest row with a frozen block.
+     */
+    private static int stackHeight(final List<?> theRows) {
+        int result = 0;
+        int y = 0;
+        for (final Object row : theRows) {
+            y++;
+            for (final Block block : (Block[]) row) {
+                if (block != null) {
+                    result = y;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sizes a panel to its preferred size and lays it out.
+     * @param thePanel the panel.
+     */
+    private static void prepare(final JComponent thePanel) {
+        thePanel.setSize(thePanel.getPreferredSize());
+        thePanel.validate();
+    }
+
+    /**
+     * Creates the offscreen image a panel is painted into.
+     * @param thePanel the panel, sized.
+     * @param theScale the device scale.
+     * @return the image.
+     */
+    private static BufferedImage image(final JComponent thePanel, final double theScale) {
+        return new BufferedImage((int) Math.ceil(thePanel.getWidth() * theScale),
+                (int) Math.ceil(thePanel.getHeight() * theScale), BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Paints one frame of a panel into an image.
+     * @param thePanel the panel.
+     * @param theImage the image.
+     * @param theScale the device scale.
+     */
+    private static void frame(final JComponent thePanel, final BufferedImage theImage,
+                              final double theScale) {
+        thePanel.validate();
+        final Graphics2D g2d = theImage.createGraphics();
+        try {
+            g2d.scale(theScale, theScale);
+            thePanel.paint(g2d);
+        } finally {
+            g2d.dispose();
+        }
+    }
+
+    /**
+     * Formats the parameters of a benchmark.
+     * @param theState the board state, or null if there is none.
+     * @param theScale the device scale.
+     * @return the parameters.
+     */
+    private static String params(final String theState, final double theScale) {
+        final String scale = String.format(Locale.ROOT, "%.1fx", theScale);
+        final String result;
+        if (theState == null) {
+            result = scale;
+        } else {
+            result = theState + " " + scale;
+        }
+        return result;
+    }
+}
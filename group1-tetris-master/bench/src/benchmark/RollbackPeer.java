@@ -0,0 +1,260 @@
+package benchmark;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import metrics.LatencyHistogram;
+import model.GameJournal.Operation;
+import model.GreedyBot;
+import model.VersusMatch;
+import network.RollbackSession;
+
+/**
+ * One side of an online versus match between two bots, for testing RollbackSession
+ * between two processes.
+ * <p>Each peer runs the match at {@value #TICKS_PER_SECOND} ticks per second and
+ * sends every tick a UDP datagram with all of its inputs that the other side has
+ * not acknowledged yet, so lost or reordered datagrams need no retransmission. Put a
+ * LatencyProxy between the peers to add latency, jitter and loss. When both sides
+ * have every input of the last tick each peer prints the checksum of the final
+ * state, which must be the same on both sides, and its rollback statistics.</p>
+ * <p>Usage: {@code java benchmark.RollbackPeer player localPort remotePort
+ * [ticks [seed]]} where remotePort is the port of the other peer or of the proxy
+ * that forwards to it, both on the loopback address.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class RollbackPeer {
+
+    /** The type byte of a datagram sent before the match starts. */
+    public static final int HELLO = 3;
+
+    /** The type byte of a datagram with inputs. */
+    public static final int INPUTS = 4;
+
+    /** Ticks per second. */
+    private static final int TICKS_PER_SECOND = 60;
+
+    /** Ticks between the moves of the bot. */
+    private static final int BOT_TICKS = 6;
+
+    /** Default number of ticks played. */
+    private static final int DEFAULT_TICKS = 1800;
+
+    /** The most inputs in one datagram. */
+    private static final int MAX_INPUTS = 255;
+
+    /** Bytes of an inputs datagram before the inputs: type, ack, first tick, count. */
+    private static final int HEADER_SIZE = 1 + 4 + 4 + 1;
+
+    /** Milliseconds between hello datagrams while waiting for the other side. */
+    private static final long HELLO_MILLIS = 10;
+
+    /** Milliseconds the last inputs are resent after the match has ended. */
+    private static final long LINGER_MILLIS = 500;
+
+    /** The session being played. */
+    private final RollbackSession mySession;
+
+    /** The local board's bot. */
+    private final GreedyBot myBot = new GreedyBot();
+
+    /** The match. */
+    private final VersusMatch myMatch;
+
+    /** The index of the local player. */
+    private final int myPlayer;
+
+    /** The socket. */
+    private final DatagramChannel myChannel;
+
+    /** The address of the other side or of the proxy forwarding to it. */
+    private final InetSocketAddress myRemote;
+
+    /** Holds datagrams being sent. */
+    private final ByteBuffer myOut = ByteBuffer.allocate(HEADER_SIZE + MAX_INPUTS);
+
+    /** Holds datagrams being received. */
+    private final ByteBuffer myIn = ByteBuffer.allocate(HEADER_SIZE + MAX_INPUTS);
+
+    /** The last local tick the other side has acknowledged. */
+    private int myAcked = -1;
+
+    /** Ticks the local side had to wait for remote inputs. */
+    private long myStalls;
+
+    /**
+     * Creates a peer.
+     * @param thePlayer the index of the local player, 0 or 1.
+     * @param theLocalPort the UDP port to receive on.
+     * @param theRemotePort the UDP port to send to.
+     * @param theSeed the seed of the match, the same on both sides.
+     * @throws IOException if the socket could not be opened.
+     */
+    public RollbackPeer(final int thePlayer, final int theLocalPort, final int theRemotePort,
+                        final long theSeed) throws IOException {
+        myPlayer = thePlayer;
+        myMatch = new VersusMatch(theSeed);
+        mySession = new RollbackSession(myMatch, thePlayer);
+        final InetAddress loopback = InetAddress.getLoopbackAddress();
+        myChannel = DatagramChannel.open();
+        myChannel.bind(new InetSocketAddress(loopback, theLocalPort));
+        myRemote = new InetSocketAddress(loopback, theRemotePort);
+        myChannel.configureBlocking(false);
+    }
+
+    /**
+     * Plays a match against a peer in another process.
+     * @param theArgs player localPort remotePort [ticks [seed]]
+     * @throws IOException if the socket failed.
+     */
+    public static void main(final String[] theArgs) throws IOException {
+        if (theArgs.length < 3) {
+            System.err.println("Usage: RollbackPeer player localPort remotePort "
+                    + "[ticks [seed]]");
+            System.exit(1);
+        }
+        final int ticks = theArgs.length > 3 ? Integer.parseInt(theArgs[3]) : DEFAULT_TICKS;
+        final long seed = theArgs.length > 4 ? Long.parseLong(theArgs[4]) : 1;
+        final RollbackPeer peer = new RollbackPeer(Integer.parseInt(theArgs[0]),
+                Integer.parseInt(theArgs[1]), Integer.parseInt(theArgs[2]), seed);
+        peer.play(ticks);
+        peer.report();
+    }
+
+    /**
+     * Plays a number of ticks, then keeps sending until both sides have all inputs.
+     * @param theTicks the number of ticks.
+     * @throws IOException if the socket failed.
+     */
+    public void play(final int theTicks) throws IOException {
+        waitForPeer();
+        final long period = TimeUnit.SECONDS.toNanos(1) / TICKS_PER_SECOND;
+        long next = System.nanoTime();
+        long lingerUntil = Long.MAX_VALUE;
+        while (System.nanoTime() < lingerUntil) {
+            receive();
+            if (mySession.getTick() < theTicks) {
+                if (mySession.canAdvance()) {
+                    mySession.advance(botInput());
+                } else {
+                    myStalls++;
+                }
+            } else if (mySession.getRemoteConfirmed() >= theTicks - 1
+                    && myAcked >= theTicks - 1 && lingerUntil == Long.MAX_VALUE) {
+                //Keep answering for a while in case our acknowledgements were lost
+                lingerUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LINGER_MILLIS);
+            }
+            send();
+            next += period;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+
+    /**
+     * Prints the final checksum and the rollback statistics.
+     */
+    public void report() {
+        final LatencyHistogram.Snapshot rollbacks = mySession.getRollbackNanos();
+        System.out.printf("player %d tick %d checksum %08x winner %d%n", myPlayer,
+                mySession.getTick(), mySession.checksum(), myMatch.getWinner());
+        System.out.printf("player %d: %d rollbacks, %.1f ticks each, at most %d; "
+                        + "p99 %.1f us, max %.1f us; %d stalled ticks%n", myPlayer,
+                mySession.getRollbackCount(),
+                mySession.getResimulatedTicks() / (double) Math.max(1,
+                        mySession.getRollbackCount()),
+                mySession.getMaxRollback(),
+                rollbacks.percentile(LatencyHistogram.TAIL) / LatencyHistogram.NANOS_PER_MICRO,
+                rollbacks.percentile(LatencyHistogram.MAX) / LatencyHistogram.NANOS_PER_MICRO,
+                myStalls);
+    }
+
+    /**
+     * Sends hellos until the other side is heard from.
+     * @throws IOException if the socket failed.
+     */
+    private void waitForPeer() throws IOException {
+        boolean heard = false;
+        while (!heard) {
+            myOut.clear();
+            myOut.put((byte) HELLO).flip();
+            myChannel.send(myOut, myRemote);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(HELLO_MILLIS));
+            myIn.clear();
+            heard = readDatagram();
+        }
+    }
+
+    /**
+     * Chooses the local input of the next tick.
+     * @return the input.
+     */
+    private int botInput() {
+        int result = RollbackSession.NO_INPUT;
+        if (mySession.getTick() % BOT_TICKS == 0) {
+            final Operation move = myBot.nextMove(myMatch.getBoard(myPlayer));
+            if (move != null) {
+                result = move.ordinal();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends the local inputs the other side has not acknowledged.
+     * @throws IOException if the socket failed.
+     */
+    private void send() throws IOException {
+        final int first = myAcked + 1;
+        final int count = Math.min(MAX_INPUTS, mySession.getTick() - first);
+        myOut.clear();
+        myOut.put((byte) INPUTS);
+        myOut.putInt(mySession.getRemoteConfirmed());
+        myOut.putInt(first);
+        myOut.put((byte) count);
+        for (int tick = first; tick < first + count; tick++) {
+            myOut.put((byte) mySession.getLocalInput(tick));
+        }
+        myOut.flip();
+        myChannel.send(myOut, myRemote);
+    }
+
+    /**
+     * Handles every datagram that has arrived.
+     * @throws IOException if the socket failed.
+     */
+    private void receive() throws IOException {
+        boolean more = true;
+        while (more) {
+            myIn.clear();
+            more = readDatagram();
+            if (more && myIn.remaining() >= HEADER_SIZE && myIn.get() == INPUTS) {
+                myAcked = Math.max(myAcked, myIn.getInt());
+                final int first = myIn.getInt();
+                final int count = myIn.get() & MAX_INPUTS;
+                for (int i = 0; i < count && myIn.hasRemaining(); i++) {
+                    mySession.receiveRemote(first + i, myIn.get());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads one datagram into the input buffer, flipped for reading. The socket is
+     * not connected because a proxy may forward from another port than it listens on.
+     * @return false if no datagram was waiting.
+     * @throws IOException if the socket failed.
+     */
+    private boolean readDatagram() throws IOException {
+        final boolean result = myChannel.receive(myIn) != null;
+        myIn.flip();
+        return result;
+    }
+}
@@ -0,0 +1,259 @@
+package benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import model.Board;
+import model.GameJournal.Operation;
+import network.Protocol;
+import network.SpectatorBroadcast;
+
+/**
+ * Measures a SpectatorBroadcast watched by many spectators on the loopback interface.
+ * <p>The test plays a Board on the main thread, one input every
+ * {@value #INPUT_MICROS} microseconds, with a broadcast attached. Most spectators are
+ * read by a reader thread as fast as frames arrive; the slow ones never read, so
+ * their sockets fill up and the broadcast has to resync them. It prints the time the
+ * game thread spends per input, the CPU time of the sender thread per frame and what
+ * the spectators received.</p>
+ * <p>Usage: {@code java benchmark.SpectatorLoadTest [spectators [slow [inputs]]]}</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class SpectatorLoadTest {
+
+    /** Default number of spectators that read. */
+    private static final int DEFAULT_SPECTATORS = 1000;
+
+    /** Default number of spectators that never read. */
+    private static final int DEFAULT_SLOW = 10;
+
+    /** Default number of inputs played. */
+    private static final int DEFAULT_INPUTS = 5000;
+
+    /** Microseconds between inputs. */
+    private static final int INPUT_MICROS = 1000;
+
+    /** Receive buffer of the slow spectators, small so that they fall behind soon. */
+    private static final int SLOW_RECEIVE_BUFFER = 4096;
+
+    /** Bytes of the read buffer of each spectator. */
+    private static final int READ_BUFFER = 4096;
+
+    /** The inputs played after the new game, in turn. */
+    private static final Operation[] INPUTS = {Operation.LEFT, Operation.ROTATE_CW,
+        Operation.RIGHT, Operation.STEP, Operation.DOWN, Operation.ROTATE_CCW,
+        Operation.LEFT, Operation.STEP, Operation.DROP};
+
+    /** Milliseconds to wait for the spectators to receive the last frame. */
+    private static final long DRAIN_MILLIS = 5000;
+
+    /** Whether the reader thread should stop. */
+    private volatile boolean myStopped;
+
+    /** Complete frames read by the reader thread. */
+    private volatile long myFramesRead;
+
+    /** Spectators whose last frame read was the newest frame. */
+    private volatile int myCaughtUp;
+
+    /** The number of the newest frame, for the reader thread. */
+    private volatile long myLastFrame = Long.MAX_VALUE;
+
+    private SpectatorLoadTest() { }
+
+    /**
+     * Runs the load test.
+     * @param theArgs [spectators [slow [inputs]]]
+     * @throws IOException if a connection failed.
+     * @throws InterruptedException if interrupted while waiting for the reader.
+     */
+    public static void main(final String[] theArgs) throws IOException, InterruptedException {
+        final int spectators = theArgs.length > 0 ? Integer.parseInt(theArgs[0])
+                : DEFAULT_SPECTATORS;
+        final int slow = theArgs.length > 1 ? Integer.parseInt(theArgs[1]) : DEFAULT_SLOW;
+        final int inputs = theArgs.length > 2 ? Integer.parseInt(theArgs[2]) : DEFAULT_INPUTS;
+        new SpectatorLoadTest().run(spectators, slow, inputs);
+    }
+
+    /**
+     * Connects the spectators, plays the inputs and prints the results.
+     * @param theSpectators the number of spectators that read.
+     * @param theSlow the number of spectators that never read.
+     * @param theInputs the number of inputs.
+     * @throws IOException if a connection failed.
+     * @throws InterruptedException if interrupted while waiting for the reader.
+     */
+    private void run(final int theSpectators, final int theSlow, final int theInputs)
+            throws IOException, InterruptedException {
+        final Board board = new Board();
+        try (SpectatorBroadcast broadcast = SpectatorBroadcast.attach(board, 0)) {
+            final InetSocketAddress address = new InetSocketAddress(
+                    InetAddress.getLoopbackAddress(), broadcast.getPort());
+            final Selector selector = Selector.open();
+            for (int i = 0; i < theSpectators; i++) {
+                final SocketChannel channel = SocketChannel.open(address);
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new Viewer());
+            }
+            final List<SocketChannel> slow = new ArrayList<>();
+            for (int i = 0; i < theSlow; i++) {
+                final SocketChannel channel = SocketChannel.open();
+                channel.setOption(StandardSocketOptions.SO_RCVBUF, SLOW_RECEIVE_BUFFER);
+                channel.connect(address);
+                slow.add(channel);
+            }
+            final Thread reader = new Thread(() -> read(selector),
+                    "SpectatorLoadTest-reader");
+            reader.start();
+            while (broadcast.getSpectatorCount() < theSpectators + theSlow) {
+                Thread.sleep(1);
+            }
+            System.out.printf("%d spectators, %d of them slow%n", theSpectators + theSlow,
+                    theSlow);
+
+            final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            final long senderId = threadId(threads, "SpectatorBroadcast");
+            final long senderStart = threads.getThreadCpuTime(senderId);
+            final long firstFrame = broadcast.getFrameCount();
+            long gameNanos = 0;
+            long next = System.nanoTime();
+            for (int i = 0; i < theInputs; i++) {
+                final long start = System.nanoTime();
+                if (i == 0) {
+                    board.newGame();
+                } else {
+                    Protocol.apply(board, INPUTS[i % INPUTS.length]);
+                }
+                gameNanos += System.nanoTime() - start;
+                next += TimeUnit.MICROSECONDS.toNanos(INPUT_MICROS);
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+            myLastFrame = broadcast.getFrameCount() - 1;
+            final long deadline = System.currentTimeMillis() + DRAIN_MILLIS;
+            while (myCaughtUp < theSpectators && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            final long frames = broadcast.getFrameCount() - firstFrame;
+            final long senderNanos = threads.getThreadCpuTime(senderId) - senderStart;
+
+            System.out.printf("game thread %.1f us/input, %d frames encoded%n",
+                    gameNanos / 1000.0 / theInputs, frames);
+            System.out.printf("sender thread %.1f us CPU/frame, %.2f us CPU/frame/spectator%n",
+                    senderNanos / 1000.0 / frames,
+                    senderNanos / 1000.0 / frames / (theSpectators + theSlow));
+            System.out.printf("%d of %d spectators caught up, %.1f frames read per "
+                    + "spectator, %d resyncs, %d KB sent%n", myCaughtUp, theSpectators,
+                    myFramesRead / (double) theSpectators, broadcast.getResyncCount(),
+                    broadcast.getBytesSent() / 1024);
+
+            myStopped = true;
+            selector.wakeup();
+            reader.join();
+            for (final SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+            for (final SocketChannel channel : slow) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reader thread loop, which reads every frame sent to the spectators that read.
+     * @param theSelector the selector of the spectators.
+     */
+    private void read(final Selector theSelector) {
+        try {
+            while (!myStopped) {
+                theSelector.select();
+                for (final SelectionKey key : theSelector.selectedKeys()) {
+                    final Viewer viewer = (Viewer) key.attachment();
+                    if (((SocketChannel) key.channel()).read(viewer.myBuffer) < 0) {
+                        key.cancel();
+                    } else {
+                        readFrames(viewer);
+                    }
+                }
+                theSelector.selectedKeys().clear();
+            }
+        } catch (final IOException e) {
+            System.err.println("Reader failed: " + e);
+        }
+    }
+
+    /**
+     * Consumes the complete frames in the buffer of a spectator.
+     * @param theViewer the spectator.
+     */
+    private void readFrames(final Viewer theViewer) {
+        final ByteBuffer buffer = theViewer.myBuffer;
+        buffer.flip();
+        while (buffer.remaining() >= Protocol.ACK_HEADER_SIZE
+                && buffer.remaining() >= Protocol.ACK_HEADER_SIZE + frameLength(buffer)) {
+            final int number = buffer.getShort(buffer.position() + 1) & Protocol.SHORT_MASK;
+            if (!theViewer.myCaughtUp && number == (myLastFrame & Protocol.SHORT_MASK)) {
+                theViewer.myCaughtUp = true;
+                myCaughtUp++;
+            }
+            buffer.position(buffer.position() + Protocol.ACK_HEADER_SIZE
+                    + frameLength(buffer));
+            myFramesRead++;
+        }
+        buffer.compact();
+    }
+
+    /**
+     * Gets the length of the encoded state of the frame at the position of a buffer.
+     * @param theBuffer the buffer, with at least a frame header remaining.
+     * @return the length after the header.
+     */
+    private static int frameLength(final ByteBuffer theBuffer) {
+        return theBuffer.getShort(theBuffer.position() + Protocol.ACK_HEADER_SIZE - 2)
+                & Protocol.SHORT_MASK;
+    }
+
+    /**
+     * Finds a thread by name.
+     * @param theThreads the thread bean.
+     * @param theName the name of the thread.
+     * @return the id of the thread, or -1 if there is none.
+     */
+    private static long threadId(final ThreadMXBean theThreads, final String theName) {
+        long result = -1;
+        for (final ThreadInfo info : theThreads.getThreadInfo(theThreads.getAllThreadIds())) {
+            if (info != null && theName.equals(info.getThreadName())) {
+                result = info.getThreadId();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A spectator read by the reader thread.
+     */
+    private static final class Viewer {
+
+        /** Holds the bytes read and not yet consumed. */
+        private final ByteBuffer myBuffer = ByteBuffer.allocate(READ_BUFFER);
+
+        /** Whether the newest frame was read. */
+        private boolean myCaughtUp;
+    }
+}
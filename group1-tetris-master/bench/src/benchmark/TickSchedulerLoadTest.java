@@ -0,0 +1,94 @@
+package benchmark;
+
+import controller.ScheduledBoard;
+import controller.TickScheduler;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import metrics.LatencyHistogram;
+import model.Board;
+
+/**
+ * Measures a TickScheduler stepping many Boards.
+ * <p>The test steps the boards at the fall speeds of levels 1 to 10, a quarter of
+ * them paused, and prints the steps, the wakeups, the CPU time and how late the
+ * steps were every second.</p>
+ * <p>Usage: {@code java benchmark.TickSchedulerLoadTest [boards [seconds [shards]]]}</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class TickSchedulerLoadTest {
+
+    /** Default number of boards. */
+    private static final int DEFAULT_BOARDS = 10_000;
+
+    /** Default seconds the test runs. */
+    private static final int DEFAULT_SECONDS = 10;
+
+    /** Fall delay of level 1 in milliseconds, as in TetrisFrame. */
+    private static final long LEVEL_ONE_MILLIS = 1000;
+
+    /** Milliseconds the fall delay shortens per level, as in TetrisFrame. */
+    private static final long LEVEL_MILLIS = 100;
+
+    /** Levels the boards are spread over. */
+    private static final int LEVELS = 10;
+
+    /** One in this many boards is paused. */
+    private static final int PAUSED_EVERY = 4;
+
+    private TickSchedulerLoadTest() { }
+
+    /**
+     * Steps boards for a while and prints statistics every second.
+     * @param theArgs [boards [seconds [shards]]]
+     * @throws InterruptedException if interrupted while sleeping.
+     */
+    public static void main(final String[] theArgs) throws InterruptedException {
+        final int boards = theArgs.length > 0 ? Integer.parseInt(theArgs[0]) : DEFAULT_BOARDS;
+        final int seconds = theArgs.length > 1 ? Integer.parseInt(theArgs[1])
+                : DEFAULT_SECONDS;
+        final int shards = theArgs.length > 2 ? Integer.parseInt(theArgs[2])
+                : Runtime.getRuntime().availableProcessors();
+        final com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean)
+                        ManagementFactory.getOperatingSystemMXBean();
+        try (TickScheduler scheduler = new TickScheduler(shards)) {
+            for (int i = 0; i < boards; i++) {
+                final Board board = new Board();
+                board.newGame();
+                final ScheduledBoard handle = scheduler.add(board,
+                        LEVEL_ONE_MILLIS - LEVEL_MILLIS * (i % LEVELS));
+                if (i % PAUSED_EVERY == 0) {
+                    handle.pause();
+                }
+            }
+            long steps = scheduler.getStepCount();
+            long wakeups = scheduler.getWakeupCount();
+            long cpu = os.getProcessCpuTime();
+            for (int second = 0; second < seconds; second++) {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(1));
+                final LatencyHistogram.Snapshot late = scheduler.drainLateness();
+                System.out.printf("%d steps/s, %d wakeups/s, %.1f ms CPU/s, "
+                                + "late p50 %.0f us p99 %.0f us max %.0f us%n",
+                        scheduler.getStepCount() - steps,
+                        scheduler.getWakeupCount() - wakeups,
+                        (os.getProcessCpuTime() - cpu) / LatencyHistogram.NANOS_PER_MICRO
+                                / LatencyHistogram.NANOS_PER_MICRO,
+                        late.percentile(LatencyHistogram.MEDIAN)
+                                / LatencyHistogram.NANOS_PER_MICRO,
+                        late.percentile(LatencyHistogram.TAIL)
+                                / LatencyHistogram.NANOS_PER_MICRO,
+                        late.percentile(LatencyHistogram.MAX)
+                                / LatencyHistogram.NANOS_PER_MICRO);
+                steps = scheduler.getStepCount();
+                wakeups = scheduler.getWakeupCount();
+                cpu = os.getProcessCpuTime();
+            }
+            System.out.println(scheduler.getScheduledCount() + " of "
+                    + scheduler.getBoardCount() + " boards falling");
+        }
+    }
+}
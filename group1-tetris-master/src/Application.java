@@ -1,4 +1,6 @@
 import controller.TetrisGame;
+import metrics.StartupProfile;
+import view.VersusFrame;
 
 /**
  * Application contains the main method that is used to run the game of Tetris.
@@ -9,16 +11,62 @@ import controller.TetrisGame;
  * @version Winter 2023
  */
 public final class Application {
+
+    /** Command line flag selecting active rendering, optionally followed by =fps. */
+    private static final String ACTIVE_RENDER_FLAG = "--active-render";
+
+    /** Command line flag starting a versus match against a bot instead. */
+    private static final String VERSUS_FLAG = "--versus";
+
+    /** The frame cap used when active rendering is selected without a value. */
+    private static final int DEFAULT_FRAME_CAP = 60;
+
     private Application() { }
 
     /**
      * Main method that calls the Tetris Game to run.
-     * @param theArgs Arguments for the main method (not used)
+     * @param theArgs Arguments for the main method, --startup-profile prints
+     *                the startup phase timings and --active-render[=fps] draws the
+     *                board on a render thread capped at fps frames per second
+     *                and --versus plays a versus match against a bot
      */
     public static void main(final String[] theArgs) {
-        javax.swing.SwingUtilities.invokeLater(() -> {
-            final TetrisGame game = new TetrisGame();
-            game.runTetris();
-        });
+        final StartupProfile profile = StartupProfile.fromArgs(theArgs);
+        final int frameCap = frameCap(theArgs);
+        if (java.util.Arrays.asList(theArgs).contains(VERSUS_FLAG)) {
+            javax.swing.SwingUtilities.invokeLater(() -> new VersusFrame().createAndShowGUI());
+        } else {
+            javax.swing.SwingUtilities.invokeLater(() -> {
+                final TetrisGame game = new TetrisGame(profile, frameCap);
+                game.runTetris();
+            });
+        }
+    }
+
+    /**
+     * Reads the active rendering frame cap from the command line, exiting with a
+     * usage message if the cap is not a positive number.
+     * @param theArgs the command line arguments
+     * @return the frame cap, or 0 when the board is painted by Swing
+     */
+    private static int frameCap(final String... theArgs) {
+        int result = 0;
+        for (final String arg : theArgs) {
+            if (ACTIVE_RENDER_FLAG.equals(arg)) {
+                result = DEFAULT_FRAME_CAP;
+            } else if (arg.startsWith(ACTIVE_RENDER_FLAG + "=")) {
+                try {
+                    result = Integer.parseInt(arg.substring(ACTIVE_RENDER_FLAG.length() + 1));
+                } catch (final NumberFormatException e) {
+                    result = 0;
+                }
+                if (result <= 0) {
+                    System.err.println("Usage: Application [--startup-profile] "
+                            + "[--active-render[=fps]] [--versus], fps a positive number");
+                    System.exit(1);
+                }
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,214 @@
+package controller;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import model.Board;
+import model.GameJournal;
+import view.OffscreenBoardRenderer;
+
+/**
+ * Renders recorded games to PNG frame sequences without a window, for thumbnails
+ * and reviews of past games.
+ * <p>Every journal is replayed onto a new Board and a frame is written each time an
+ * operation changes what the board looks like, followed by a thumbnail of the final
+ * board. Journals are rendered in parallel on one worker thread per core, and each
+ * worker reuses a single image for all of its frames.</p>
+ * <p>Usage: {@code java controller.ReplayExporter [--cell=size] outputDir journal...}
+ * writes the frames of each journal to outputDir/journalName/.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class ReplayExporter {
+
+    /** Command line flag setting the size of a block in pixels. */
+    private static final String CELL_FLAG = "--cell=";
+
+    /** The size of a block in pixels when not given. */
+    private static final int DEFAULT_CELL_SIZE = 25;
+
+    /** The image a worker thread draws frames into, reused across journals. */
+    private static final ThreadLocal<BufferedImage> IMAGES = new ThreadLocal<>();
+
+    /** The size of a block in pixels. */
+    private final int myCellSize;
+
+    /** The directory the frame sequences are written to. */
+    private final Path myOutput;
+
+    /**
+     * Creates an exporter.
+     * @param theOutput the directory the frame sequences are written to.
+     * @param theCellSize the size of a block in pixels.
+     */
+    public ReplayExporter(final Path theOutput, final int theCellSize) {
+        myOutput = theOutput;
+        myCellSize = theCellSize;
+    }
+
+    /**
+     * Renders the journals named on the command line.
+     * @param theArgs [--cell=size] outputDir journal...
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    public static void main(final String[] theArgs) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        int cellSize = DEFAULT_CELL_SIZE;
+        final List<String> paths = new ArrayList<>();
+        for (final String arg : theArgs) {
+            if (arg.startsWith(CELL_FLAG)) {
+                cellSize = Integer.parseInt(arg.substring(CELL_FLAG.length()));
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("Usage: ReplayExporter [--cell=size] outputDir journal...");
+            System.exit(1);
+        }
+        final List<Path> journals = new ArrayList<>();
+        for (final String path : paths.subList(1, paths.size())) {
+            journals.add(Paths.get(path));
+        }
+        final int failures = new ReplayExporter(Paths.get(paths.get(0)), cellSize)
+                .exportAll(journals, Runtime.getRuntime().availableProcessors());
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Renders journals in parallel, reporting each one on standard output.
+     * @param theJournals the journal files.
+     * @param theThreads the number of worker threads.
+     * @return the number of journals that could not be rendered.
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     */
+    public int exportAll(final List<Path> theJournals, final int theThreads)
+            throws InterruptedException {
+        final ExecutorService workers = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(theThreads, theJournals.size())));
+        final List<Future<Integer>> results = new ArrayList<>();
+        for (final Path journal : theJournals) {
+            final Callable<Integer> task = () -> export(journal);
+            results.add(workers.submit(task));
+        }
+        int failures = 0;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                System.out.println(theJournals.get(i) + ": "
+                        + results.get(i).get() + " frames");
+            } catch (final ExecutionException e) {
+                System.err.println(theJournals.get(i) + ": " + e.getCause());
+                failures++;
+            }
+        }
+        workers.shutdown();
+        return failures;
+    }
+
+    /**
+     * Renders one journal to a frame sequence and a thumbnail.
+     * @param theJournal the journal file.
+     * @return the number of frames written, not counting the thumbnail.
+     * @throws IOException if the journal could not be read or a frame written.
+     */
+    public int export(final Path theJournal) throws IOException {
+        final String name = theJournal.getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        final Path directory = Files.createDirectories(myOutput.resolve(name));
+        final FrameWriter writer = new FrameWriter(directory);
+        GameJournal.rebuild(theJournal, writer);
+        if (writer.myRenderer != null) {
+            writer.myRenderer.render(writer.myImage);
+            ImageIO.write(writer.myImage, "png", directory.resolve("thumbnail.png").toFile());
+        }
+        return writer.myFrames;
+    }
+
+    /**
+     * Gets the image of the current worker thread, replacing it if it does not match
+     * the frame size of a renderer.
+     * @param theRenderer the renderer that will draw into the image.
+     * @return the image.
+     */
+    private static BufferedImage imageFor(final OffscreenBoardRenderer theRenderer) {
+        BufferedImage image = IMAGES.get();
+        if (image == null || image.getWidth() != theRenderer.getWidth()
+                || image.getHeight() != theRenderer.getHeight()) {
+            image = theRenderer.createImage();
+            IMAGES.set(image);
+        }
+        return image;
+    }
+
+    /**
+     * Writes a frame whenever a replayed operation changed the board.
+     */
+    private final class FrameWriter implements GameJournal.ReplayObserver {
+
+        /** The directory the frames are written to. */
+        private final Path myDirectory;
+
+        /** Draws the board being replayed, created once the board exists. */
+        private OffscreenBoardRenderer myRenderer;
+
+        /** The image frames are drawn into. */
+        private BufferedImage myImage;
+
+        /** The number of frames written. */
+        private int myFrames;
+
+        /**
+         * Creates a frame writer.
+         * @param theDirectory the directory the frames are written to.
+         */
+        private FrameWriter(final Path theDirectory) {
+            myDirectory = theDirectory;
+        }
+
+        /**
+         * Starts drawing the board once it has been created.
+         * @param theBoard the board being replayed.
+         */
+        @Override
+        public void started(final Board theBoard) {
+            myRenderer = OffscreenBoardRenderer.attach(theBoard, myCellSize);
+            myImage = imageFor(myRenderer);
+        }
+
+        /**
+         * Writes a frame if the operation changed the board.
+         * @param theBoard the board being replayed.
+         * @param theOperation the operation that was replayed.
+         */
+        @Override
+        public void replayed(final Board theBoard,
+                             final GameJournal.Operation theOperation) {
+            if (myRenderer.isChanged()) {
+                myRenderer.render(myImage);
+                final Path frame = myDirectory.resolve(String.format("frame-%06d.png",
+                        myFrames));
+                try {
+                    ImageIO.write(myImage, "png", frame.toFile());
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                myFrames++;
+            }
+        }
+    }
+}
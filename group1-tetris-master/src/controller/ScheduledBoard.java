@@ -0,0 +1,155 @@
+package controller;
+
+import java.util.concurrent.TimeUnit;
+import model.Board;
+
+/**
+ * A Board stepped by a TickScheduler, and the handle used to control it.
+ * <p>The Board belongs to the worker shard of the scheduler it was added to: the
+ * shard steps it, and every other operation on it must be passed to execute so that
+ * it runs on the same thread. The methods of the handle may be called from any
+ * thread; they are queued to the shard as well.</p>
+ * <p>While the board is paused, cancelled or its game is over it is not in the
+ * shard's timing wheel at all, so it costs nothing. A task passed to execute that
+ * starts a new game makes it fall again.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class ScheduledBoard extends TimingWheel.Entry {
+
+    /** The board. */
+    private final Board myBoard;
+
+    /** The shard the board belongs to. */
+    private final TickScheduler.Shard myShard;
+
+    /** Ticks between steps, only changed on the shard. */
+    private volatile long myPeriod;
+
+    /** Whether the board is paused. */
+    private volatile boolean myPaused;
+
+    /** Whether the board was removed from the scheduler. */
+    private volatile boolean myCancelled;
+
+    /**
+     * Creates a handle.
+     * @param theBoard the board.
+     * @param theShard the shard the board belongs to.
+     * @param thePeriod the ticks between steps.
+     */
+    ScheduledBoard(final Board theBoard, final TickScheduler.Shard theShard,
+                   final long thePeriod) {
+        myBoard = theBoard;
+        myShard = theShard;
+        myPeriod = thePeriod;
+    }
+
+    /**
+     * Gets the board. Outside tasks passed to execute it must not be used while the
+     * board is scheduled.
+     * @return the board.
+     */
+    public Board getBoard() {
+        return myBoard;
+    }
+
+    /**
+     * Runs a task on the board's shard, such as a move by the player, and starts
+     * stepping the board again afterwards if the task started a new game. If the
+     * task throws, the board is cancelled.
+     * @param theTask the task.
+     */
+    public void execute(final Runnable theTask) {
+        myShard.submit(() -> {
+            try {
+                theTask.run();
+            } catch (final RuntimeException e) {
+                myShard.fail(this, e);
+            }
+            myShard.rearm(this, false);
+        });
+    }
+
+    /**
+     * Sets the time between steps, such as when the level changes. The next step
+     * comes one new period from now, as when the game timer is restarted.
+     * @param thePeriodMillis the milliseconds between steps.
+     */
+    public void setPeriod(final long thePeriodMillis) {
+        final long period = TickScheduler.ticksOf(thePeriodMillis);
+        myShard.submit(() -> {
+            myPeriod = period;
+            myShard.rearm(this, true);
+        });
+    }
+
+    /**
+     * Stops stepping the board until it is resumed.
+     */
+    public void pause() {
+        myPaused = true;
+        myShard.submit(() -> myShard.rearm(this, false));
+    }
+
+    /**
+     * Steps the board again, one period from now.
+     */
+    public void resume() {
+        myPaused = false;
+        myShard.submit(() -> myShard.rearm(this, false));
+    }
+
+    /**
+     * Checks whether the board is paused.
+     * @return true if paused.
+     */
+    public boolean isPaused() {
+        return myPaused;
+    }
+
+    /**
+     * Removes the board from its scheduler for good.
+     */
+    public void cancel() {
+        if (!myCancelled) {
+            myCancelled = true;
+            myShard.submit(() -> myShard.remove(this));
+        }
+    }
+
+    /**
+     * Checks whether the board was removed from its scheduler.
+     * @return true if cancelled.
+     */
+    public boolean isCancelled() {
+        return myCancelled;
+    }
+
+    /**
+     * Gets the time between steps.
+     * @return the period in milliseconds.
+     */
+    public long getPeriodMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(myPeriod * TickScheduler.TICK_NANOS);
+    }
+
+    /**
+     * Gets the ticks between steps.
+     * @return the period.
+     */
+    long getPeriod() {
+        return myPeriod;
+    }
+
+    /**
+     * Checks whether the board should be stepped.
+     * @return false if it is paused, cancelled or its game is over.
+     */
+    boolean isActive() {
+        return !myPaused && !myCancelled && !myBoard.isGameOver();
+    }
+}
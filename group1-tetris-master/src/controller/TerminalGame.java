@@ -0,0 +1,274 @@
+package controller;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import model.Board;
+import model.ScoreKeeper;
+import network.SpectatorBroadcast;
+import view.TerminalView;
+
+/**
+ * Plays Tetris in an ANSI terminal, for machines that are only reachable over SSH.
+ * <p>The terminal is put in raw mode with stty so every key press is read from
+ * standard input as soon as it is typed, and restored on exit. A reader thread
+ * queues the keys and the game thread applies them and the timer ticks to the
+ * Board, writing one frame after each.</p>
+ * <p>Keys: A/D or the arrow keys move, S or down moves down, Q/E or up rotate,
+ * space drops, P pauses, N starts a new game and X or Ctrl-C quits.</p>
+ * <p>Usage: {@code java controller.TerminalGame [spectatorPort]} also broadcasts the
+ * game to spectators on the given loopback port.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class TerminalGame {
+
+    /** The default delay between timer ticks in milliseconds. */
+    private static final int DEFAULT_DELAY = 1000;
+
+    /** Milliseconds the tick delay shrinks by per level. */
+    private static final int DELAY_PER_LEVEL = 100;
+
+    /** The shortest delay between timer ticks in milliseconds. */
+    private static final int MIN_DELAY = 50;
+
+    /** The escape key, which starts an arrow key sequence. */
+    private static final int ESCAPE = 27;
+
+    /** The key code of Ctrl-C, which raw mode delivers as a key. */
+    private static final int CTRL_C = 3;
+
+    /** Queued when standard input is closed. */
+    private static final int END_OF_INPUT = -1;
+
+    /** The board being played. */
+    private final Board myBoard;
+
+    /** The scores of the current game. */
+    private final ScoreKeeper myScoreKeeper;
+
+    /** Draws the board. */
+    private final TerminalView myView;
+
+    /** Keys read from standard input, waiting for the game thread. */
+    private final BlockingQueue<Integer> myKeys = new LinkedBlockingQueue<>();
+
+    /** Whether the game is paused. */
+    private boolean myPaused;
+
+    /** Whether the game is over. */
+    private boolean myGameOver;
+
+    /**
+     * Creates a terminal game.
+     * @param theOut where the frames are written.
+     */
+    public TerminalGame(final OutputStream theOut) {
+        myBoard = new Board();
+        myScoreKeeper = new ScoreKeeper();
+        myView = new TerminalView(theOut, myBoard.getWidth(), myBoard.getHeight());
+        myBoard.addPropertyChangeListener(myScoreKeeper);
+        myBoard.addPropertyChangeListener(myView);
+        myBoard.addPropertyChangeListener(e -> {
+            if (Board.PROPERTY_CHANGE_GAME.equals(e.getPropertyName())) {
+                myGameOver = (boolean) e.getNewValue();
+            }
+        });
+        myScoreKeeper.addPropertyChangeListener(myView);
+    }
+
+    /**
+     * Plays a game in the terminal this program runs in.
+     * @param theArgs [spectatorPort]
+     * @throws IOException if the terminal or the spectator port could not be used.
+     * @throws InterruptedException if interrupted while changing the terminal mode.
+     */
+    public static void main(final String[] theArgs) throws IOException, InterruptedException {
+        final OutputStream out = new FileOutputStream(FileDescriptor.out);
+        final TerminalGame game = new TerminalGame(out);
+        SpectatorBroadcast broadcast = null;
+        if (theArgs.length > 0) {
+            broadcast = SpectatorBroadcast.attach(game.myBoard, Integer.parseInt(theArgs[0]));
+        }
+        final String saved = stty("-g").trim();
+        stty("raw -echo");
+        try {
+            game.run(System.in);
+        } finally {
+            game.myView.close();
+            stty(saved);
+            if (broadcast != null) {
+                broadcast.close();
+            }
+        }
+    }
+
+    /**
+     * Runs the game until the player quits or the input ends.
+     * @param theInput the keyboard input.
+     * @throws IOException if a frame could not be written.
+     */
+    public void run(final InputStream theInput) throws IOException {
+        final Thread reader = new Thread(() -> readKeys(theInput), "TerminalGame-input");
+        reader.setDaemon(true);
+        reader.start();
+
+        myBoard.newGame();
+        myView.render();
+        long nextTick = System.nanoTime() + tickNanos();
+        boolean running = true;
+        while (running) {
+            Integer key = null;
+            try {
+                key = myKeys.poll(Math.max(0, nextTick - System.nanoTime()),
+                        TimeUnit.NANOSECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (key != null) {
+                running = handleKey(key);
+            } else if (System.nanoTime() >= nextTick) {
+                if (!myPaused && !myGameOver) {
+                    myBoard.step();
+                }
+                nextTick = System.nanoTime() + tickNanos();
+            }
+            myView.render();
+        }
+    }
+
+    /**
+     * Applies a key to the game.
+     * @param theKey the key code.
+     * @return false if the player quit.
+     */
+    private boolean handleKey(final int theKey) {
+        boolean result = true;
+        final boolean playing = !myPaused && !myGameOver;
+        switch (Character.toLowerCase(theKey)) {
+            case 'a' -> {
+                if (playing) {
+                    myBoard.left();
+                }
+            }
+            case 'd' -> {
+                if (playing) {
+                    myBoard.right();
+                }
+            }
+            case 's' -> {
+                if (playing) {
+                    myBoard.down();
+                }
+            }
+            case 'q' -> {
+                if (playing) {
+                    myBoard.rotateCCW();
+                }
+            }
+            case 'e', 'w' -> {
+                if (playing) {
+                    myBoard.rotateCW();
+                }
+            }
+            case ' ' -> {
+                if (playing) {
+                    myBoard.drop();
+                }
+            }
+            case 'p' -> myPaused = !myPaused && !myGameOver;
+            case 'n' -> {
+                if (myGameOver) {
+                    myBoard.newGame();
+                }
+            }
+            case 'x', CTRL_C, END_OF_INPUT -> result = false;
+            default -> { }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the time between timer ticks for the current level.
+     * @return the tick time in nanoseconds.
+     */
+    private long tickNanos() {
+        final int level = myScoreKeeper.getLevel();
+        int delay = DEFAULT_DELAY;
+        if (level > 1) {
+            delay = Math.max(MIN_DELAY, DEFAULT_DELAY - level * DELAY_PER_LEVEL);
+        }
+        return TimeUnit.MILLISECONDS.toNanos(delay);
+    }
+
+    /**
+     * Reader thread loop that queues keys, translating arrow key sequences into the
+     * matching letter keys.
+     * @param theInput the keyboard input.
+     */
+    private void readKeys(final InputStream theInput) {
+        try {
+            int key = theInput.read();
+            while (key >= 0) {
+                if (key == ESCAPE) {
+                    key = theInput.read();
+                    if (key == '[') {
+                        myKeys.add(arrowKey(theInput.read()));
+                        key = theInput.read();
+                    } else {
+                        //A bare escape, so the byte read after it is the next key
+                        myKeys.add(ESCAPE);
+                    }
+                } else {
+                    myKeys.add(key);
+                    key = theInput.read();
+                }
+            }
+        } catch (final IOException e) {
+            //Treated like the end of the input
+        }
+        myKeys.add(END_OF_INPUT);
+    }
+
+    /**
+     * Translates the last byte of an arrow key sequence into the matching letter key.
+     * @param theFinal the byte after the escape and '['.
+     * @return the letter key, or ESCAPE for any other sequence.
+     */
+    private static int arrowKey(final int theFinal) {
+        return switch (theFinal) {
+            case 'A' -> 'e';
+            case 'B' -> 's';
+            case 'C' -> 'd';
+            case 'D' -> 'a';
+            default -> ESCAPE;
+        };
+    }
+
+    /**
+     * Runs stty on the controlling terminal.
+     * @param theSettings the stty arguments.
+     * @return the output of stty.
+     * @throws IOException if stty could not be run.
+     * @throws InterruptedException if interrupted while waiting for stty.
+     */
+    private static String stty(final String theSettings)
+            throws IOException, InterruptedException {
+        final Process process = new ProcessBuilder("sh", "-c", "stty " + theSettings
+                + " < /dev/tty").redirectErrorStream(true).start();
+        final String output = new String(process.getInputStream().readAllBytes(),
+                StandardCharsets.US_ASCII);
+        process.waitFor();
+        return output;
+    }
+}
@@ -2,6 +2,7 @@
 package controller;
 
 
+import metrics.StartupProfile;
 import view.TetrisFrame;
 
 /**
@@ -30,6 +31,16 @@ public class TetrisGame {
         this(new TetrisFrame());
     }
 
+    /**
+     * Creates a game whose frame records its startup phases in a profile.
+     * @param theProfile the startup profile.
+     * @param theFrameCap frames per second of the active rendering board,
+     *                    or 0 to paint the board with Swing.
+     */
+    public TetrisGame(final StartupProfile theProfile, final int theFrameCap) {
+        this(new TetrisFrame(theProfile, theFrameCap));
+    }
+
     /**
      * Runs the game of Tetris.
      */
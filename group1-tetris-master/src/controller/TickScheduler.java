@@ -0,0 +1,331 @@
+package controller;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import metrics.LatencyHistogram;
+import model.Board;
+
+/**
+ * Steps the gravity of many Boards on a fixed set of worker threads.
+ * <p>Each Board added belongs to one shard, the one with the fewest boards at the
+ * time. A shard keeps the next step of each of its boards in a TimingWheel of
+ * {@value #TICK_MILLIS} millisecond ticks, sleeps until the next tick on which a
+ * board is due and then steps every board due in one batch, so the work per tick is
+ * O(boards due) and not O(boards). Paused boards and boards whose game is over are
+ * not in the wheel and cost nothing. Other threads never touch a shard's wheel or
+ * boards; they queue tasks that the shard runs before each batch.</p>
+ * <p>There is one shard per core by default. Java cannot pin a thread to a core, so
+ * a shard is only as pinned as the operating system keeps it; keeping each board on
+ * one thread still keeps its data in one core's cache most of the time.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class TickScheduler implements Closeable {
+
+    /** Milliseconds per tick of the timing wheels. */
+    public static final long TICK_MILLIS = 1;
+
+    /** Nanoseconds per tick of the timing wheels. */
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+
+    /** The worker shards. */
+    private final Shard[] myShards;
+
+    /** System.nanoTime() of tick 0. */
+    private final long myOrigin = System.nanoTime();
+
+    /** How late the steps were, in nanoseconds. */
+    private final LatencyHistogram myLateness = new LatencyHistogram();
+
+    /** Whether the scheduler was closed. */
+    private volatile boolean myClosed;
+
+    /**
+     * Starts a scheduler.
+     * @param theShards the number of worker threads.
+     */
+    public TickScheduler(final int theShards) {
+        if (theShards < 1) {
+            throw new IllegalArgumentException("A scheduler needs a shard: " + theShards);
+        }
+        myShards = new Shard[theShards];
+        for (int i = 0; i < theShards; i++) {
+            myShards[i] = new Shard(i);
+        }
+    }
+
+    /**
+     * Starts a scheduler with one shard per core.
+     */
+    public TickScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Adds a board, which then belongs to the scheduler until cancelled. Its first
+     * step comes one period from now.
+     * @param theBoard the board.
+     * @param thePeriodMillis the milliseconds between steps.
+     * @return the handle used to control the board.
+     */
+    public ScheduledBoard add(final Board theBoard, final long thePeriodMillis) {
+        if (myClosed) {
+            throw new IllegalStateException("The scheduler is closed");
+        }
+        Shard shard = myShards[0];
+        for (final Shard other : myShards) {
+            if (other.myBoards.get() < shard.myBoards.get()) {
+                shard = other;
+            }
+        }
+        final Shard target = shard;
+        final ScheduledBoard result = new ScheduledBoard(theBoard, target,
+                ticksOf(thePeriodMillis));
+        target.myBoards.incrementAndGet();
+        target.submit(() -> target.rearm(result, true));
+        return result;
+    }
+
+    /**
+     * Gets the number of worker shards.
+     * @return the shards.
+     */
+    public int getShardCount() {
+        return myShards.length;
+    }
+
+    /**
+     * Gets the number of boards added and not cancelled.
+     * @return the boards.
+     */
+    public int getBoardCount() {
+        int result = 0;
+        for (final Shard shard : myShards) {
+            result += shard.myBoards.get();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of boards in the timing wheels, the ones that are falling.
+     * @return the boards.
+     */
+    public int getScheduledCount() {
+        int result = 0;
+        for (final Shard shard : myShards) {
+            result += shard.myScheduled;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of steps so far.
+     * @return the steps.
+     */
+    public long getStepCount() {
+        long result = 0;
+        for (final Shard shard : myShards) {
+            result += shard.mySteps;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of times the shards woke up to step boards or run tasks.
+     * @return the wakeups.
+     */
+    public long getWakeupCount() {
+        long result = 0;
+        for (final Shard shard : myShards) {
+            result += shard.myWakeups;
+        }
+        return result;
+    }
+
+    /**
+     * Gets how late the steps since the last call were and starts counting anew.
+     * @return a snapshot of the lateness in nanoseconds.
+     */
+    public LatencyHistogram.Snapshot drainLateness() {
+        return myLateness.drain();
+    }
+
+    /**
+     * Stops the shards; the boards are no longer stepped.
+     */
+    @Override
+    public void close() {
+        myClosed = true;
+        for (final Shard shard : myShards) {
+            LockSupport.unpark(shard.myThread);
+        }
+        for (final Shard shard : myShards) {
+            try {
+                shard.myThread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Converts milliseconds to ticks.
+     * @param theMillis the milliseconds.
+     * @return the ticks, at least 1.
+     */
+    static long ticksOf(final long theMillis) {
+        return Math.max(1, theMillis / TICK_MILLIS);
+    }
+
+    /**
+     * Gets the current tick.
+     * @return the ticks since the scheduler started.
+     */
+    private long currentTick() {
+        return (System.nanoTime() - myOrigin) / TICK_NANOS;
+    }
+
+    /**
+     * A worker thread with its own timing wheel of boards.
+     */
+    final class Shard implements Runnable {
+
+        /** The number of boards that belong to the shard. */
+        private final AtomicInteger myBoards = new AtomicInteger();
+
+        /** Tasks from other threads. */
+        private final Queue<Runnable> myTasks = new ConcurrentLinkedQueue<>();
+
+        /** The next step of each falling board. */
+        private final TimingWheel myWheel = new TimingWheel(currentTick());
+
+        /** The worker thread. */
+        private final Thread myThread;
+
+        /** The number of boards in the wheel. */
+        private volatile int myScheduled;
+
+        /** The number of steps. */
+        private volatile long mySteps;
+
+        /** The number of wakeups. */
+        private volatile long myWakeups;
+
+        /**
+         * Creates and starts a shard.
+         * @param theIndex the index of the shard, used in the thread name.
+         */
+        Shard(final int theIndex) {
+            myThread = new Thread(this, "TickScheduler-" + theIndex);
+            myThread.setDaemon(true);
+            myThread.start();
+        }
+
+        /**
+         * Runs tasks and steps due boards until the scheduler is closed.
+         */
+        @Override
+        public void run() {
+            while (!myClosed) {
+                myWakeups++;
+                runTasks();
+                myWheel.advance(currentTick(), this::step);
+                myScheduled = myWheel.size();
+                if (myTasks.isEmpty()) {
+                    final long next = myWheel.nextTick();
+                    if (next == TimingWheel.NEVER) {
+                        LockSupport.park(this);
+                    } else {
+                        LockSupport.parkNanos(this,
+                                myOrigin + next * TICK_NANOS - System.nanoTime());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Queues a task to run on the shard.
+         * @param theTask the task.
+         */
+        void submit(final Runnable theTask) {
+            myTasks.add(theTask);
+            LockSupport.unpark(myThread);
+        }
+
+        /**
+         * Puts a board in the wheel if it should fall and takes it out if not. Runs on
+         * the shard.
+         * @param theBoard the board.
+         * @param theRestart whether a falling board's next step should be one period
+         *                   from now rather than when it was due.
+         */
+        void rearm(final ScheduledBoard theBoard, final boolean theRestart) {
+            if (!theBoard.isActive()) {
+                myWheel.remove(theBoard);
+            } else if (theRestart || !theBoard.isScheduled()) {
+                myWheel.add(theBoard, myWheel.getNow() + theBoard.getPeriod());
+            }
+        }
+
+        /**
+         * Takes a cancelled board out of the wheel for good. Runs on the shard.
+         * @param theBoard the board.
+         */
+        void remove(final ScheduledBoard theBoard) {
+            myWheel.remove(theBoard);
+            myBoards.decrementAndGet();
+        }
+
+        /**
+         * Reports a board whose task or step threw and cancels it, leaving the other
+         * boards of the shard running. Runs on the shard.
+         * @param theBoard the board.
+         * @param theException what the board threw.
+         */
+        void fail(final ScheduledBoard theBoard, final RuntimeException theException) {
+            System.err.println("TickScheduler cancelled a failing board: " + theException);
+            theBoard.cancel();
+        }
+
+        /**
+         * Runs the queued tasks. A task that throws is reported and the rest still run.
+         */
+        private void runTasks() {
+            Runnable task = myTasks.poll();
+            while (task != null) {
+                try {
+                    task.run();
+                } catch (final RuntimeException e) {
+                    System.err.println("TickScheduler task failed: " + e);
+                }
+                task = myTasks.poll();
+            }
+        }
+
+        /**
+         * Steps a board that is due and puts it back in the wheel one period after
+         * its deadline unless its game ended. A board whose step throws is cancelled.
+         * @param theEntry the board.
+         */
+        private void step(final TimingWheel.Entry theEntry) {
+            final ScheduledBoard board = (ScheduledBoard) theEntry;
+            myLateness.record(System.nanoTime() - myOrigin - board.getDeadline() * TICK_NANOS);
+            try {
+                board.getBoard().step();
+            } catch (final RuntimeException e) {
+                fail(board, e);
+            }
+            mySteps++;
+            if (board.isActive()) {
+                myWheel.add(board, board.getDeadline() + board.getPeriod());
+            }
+        }
+    }
+}
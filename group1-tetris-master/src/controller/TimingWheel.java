@@ -0,0 +1,262 @@
+package controller;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel of deadlines counted in ticks.
+ * <p>The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots. Level 0 holds
+ * the deadlines of the current revolution one tick per slot, and each level above
+ * holds deadlines {@value #SLOTS} times further away one slot per revolution of the
+ * level below. When a revolution ends, the next slot of the level above is cascaded
+ * down, so every entry moves at most once per level. Entries are linked into their
+ * slot directly, so adding and removing an entry is O(1) and never allocates, and a
+ * bit mask of the occupied slots of each level lets the owner sleep until the next
+ * tick on which anything is due. Advancing therefore costs O(entries due) and not
+ * O(entries) or O(ticks).</p>
+ * <p>A wheel is not thread safe; it belongs to the thread that advances it.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+final class TimingWheel {
+
+    /** Returned by nextTick when the wheel is empty. */
+    static final long NEVER = Long.MAX_VALUE;
+
+    /** Bits of a tick that select the slot of one level. */
+    private static final int SLOT_BITS = 6;
+
+    /** Slots per level, one per bit of an occupancy mask. */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    /** Mask selecting the slot of one level. */
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /** Levels, enough for deadlines hours away at millisecond ticks. */
+    private static final int LEVELS = 4;
+
+    /** The first entry of each slot of each level, or null. */
+    private final Entry[][] mySlots = new Entry[LEVELS][SLOTS];
+
+    /** The occupied slots of each level, one bit per slot. */
+    private final long[] myOccupied = new long[LEVELS];
+
+    /** The current tick; every tick before it has been processed. */
+    private long myNow;
+
+    /** The number of entries in the wheel. */
+    private int mySize;
+
+    /**
+     * Creates an empty wheel.
+     * @param theNow the first tick to process.
+     */
+    TimingWheel(final long theNow) {
+        myNow = theNow;
+    }
+
+    /**
+     * Gets the current tick.
+     * @return the first tick not processed yet.
+     */
+    long getNow() {
+        return myNow;
+    }
+
+    /**
+     * Gets the number of entries in the wheel.
+     * @return the entries.
+     */
+    int size() {
+        return mySize;
+    }
+
+    /**
+     * Adds an entry, or moves it if it is already in the wheel.
+     * @param theEntry the entry.
+     * @param theDeadline the tick the entry is due; past ticks mean the current tick.
+     */
+    void add(final Entry theEntry, final long theDeadline) {
+        if (theEntry.isScheduled()) {
+            remove(theEntry);
+        }
+        theEntry.myDeadline = Math.max(theDeadline, myNow);
+        link(theEntry);
+        mySize++;
+    }
+
+    /**
+     * Removes an entry if it is in the wheel.
+     * @param theEntry the entry.
+     */
+    void remove(final Entry theEntry) {
+        if (theEntry.isScheduled()) {
+            unlink(theEntry);
+            mySize--;
+        }
+    }
+
+    /**
+     * Finds the next tick on which something must be done: an entry is due or a
+     * slot with entries must be cascaded.
+     * @return the tick, at least the current tick, or NEVER if the wheel is empty.
+     */
+    long nextTick() {
+        long result = NEVER;
+        if (mySize > 0) {
+            //Start of the next revolution of the top level, for deadlines beyond it
+            result = ((myNow >>> (SLOT_BITS * LEVELS)) + 1) << (SLOT_BITS * LEVELS);
+            for (int level = LEVELS - 1; level >= 0; level--) {
+                final int shift = SLOT_BITS * level;
+                final int current = (int) (myNow >>> shift) & SLOT_MASK;
+                //The current slot is still to do if the current tick starts it
+                final int first = (myNow & ((1L << shift) - 1)) == 0 ? current : current + 1;
+                final long ahead = first < SLOTS ? myOccupied[level] & (-1L << first) : 0;
+                if (ahead != 0) {
+                    final long revolution = myNow >>> (shift + SLOT_BITS) << (shift + SLOT_BITS);
+                    result = Math.min(result,
+                            revolution | (long) Long.numberOfTrailingZeros(ahead) << shift);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Processes every tick up to and including a tick, passing each entry that is
+     * due to a consumer after removing it. The consumer may add entries again; they
+     * are due at the earliest on the tick after the one being processed.
+     * @param theTick the last tick to process.
+     * @param theExpired receives the entries that are due, in deadline order.
+     */
+    void advance(final long theTick, final Consumer<Entry> theExpired) {
+        long next = nextTick();
+        while (next <= theTick) {
+            myNow = next;
+            cascade();
+            final int slot = (int) myNow & SLOT_MASK;
+            Entry entry = mySlots[0][slot];
+            mySlots[0][slot] = null;
+            myOccupied[0] &= ~(1L << slot);
+            myNow++;
+            while (entry != null) {
+                final Entry due = entry;
+                entry = entry.myNext;
+                due.myNext = null;
+                due.myPrev = null;
+                due.myLevel = Entry.UNSCHEDULED;
+                mySize--;
+                theExpired.accept(due);
+            }
+            next = nextTick();
+        }
+        myNow = Math.max(myNow, theTick + 1);
+    }
+
+    /**
+     * Moves the entries of the slots that start at the current tick down to the
+     * levels below, highest level first.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            final int shift = SLOT_BITS * level;
+            if ((myNow & ((1L << shift) - 1)) == 0) {
+                final int slot = (int) (myNow >>> shift) & SLOT_MASK;
+                Entry entry = mySlots[level][slot];
+                mySlots[level][slot] = null;
+                myOccupied[level] &= ~(1L << slot);
+                while (entry != null) {
+                    final Entry moved = entry;
+                    entry = entry.myNext;
+                    link(moved);
+                }
+            }
+        }
+    }
+
+    /**
+     * Links an entry into the slot of its deadline: the level is the highest slot
+     * digit in which the deadline differs from the current tick.
+     * @param theEntry the entry, with its deadline set.
+     */
+    private void link(final Entry theEntry) {
+        final long differing = theEntry.myDeadline ^ myNow;
+        final int level = Math.min(LEVELS - 1,
+                (Long.SIZE - 1 - Long.numberOfLeadingZeros(differing | 1)) / SLOT_BITS);
+        final int slot = (int) (theEntry.myDeadline >>> (SLOT_BITS * level)) & SLOT_MASK;
+        final Entry head = mySlots[level][slot];
+        theEntry.myLevel = level;
+        theEntry.mySlot = slot;
+        theEntry.myPrev = null;
+        theEntry.myNext = head;
+        if (head != null) {
+            head.myPrev = theEntry;
+        }
+        mySlots[level][slot] = theEntry;
+        myOccupied[level] |= 1L << slot;
+    }
+
+    /**
+     * Unlinks an entry from its slot.
+     * @param theEntry the entry, which must be scheduled.
+     */
+    private void unlink(final Entry theEntry) {
+        final Entry[] slots = mySlots[theEntry.myLevel];
+        if (theEntry.myPrev == null) {
+            slots[theEntry.mySlot] = theEntry.myNext;
+            if (theEntry.myNext == null) {
+                myOccupied[theEntry.myLevel] &= ~(1L << theEntry.mySlot);
+            }
+        } else {
+            theEntry.myPrev.myNext = theEntry.myNext;
+        }
+        if (theEntry.myNext != null) {
+            theEntry.myNext.myPrev = theEntry.myPrev;
+        }
+        theEntry.myNext = null;
+        theEntry.myPrev = null;
+        theEntry.myLevel = Entry.UNSCHEDULED;
+    }
+
+    /**
+     * Something with a deadline that can be linked into one wheel at a time.
+     */
+    static class Entry {
+
+        /** The level of an entry that is not in a wheel. */
+        private static final int UNSCHEDULED = -1;
+
+        /** The next entry in the slot. */
+        private Entry myNext;
+
+        /** The previous entry in the slot. */
+        private Entry myPrev;
+
+        /** The tick the entry is due. */
+        private long myDeadline;
+
+        /** The level the entry is linked into, or UNSCHEDULED. */
+        private int myLevel = UNSCHEDULED;
+
+        /** The slot the entry is linked into. */
+        private int mySlot;
+
+        /**
+         * Checks whether the entry is in a wheel.
+         * @return true if it is scheduled.
+         */
+        final boolean isScheduled() {
+            return myLevel != UNSCHEDULED;
+        }
+
+        /**
+         * Gets the tick the entry is or was last due.
+         * @return the deadline.
+         */
+        final long getDeadline() {
+            return myDeadline;
+        }
+    }
+}
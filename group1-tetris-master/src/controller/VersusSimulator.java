@@ -0,0 +1,140 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import model.GreedyBot;
+import model.VersusMatch;
+
+/**
+ * Simulates bot against bot versus matches without a window.
+ * <p>Each match is played by two GreedyBots taking turns one piece at a time until a
+ * player tops out or the piece limit is reached, which counts as a draw. Matches are
+ * seeded from the base seed and their number, so every run with the same arguments
+ * gives the same results, and they run in parallel on one worker thread per core.</p>
+ * <p>Usage: {@code java controller.VersusSimulator [matches [seed [pieceLimit]]]}</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class VersusSimulator {
+
+    /** Default number of matches. */
+    private static final int DEFAULT_MATCHES = 1000;
+
+    /** Default most pieces per player in a match. */
+    private static final int DEFAULT_PIECE_LIMIT = 2000;
+
+    /** Matches simulated by one task. */
+    private static final int MATCHES_PER_TASK = 50;
+
+    /** The most pieces each player places before the match is a draw. */
+    private final int myPieceLimit;
+
+    /**
+     * Creates a simulator.
+     * @param thePieceLimit the most pieces each player places before a draw.
+     */
+    public VersusSimulator(final int thePieceLimit) {
+        myPieceLimit = thePieceLimit;
+    }
+
+    /**
+     * Simulates the matches described on the command line and prints the results.
+     * @param theArgs [matches [seed [pieceLimit]]]
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     * @throws ExecutionException if a match failed.
+     */
+    public static void main(final String[] theArgs)
+            throws InterruptedException, ExecutionException {
+        final int matches = theArgs.length > 0 ? Integer.parseInt(theArgs[0])
+                : DEFAULT_MATCHES;
+        final long seed = theArgs.length > 1 ? Long.parseLong(theArgs[1]) : 0;
+        final int limit = theArgs.length > 2 ? Integer.parseInt(theArgs[2])
+                : DEFAULT_PIECE_LIMIT;
+
+        final long start = System.nanoTime();
+        final long[] totals = new VersusSimulator(limit).simulateAll(matches, seed,
+                Runtime.getRuntime().availableProcessors());
+        final double seconds = (System.nanoTime() - start)
+                / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.printf("%d matches in %.2f s, %.0f matches/s%n", matches, seconds,
+                matches / seconds);
+        System.out.printf("first player %d, second player %d, draws %d%n", totals[0],
+                totals[1], totals[2]);
+        System.out.printf("%.1f pieces and %.1f garbage rows per match%n",
+                totals[3] / (double) matches, totals[4] / (double) matches);
+    }
+
+    /**
+     * Simulates matches in parallel.
+     * @param theMatches the number of matches.
+     * @param theSeed the seed of the first match, the others follow it.
+     * @param theThreads the number of worker threads.
+     * @return the wins of the first and second player, the draws, the pieces placed
+     *         and the garbage rows sent, summed over all matches.
+     * @throws InterruptedException if interrupted while waiting for the workers.
+     * @throws ExecutionException if a match failed.
+     */
+    public long[] simulateAll(final int theMatches, final long theSeed, final int theThreads)
+            throws InterruptedException, ExecutionException {
+        final ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, theThreads));
+        final List<Future<long[]>> results = new ArrayList<>();
+        for (int first = 0; first < theMatches; first += MATCHES_PER_TASK) {
+            final int from = first;
+            final int to = Math.min(theMatches, first + MATCHES_PER_TASK);
+            results.add(workers.submit(() -> {
+                final long[] totals = new long[5];
+                for (int i = from; i < to; i++) {
+                    simulate(theSeed + i, totals);
+                }
+                return totals;
+            }));
+        }
+        final long[] result = new long[5];
+        try {
+            for (final Future<long[]> totals : results) {
+                final long[] part = totals.get();
+                for (int i = 0; i < result.length; i++) {
+                    result[i] += part[i];
+                }
+            }
+        } finally {
+            workers.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * Simulates one match, adding its result to running totals.
+     * @param theSeed the seed of the match.
+     * @param theTotals the wins of the first and second player, the draws, the pieces
+     *                  placed and the garbage rows sent.
+     */
+    public void simulate(final long theSeed, final long[] theTotals) {
+        final VersusMatch match = new VersusMatch(theSeed);
+        final GreedyBot bot = new GreedyBot();
+        match.newGame();
+        int pieces = 0;
+        while (!match.isOver() && pieces < myPieceLimit) {
+            bot.playPiece(match.getBoard(0));
+            if (!match.isOver()) {
+                bot.playPiece(match.getBoard(1));
+            }
+            pieces++;
+        }
+        if (match.isOver()) {
+            theTotals[match.getWinner()]++;
+        } else {
+            theTotals[2]++;
+        }
+        theTotals[3] += 2L * pieces;
+        theTotals[4] += match.getGarbageSent(0) + match.getGarbageSent(1);
+    }
+}
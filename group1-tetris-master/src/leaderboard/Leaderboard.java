@@ -0,0 +1,360 @@
+package leaderboard;
+
+import java.beans.PropertyChangeListener;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import metrics.LogLinearBuckets;
+import model.Board;
+import model.ScoreKeeper;
+
+/**
+ * Live rankings of the best score of every player.
+ * <p>The best entry of each player is kept in a map by player and in a
+ * ConcurrentSkipListSet ordered by rank, so top-K and around-me queries walk only
+ * the entries they return. Submissions never take a lock shared by all players:
+ * the best score of a player is replaced by compare-and-set, and the skip list is
+ * lock free. Readers may see a player twice or not at all while their score is
+ * being replaced, but never an entry that stays wrong.</p>
+ * <p>The skip list cannot count the entries ahead of one, so ranks also use counts
+ * of entries per score bucket, {@value #SUB_BUCKETS} buckets per power of two, kept
+ * in a Fenwick tree of atomic counters: the rank of a player is the count of the
+ * buckets above theirs, summed in O(log buckets), plus a walk over the few entries
+ * ahead of them in their own bucket.</p>
+ * <p>Rankings can be saved to a snapshot file, atomically replacing the last one,
+ * once or periodically, and loaded again.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class Leaderboard implements Closeable {
+
+    /** The rank of a player without a score. */
+    public static final int UNRANKED = 0;
+
+    /** The first int of a snapshot file. */
+    private static final int MAGIC = 0x54424C42;
+
+    /** Number of bits used for the linear sub-buckets of the rank counts. */
+    private static final int SUB_BUCKET_BITS = 10;
+
+    /** Number of linear sub-buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Total number of buckets, enough for every non-negative int. */
+    private static final int BUCKETS = LogLinearBuckets.count(SUB_BUCKET_BITS, Integer.SIZE);
+
+    /** The best entry of each player. */
+    private final ConcurrentMap<String, ScoreEntry> myBest = new ConcurrentHashMap<>();
+
+    /** The best entries in rank order. */
+    private final ConcurrentSkipListSet<ScoreEntry> myRanking = new ConcurrentSkipListSet<>();
+
+    /**
+     * The number of entries in the ranking per score bucket as a Fenwick tree, indexed
+     * from 1 for the highest bucket so that prefix sums count the higher buckets.
+     */
+    private final AtomicLongArray myBucketTree = new AtomicLongArray(BUCKETS + 1);
+
+    /** The number of scores submitted. */
+    private final LongAdder mySubmissions = new LongAdder();
+
+    /** Saves snapshots periodically, or null. */
+    private ScheduledExecutorService mySnapshots;
+
+    /** The file periodic snapshots are saved to, or null. */
+    private Path mySnapshotFile;
+
+    /**
+     * Loads rankings from a snapshot file.
+     * @param theFile the file written by save.
+     * @return the rankings.
+     * @throws IOException if the file could not be read or is not a snapshot.
+     */
+    public static Leaderboard load(final Path theFile) throws IOException {
+        final Leaderboard result = new Leaderboard();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(theFile)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(theFile + " is not a leaderboard snapshot");
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final ScoreEntry entry = new ScoreEntry(in.readUTF(), in.readInt(),
+                        in.readLong());
+                result.myBest.put(entry.getPlayer(), entry);
+                result.myRanking.add(entry);
+                result.count(entry.getScore(), 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Submits a score, which replaces the player's entry if it is their best so far.
+     * @param thePlayer the player.
+     * @param theScore the score, not negative.
+     * @return true if the score is the player's new best.
+     */
+    public boolean submit(final String thePlayer, final int theScore) {
+        if (theScore < 0) {
+            throw new IllegalArgumentException("Negative score " + theScore);
+        }
+        mySubmissions.increment();
+        final ScoreEntry entry = new ScoreEntry(thePlayer, theScore,
+                System.currentTimeMillis());
+        boolean result = false;
+        boolean done = false;
+        while (!done) {
+            final ScoreEntry best = myBest.get(thePlayer);
+            if (best != null && best.getScore() >= theScore) {
+                done = true;
+            } else if (best == null ? myBest.putIfAbsent(thePlayer, entry) == null
+                    : myBest.replace(thePlayer, best, entry)) {
+                if (myRanking.add(entry)) {
+                    count(theScore, 1);
+                }
+                if (best != null) {
+                    removeFromRanking(best);
+                }
+                //A better score that replaced this one meanwhile may have tried to
+                //remove it before it was added
+                if (myBest.get(thePlayer) != entry) {
+                    removeFromRanking(entry);
+                }
+                result = true;
+                done = true;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a Board listener that submits the score of a ScoreKeeper when the game
+     * is over.
+     * @param thePlayer the player of the Board.
+     * @param theKeeper the ScoreKeeper of the Board.
+     * @return the listener, to be added to the Board after the ScoreKeeper.
+     */
+    public PropertyChangeListener submitOnGameOver(final String thePlayer,
+                                                   final ScoreKeeper theKeeper) {
+        return theEvent -> {
+            if (Board.PROPERTY_CHANGE_GAME.equals(theEvent.getPropertyName())
+                    && (boolean) theEvent.getNewValue()) {
+                submit(thePlayer, theKeeper.getScore());
+            }
+        };
+    }
+
+    /**
+     * Gets the best entry of a player.
+     * @param thePlayer the player.
+     * @return the entry, or null if the player has no score.
+     */
+    public ScoreEntry getBest(final String thePlayer) {
+        return myBest.get(thePlayer);
+    }
+
+    /**
+     * Gets the number of players with a score.
+     * @return the players.
+     */
+    public int size() {
+        return myBest.size();
+    }
+
+    /**
+     * Gets the number of scores submitted, best or not.
+     * @return the submissions.
+     */
+    public long getSubmissionCount() {
+        return mySubmissions.sum();
+    }
+
+    /**
+     * Gets the best entries.
+     * @param theCount the most entries returned.
+     * @return the entries in rank order.
+     */
+    public List<ScoreEntry> getTop(final int theCount) {
+        return take(myRanking.iterator(), theCount);
+    }
+
+    /**
+     * Gets the rank of a player.
+     * @param thePlayer the player.
+     * @return the rank, 1 for the best player, or UNRANKED if the player has no score.
+     */
+    public int getRank(final String thePlayer) {
+        int result = UNRANKED;
+        final ScoreEntry best = myBest.get(thePlayer);
+        if (best != null) {
+            final int bucket = LogLinearBuckets.bucketOf(best.getScore(), SUB_BUCKET_BITS);
+            long ahead = 0;
+            for (int i = BUCKETS - 1 - bucket; i > 0; i -= i & -i) {
+                ahead += myBucketTree.get(i);
+            }
+            final ScoreEntry first = new ScoreEntry("", (int) Math.min(Integer.MAX_VALUE,
+                    LogLinearBuckets.upperBoundOf(bucket, SUB_BUCKET_BITS)), Long.MIN_VALUE);
+            ahead += myRanking.subSet(first, true, best, false).size();
+            result = (int) Math.min(Integer.MAX_VALUE, ahead + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the entries around a player's.
+     * @param thePlayer the player.
+     * @param theCount the most entries returned above and below the player's.
+     * @return the entries in rank order, the player's included, or an empty list if
+     *         the player has no score.
+     */
+    public List<ScoreEntry> getAround(final String thePlayer, final int theCount) {
+        final List<ScoreEntry> result = new ArrayList<>();
+        final ScoreEntry best = myBest.get(thePlayer);
+        if (best != null) {
+            result.addAll(take(myRanking.headSet(best, false).descendingIterator(),
+                    theCount));
+            Collections.reverse(result);
+            result.add(best);
+            result.addAll(take(myRanking.tailSet(best, false).iterator(), theCount));
+        }
+        return result;
+    }
+
+    /**
+     * Saves the rankings to a snapshot file. The snapshot is written to a temporary
+     * file next to it first, so the file always holds a complete snapshot.
+     * @param theFile the file.
+     * @throws IOException if the file could not be written.
+     */
+    public void save(final Path theFile) throws IOException {
+        final List<ScoreEntry> entries = new ArrayList<>(myRanking);
+        final Path absolute = theFile.toAbsolutePath();
+        final Path temporary = Files.createTempFile(absolute.getParent(),
+                absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(entries.size());
+                for (final ScoreEntry entry : entries) {
+                    out.writeUTF(entry.getPlayer());
+                    out.writeInt(entry.getScore());
+                    out.writeLong(entry.getTimestamp());
+                }
+            }
+            Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Saves a snapshot periodically on a background thread until closed.
+     * @param theFile the file.
+     * @param thePeriodMillis the milliseconds between snapshots.
+     */
+    public synchronized void startSnapshots(final Path theFile, final long thePeriodMillis) {
+        if (mySnapshots != null) {
+            throw new IllegalStateException("Snapshots are already saved to "
+                    + mySnapshotFile);
+        }
+        mySnapshotFile = theFile;
+        mySnapshots = Executors.newSingleThreadScheduledExecutor(task -> {
+            final Thread thread = new Thread(task, "Leaderboard-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        mySnapshots.scheduleWithFixedDelay(this::saveQuietly, thePeriodMillis,
+                thePeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic snapshots, if any, and saves a last one.
+     * @throws IOException if the last snapshot could not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (mySnapshots != null) {
+            mySnapshots.shutdown();
+            try {
+                mySnapshots.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mySnapshots = null;
+            save(mySnapshotFile);
+        }
+    }
+
+    /**
+     * Saves a periodic snapshot, reporting a failure instead of stopping the
+     * snapshots.
+     */
+    private void saveQuietly() {
+        try {
+            save(mySnapshotFile);
+        } catch (final IOException e) {
+            System.err.println("Leaderboard snapshot failed: " + e);
+        }
+    }
+
+    /**
+     * Removes an entry from the ranking and from the bucket counts.
+     * @param theEntry the entry.
+     */
+    private void removeFromRanking(final ScoreEntry theEntry) {
+        if (myRanking.remove(theEntry)) {
+            count(theEntry.getScore(), -1);
+        }
+    }
+
+    /**
+     * Adds to the count of the bucket of a score.
+     * @param theScore the score.
+     * @param theDelta 1 for an entry added, -1 for an entry removed.
+     */
+    private void count(final int theScore, final int theDelta) {
+        for (int i = BUCKETS - LogLinearBuckets.bucketOf(theScore, SUB_BUCKET_BITS);
+                i <= BUCKETS; i += i & -i) {
+            myBucketTree.addAndGet(i, theDelta);
+        }
+    }
+
+    /**
+     * Copies the first entries of an iterator.
+     * @param theEntries the entries.
+     * @param theCount the most entries copied.
+     * @return the entries.
+     */
+    private static List<ScoreEntry> take(final Iterator<ScoreEntry> theEntries,
+                                         final int theCount) {
+        final List<ScoreEntry> result = new ArrayList<>();
+        while (result.size() < theCount && theEntries.hasNext()) {
+            result.add(theEntries.next());
+        }
+        return result;
+    }
+}
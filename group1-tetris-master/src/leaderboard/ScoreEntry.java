@@ -0,0 +1,114 @@
+package leaderboard;
+
+import java.util.Objects;
+
+/**
+ * The best score of one player on a Leaderboard. ScoreEntry objects are immutable.
+ * <p>Entries are ordered by rank: higher scores first, then the score that was
+ * reached first, then by player so that no two players tie.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class ScoreEntry implements Comparable<ScoreEntry> {
+
+    /** The player. */
+    private final String myPlayer;
+
+    /** The score. */
+    private final int myScore;
+
+    /** System.currentTimeMillis() when the score was submitted. */
+    private final long myTimestamp;
+
+    /**
+     * Creates an entry.
+     * @param thePlayer the player.
+     * @param theScore the score.
+     * @param theTimestamp System.currentTimeMillis() when the score was submitted.
+     */
+    public ScoreEntry(final String thePlayer, final int theScore, final long theTimestamp) {
+        myPlayer = Objects.requireNonNull(thePlayer);
+        myScore = theScore;
+        myTimestamp = theTimestamp;
+    }
+
+    /**
+     * Gets the player.
+     * @return the player.
+     */
+    public String getPlayer() {
+        return myPlayer;
+    }
+
+    /**
+     * Gets the score.
+     * @return the score.
+     */
+    public int getScore() {
+        return myScore;
+    }
+
+    /**
+     * Gets the time the score was submitted.
+     * @return System.currentTimeMillis() at the submission.
+     */
+    public long getTimestamp() {
+        return myTimestamp;
+    }
+
+    /**
+     * Orders entries by rank.
+     * @param theOther the other entry.
+     * @return a negative number if this entry ranks higher.
+     */
+    @Override
+    public int compareTo(final ScoreEntry theOther) {
+        int result = Integer.compare(theOther.myScore, myScore);
+        if (result == 0) {
+            result = Long.compare(myTimestamp, theOther.myTimestamp);
+        }
+        if (result == 0) {
+            result = myPlayer.compareTo(theOther.myPlayer);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether another object is the same entry.
+     * @param theOther the other object.
+     * @return true for an entry of the same player, score and time.
+     */
+    @Override
+    public boolean equals(final Object theOther) {
+        boolean result = false;
+        if (theOther == this) {
+            result = true;
+        } else if (theOther != null && theOther.getClass() == getClass()) {
+            final ScoreEntry other = (ScoreEntry) theOther;
+            result = myScore == other.myScore && myTimestamp == other.myTimestamp
+                    && myPlayer.equals(other.myPlayer);
+        }
+        return result;
+    }
+
+    /**
+     * Computes a hash code consistent with equals.
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(myPlayer, myScore, myTimestamp);
+    }
+
+    /**
+     * Describes the entry.
+     * @return the player and score.
+     */
+    @Override
+    public String toString() {
+        return myPlayer + " " + myScore;
+    }
+}
@@ -0,0 +1,79 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for one hard drop on a Board.
+ * <p>Disabled unless a recording enables it, like the other Board events.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+@Name("tetris.BoardDrop")
+@Label("Board Drop")
+@Category({"Tetris", "Board"})
+@Description("One hard drop on a Board, including the freeze and line clears it caused")
+@Enabled(false)
+@StackTrace(false)
+public final class BoardDropEvent extends Event {
+
+    /** The piece that was dropped. */
+    @Name("pieceType")
+    @Label("Piece Type")
+    private String myPieceType;
+
+    /** The number of rows the piece fell. */
+    @Name("distance")
+    @Label("Distance")
+    private int myDistance;
+
+    /** The number of rows the drop cleared. */
+    @Name("rowsCleared")
+    @Label("Rows Cleared")
+    private int myRowsCleared;
+
+    /** The number of property change events the drop fired. */
+    @Name("eventCount")
+    @Label("Event Count")
+    private int myEventCount;
+
+    /**
+     * Sets the piece that was dropped.
+     * @param thePieceType the piece type, or null if there was none.
+     */
+    public void setPieceType(final String thePieceType) {
+        myPieceType = thePieceType;
+    }
+
+    /**
+     * Sets the number of rows the piece fell.
+     * @param theDistance the rows fallen.
+     */
+    public void setDistance(final int theDistance) {
+        myDistance = theDistance;
+    }
+
+    /**
+     * Sets the number of rows the drop cleared.
+     * @param theRowsCleared the rows cleared.
+     */
+    public void setRowsCleared(final int theRowsCleared) {
+        myRowsCleared = theRowsCleared;
+    }
+
+    /**
+     * Sets the number of property change events the drop fired.
+     * @param theEventCount the events fired.
+     */
+    public void setEventCount(final int theEventCount) {
+        myEventCount = theEventCount;
+    }
+}
@@ -0,0 +1,175 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what one or more Boards do, for JMX.
+ * <p>Every counter is a LongAdder, so counting is a few nanoseconds without locks
+ * or allocation even when many Boards on many threads share one BoardMetrics, as
+ * the sessions of a GameServer do; the counts are only summed when they are read.
+ * A Board without metrics does not count at all.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class BoardMetrics implements BoardMetricsMBean {
+
+    /** The gravity steps. */
+    private final LongAdder mySteps = new LongAdder();
+
+    /** The moves by the player. */
+    private final LongAdder myMoves = new LongAdder();
+
+    /** The rotations tried. */
+    private final LongAdder myRotations = new LongAdder();
+
+    /** The wall kick positions tried. */
+    private final LongAdder myKickAttempts = new LongAdder();
+
+    /** The pieces frozen. */
+    private final LongAdder myFreezes = new LongAdder();
+
+    /** The lines cleared. */
+    private final LongAdder myLines = new LongAdder();
+
+    /** The events fired. */
+    private final LongAdder myEvents = new LongAdder();
+
+    /** The listener calls made by the events. */
+    private final LongAdder myListenerCalls = new LongAdder();
+
+    /**
+     * Counts a gravity step.
+     */
+    public void step() {
+        mySteps.increment();
+    }
+
+    /**
+     * Counts a move by the player.
+     */
+    public void move() {
+        myMoves.increment();
+    }
+
+    /**
+     * Counts a rotation.
+     */
+    public void rotation() {
+        myRotations.increment();
+    }
+
+    /**
+     * Counts a wall kick position tried.
+     */
+    public void kickAttempt() {
+        myKickAttempts.increment();
+    }
+
+    /**
+     * Counts a frozen piece.
+     */
+    public void freeze() {
+        myFreezes.increment();
+    }
+
+    /**
+     * Counts a cleared line.
+     */
+    public void lineCleared() {
+        myLines.increment();
+    }
+
+    /**
+     * Counts an event.
+     * @param theListeners the number of listeners the event is delivered to.
+     */
+    public void event(final int theListeners) {
+        myEvents.increment();
+        myListenerCalls.add(theListeners);
+    }
+
+    /**
+     * Gets the number of gravity steps.
+     * @return the steps.
+     */
+    @Override
+    public long getSteps() {
+        return mySteps.sum();
+    }
+
+    /**
+     * Gets the number of left, right, down and drop moves by the player.
+     * @return the moves.
+     */
+    @Override
+    public long getMoves() {
+        return myMoves.sum();
+    }
+
+    /**
+     * Gets the number of rotations tried, in either direction.
+     * @return the rotations.
+     */
+    @Override
+    public long getRotations() {
+        return myRotations.sum();
+    }
+
+    /**
+     * Gets the number of wall kick positions tried by rotations.
+     * @return the kick attempts.
+     */
+    @Override
+    public long getKickAttempts() {
+        return myKickAttempts.sum();
+    }
+
+    /**
+     * Gets the number of pieces frozen.
+     * @return the freezes.
+     */
+    @Override
+    public long getFreezes() {
+        return myFreezes.sum();
+    }
+
+    /**
+     * Gets the number of lines cleared.
+     * @return the lines.
+     */
+    @Override
+    public long getLinesCleared() {
+        return myLines.sum();
+    }
+
+    /**
+     * Gets the number of events fired.
+     * @return the events.
+     */
+    @Override
+    public long getEvents() {
+        return myEvents.sum();
+    }
+
+    /**
+     * Gets the number of listener calls made by the events fired.
+     * @return the listener calls.
+     */
+    @Override
+    public long getListenerCalls() {
+        return myListenerCalls.sum();
+    }
+
+    /**
+     * Gets the average number of listeners each event reached.
+     * @return the event fan-out, or 0 before the first event.
+     */
+    @Override
+    public double getEventFanOut() {
+        final long events = myEvents.sum();
+        return events == 0 ? 0 : (double) myListenerCalls.sum() / events;
+    }
+}
@@ -0,0 +1,67 @@
+package metrics;
+
+/**
+ * The JMX view of BoardMetrics. Every attribute counts from the creation of the
+ * metrics.
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public interface BoardMetricsMBean {
+
+    /**
+     * Gets the number of gravity steps.
+     * @return the steps.
+     */
+    long getSteps();
+
+    /**
+     * Gets the number of left, right, down and drop moves by the player.
+     * @return the moves.
+     */
+    long getMoves();
+
+    /**
+     * Gets the number of rotations tried, in either direction.
+     * @return the rotations.
+     */
+    long getRotations();
+
+    /**
+     * Gets the number of wall kick positions tried by rotations.
+     * @return the kick attempts.
+     */
+    long getKickAttempts();
+
+    /**
+     * Gets the number of pieces frozen.
+     * @return the freezes.
+     */
+    long getFreezes();
+
+    /**
+     * Gets the number of lines cleared.
+     * @return the lines.
+     */
+    long getLinesCleared();
+
+    /**
+     * Gets the number of events fired.
+     * @return the events.
+     */
+    long getEvents();
+
+    /**
+     * Gets the number of listener calls made by the events fired.
+     * @return the listener calls.
+     */
+    long getListenerCalls();
+
+    /**
+     * Gets the average number of listeners each event reached.
+     * @return the event fan-out, or 0 before the first event.
+     */
+    double getEventFanOut();
+}
@@ -0,0 +1,53 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for one paint of the board view.
+ * <p>Disabled unless a recording enables it, like the Board events.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+@Name("tetris.BoardPaint")
+@Label("Board Paint")
+@Category({"Tetris", "View"})
+@Description("One paint of the board view, by Swing or by the active rendering thread")
+@Enabled(false)
+@StackTrace(false)
+public final class BoardPaintEvent extends Event {
+
+    /** The width of the area painted. */
+    @Name("width")
+    @Label("Width")
+    private int myWidth;
+
+    /** The height of the area painted. */
+    @Name("height")
+    @Label("Height")
+    private int myHeight;
+
+    /** The number of pixels painted, width times height. */
+    @Name("area")
+    @Label("Paint Area")
+    private long myArea;
+
+    /**
+     * Sets the size of the area painted.
+     * @param theWidth the width in pixels.
+     * @param theHeight the height in pixels.
+     */
+    public void setArea(final int theWidth, final int theHeight) {
+        myWidth = theWidth;
+        myHeight = theHeight;
+        myArea = (long) theWidth * theHeight;
+    }
+}
@@ -0,0 +1,68 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for one gravity step of a Board.
+ * <p>The event is disabled unless a recording enables it, such as one started with
+ * support_files/tetris.jfc, and a disabled event costs no more than the empty
+ * object the JIT compiler removes.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+@Name("tetris.BoardStep")
+@Label("Board Step")
+@Category({"Tetris", "Board"})
+@Description("One gravity step of a Board, including the freeze and line clears it caused")
+@Enabled(false)
+@StackTrace(false)
+public final class BoardStepEvent extends Event {
+
+    /** The piece that was falling when the step started. */
+    @Name("pieceType")
+    @Label("Piece Type")
+    private String myPieceType;
+
+    /** The number of rows the step cleared. */
+    @Name("rowsCleared")
+    @Label("Rows Cleared")
+    private int myRowsCleared;
+
+    /** The number of property change events the step fired. */
+    @Name("eventCount")
+    @Label("Event Count")
+    private int myEventCount;
+
+    /**
+     * Sets the piece that was falling when the step started.
+     * @param thePieceType the piece type, or null if there was none.
+     */
+    public void setPieceType(final String thePieceType) {
+        myPieceType = thePieceType;
+    }
+
+    /**
+     * Sets the number of rows the step cleared.
+     * @param theRowsCleared the rows cleared.
+     */
+    public void setRowsCleared(final int theRowsCleared) {
+        myRowsCleared = theRowsCleared;
+    }
+
+    /**
+     * Sets the number of property change events the step fired.
+     * @param theEventCount the events fired.
+     */
+    public void setEventCount(final int theEventCount) {
+        myEventCount = theEventCount;
+    }
+}
@@ -0,0 +1,73 @@
+package metrics;
+
+/**
+ * Paint times of the board view of one window, for JMX.
+ * <p>Paint times go into a fixed-bucket LatencyHistogram, so recording one is an
+ * atomic increment without allocation; percentiles are only computed when an
+ * attribute is read.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class FrameMetrics implements FrameMetricsMBean {
+
+    /** Board paint times in nanoseconds. */
+    private final LatencyHistogram myBoardPaints = new LatencyHistogram();
+
+    /**
+     * Records the time one board paint took.
+     * @param theNanos the paint time in nanoseconds.
+     */
+    public void recordBoardPaint(final long theNanos) {
+        myBoardPaints.record(theNanos);
+    }
+
+    /**
+     * Gets the number of board paints.
+     * @return the paints.
+     */
+    @Override
+    public long getBoardPaints() {
+        return myBoardPaints.snapshot().getCount();
+    }
+
+    /**
+     * Gets the median board paint time.
+     * @return the 50th percentile in microseconds.
+     */
+    @Override
+    public double getBoardPaintP50Micros() {
+        return myBoardPaints.snapshot().percentile(LatencyHistogram.MEDIAN)
+                / LatencyHistogram.NANOS_PER_MICRO;
+    }
+
+    /**
+     * Gets the tail board paint time.
+     * @return the 99th percentile in microseconds.
+     */
+    @Override
+    public double getBoardPaintP99Micros() {
+        return myBoardPaints.snapshot().percentile(LatencyHistogram.TAIL)
+                / LatencyHistogram.NANOS_PER_MICRO;
+    }
+
+    /**
+     * Gets the longest board paint time.
+     * @return the maximum in microseconds.
+     */
+    @Override
+    public double getBoardPaintMaxMicros() {
+        return myBoardPaints.snapshot().percentile(LatencyHistogram.MAX)
+                / LatencyHistogram.NANOS_PER_MICRO;
+    }
+
+    /**
+     * Forgets the paint times recorded so far.
+     */
+    @Override
+    public void reset() {
+        myBoardPaints.drain();
+    }
+}
@@ -0,0 +1,42 @@
+package metrics;
+
+/**
+ * The JMX view of FrameMetrics. Paint times are in microseconds and cover every
+ * paint since the metrics were created or last reset.
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public interface FrameMetricsMBean {
+
+    /**
+     * Gets the number of board paints.
+     * @return the paints.
+     */
+    long getBoardPaints();
+
+    /**
+     * Gets the median board paint time.
+     * @return the 50th percentile in microseconds.
+     */
+    double getBoardPaintP50Micros();
+
+    /**
+     * Gets the tail board paint time.
+     * @return the 99th percentile in microseconds.
+     */
+    double getBoardPaintP99Micros();
+
+    /**
+     * Gets the longest board paint time.
+     * @return the maximum in microseconds.
+     */
+    double getBoardPaintMaxMicros();
+
+    /**
+     * Forgets the paint times recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,154 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free histogram of non-negative values such as latencies in
+ * nanoseconds.
+ * <p>Values are counted in logarithmic buckets with {@value #SUB_BUCKETS} linear
+ * sub-buckets per power of two, so percentiles are accurate to within about 12%
+ * over the whole range of long. Recording is a single atomic increment and never
+ * allocates; any number of threads may record at once.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class LatencyHistogram {
+
+    /** Nanoseconds per microsecond, for printing values recorded in nanoseconds. */
+    public static final double NANOS_PER_MICRO = 1000.0;
+
+    /** Percentile reported as the median. */
+    public static final double MEDIAN = 50;
+
+    /** Percentile reported as the tail. */
+    public static final double TAIL = 99;
+
+    /** Percentile of the largest value. */
+    public static final double MAX = 100;
+
+    /** Number of bits used for the linear sub-buckets. */
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** Number of linear sub-buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Total number of buckets. */
+    private static final int BUCKETS = LogLinearBuckets.count(SUB_BUCKET_BITS, Long.SIZE);
+
+    /** Percent of the whole. */
+    private static final double HUNDRED = 100.0;
+
+    /** The count of values in each bucket. */
+    private final AtomicLongArray myCounts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Counts a value.
+     * @param theValue the value, negative values are counted as 0.
+     */
+    public void record(final long theValue) {
+        myCounts.incrementAndGet(LogLinearBuckets.bucketOf(Math.max(0, theValue),
+                SUB_BUCKET_BITS));
+    }
+
+    /**
+     * Takes a snapshot of the counts recorded so far and resets them, so that each
+     * snapshot covers the values recorded since the previous one.
+     * @return the snapshot.
+     */
+    public Snapshot drain() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = myCounts.getAndSet(i, 0);
+        }
+        return new Snapshot(counts);
+    }
+
+    /**
+     * Takes a snapshot of all the counts recorded so far without resetting them.
+     * @return the snapshot.
+     */
+    public Snapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = myCounts.get(i);
+        }
+        return new Snapshot(counts);
+    }
+
+    /**
+     * An immutable copy of the histogram counts.
+     */
+    public static final class Snapshot {
+
+        /** The count of each bucket. */
+        private final long[] myCounts;
+
+        /** The total count. */
+        private final long myTotal;
+
+        /**
+         * Creates a snapshot.
+         * @param theCounts the bucket counts, not copied.
+         */
+        private Snapshot(final long[] theCounts) {
+            myCounts = theCounts;
+            long total = 0;
+            for (final long count : theCounts) {
+                total += count;
+            }
+            myTotal = total;
+        }
+
+        /**
+         * Gets the number of values counted.
+         * @return the count.
+         */
+        public long getCount() {
+            return myTotal;
+        }
+
+        /**
+         * Estimates a percentile.
+         * @param thePercent the percentile, between 0 and 100.
+         * @return the upper bound of the bucket holding the percentile, or 0 if empty.
+         */
+        public long percentile(final double thePercent) {
+            final long rank = (long) Math.ceil(myTotal * thePercent / HUNDRED);
+            long seen = 0;
+            long result = 0;
+            for (int i = 0; i < myCounts.length && myTotal > 0; i++) {
+                seen += myCounts[i];
+                if (seen >= Math.max(1, rank)) {
+                    result = LogLinearBuckets.upperBoundOf(i, SUB_BUCKET_BITS);
+                    break;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Gets the count of each bucket with its upper bound.
+         * @return pairs of {upper bound, count} for every non-empty bucket.
+         */
+        public long[][] buckets() {
+            int used = 0;
+            for (final long count : myCounts) {
+                if (count > 0) {
+                    used++;
+                }
+            }
+            final long[][] result = new long[used][];
+            int next = 0;
+            for (int i = 0; i < myCounts.length; i++) {
+                if (myCounts[i] > 0) {
+                    result[next++] = new long[] {LogLinearBuckets.upperBoundOf(i,
+                            SUB_BUCKET_BITS), myCounts[i]};
+                }
+            }
+            return result;
+        }
+    }
+}
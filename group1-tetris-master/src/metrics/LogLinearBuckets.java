@@ -0,0 +1,67 @@
+package metrics;
+
+/**
+ * Log-linear bucketing of non-negative values, shared by LatencyHistogram and the
+ * rank counts of the Leaderboard.
+ * <p>Values below 2<sup>bits</sup> get a bucket each; every power of two above is
+ * split into 2<sup>bits</sup> linear sub-buckets, so a bucket is never wider than
+ * 2<sup>-bits</sup> of the values it holds. Buckets are numbered in value order.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class LogLinearBuckets {
+
+    private LogLinearBuckets() { }
+
+    /**
+     * Counts the buckets needed for every non-negative value of a signed type.
+     * @param theSubBucketBits the number of bits of the linear sub-buckets.
+     * @param theValueBits the size of the type in bits, such as Long.SIZE.
+     * @return the number of buckets.
+     */
+    public static int count(final int theSubBucketBits, final int theValueBits) {
+        return (theValueBits - theSubBucketBits) << theSubBucketBits;
+    }
+
+    /**
+     * Finds the bucket of a value.
+     * @param theValue the non-negative value.
+     * @param theSubBucketBits the number of bits of the linear sub-buckets.
+     * @return the bucket index.
+     */
+    public static int bucketOf(final long theValue, final int theSubBucketBits) {
+        final int subBuckets = 1 << theSubBucketBits;
+        final int result;
+        if (theValue < subBuckets) {
+            result = (int) theValue;
+        } else {
+            final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(theValue);
+            final int sub = (int) (theValue >>> exponent - theSubBucketBits) & subBuckets - 1;
+            result = (exponent - theSubBucketBits + 1) * subBuckets + sub;
+        }
+        return result;
+    }
+
+    /**
+     * Finds the largest value counted in a bucket.
+     * @param theBucket the bucket index.
+     * @param theSubBucketBits the number of bits of the linear sub-buckets.
+     * @return the upper bound of the bucket.
+     */
+    public static long upperBoundOf(final int theBucket, final int theSubBucketBits) {
+        final int subBuckets = 1 << theSubBucketBits;
+        final long result;
+        if (theBucket < subBuckets) {
+            result = theBucket;
+        } else {
+            final int exponent = theBucket / subBuckets + theSubBucketBits - 1;
+            final long sub = theBucket % subBuckets;
+            final long width = 1L << exponent - theSubBucketBits;
+            result = (1L << exponent) + sub * width + width - 1;
+        }
+        return result;
+    }
+}
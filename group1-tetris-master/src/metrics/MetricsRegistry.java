@@ -0,0 +1,65 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Publishes metrics as MBeans of the platform MBean server, where JConsole,
+ * VisualVM or any JMX client can read them, under names of the form
+ * {@code tetris:type=Board,id=1}.
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class MetricsRegistry {
+
+    /** The JMX domain of the metrics. */
+    public static final String DOMAIN = "tetris";
+
+    /** The last id given to an MBean. */
+    private static final AtomicInteger LAST_ID = new AtomicInteger();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MetricsRegistry() { }
+
+    /**
+     * Publishes metrics. Starting the platform MBean server takes a while the first
+     * time, so windows should not call this on the event dispatch thread.
+     * @param theType the type in the name, such as Board or Frame.
+     * @param theMetrics the metrics, an instance of a standard MBean interface.
+     * @return the name the metrics were published under, or null if they could not
+     *         be published.
+     */
+    public static ObjectName register(final String theType, final Object theMetrics) {
+        ObjectName result = null;
+        try {
+            final ObjectName name = new ObjectName(DOMAIN + ":type=" + theType + ",id="
+                    + LAST_ID.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(theMetrics, name);
+            result = name;
+        } catch (final JMException e) {
+            System.err.println("Could not publish " + theType + " metrics: " + e);
+        }
+        return result;
+    }
+
+    /**
+     * Stops publishing metrics.
+     * @param theName the name returned by register, or null.
+     */
+    public static void unregister(final ObjectName theName) {
+        if (theName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(theName);
+            } catch (final JMException e) {
+                System.err.println("Could not unpublish " + theName + ": " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for the search and removal of complete rows after a
+ * piece freezes.
+ * <p>Disabled unless a recording enables it, like the other Board events.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+@Name("tetris.CheckRows")
+@Label("Check Rows")
+@Category({"Tetris", "Board"})
+@Description("The search and removal of complete rows after a piece freezes")
+@Enabled(false)
+@StackTrace(false)
+public final class RowCheckEvent extends Event {
+
+    /** The number of rows searched. */
+    @Name("rowsChecked")
+    @Label("Rows Checked")
+    private int myRowsChecked;
+
+    /** The number of complete rows removed. */
+    @Name("rowsCleared")
+    @Label("Rows Cleared")
+    private int myRowsCleared;
+
+    /**
+     * Sets the number of rows searched.
+     * @param theRowsChecked the rows searched.
+     */
+    public void setRowsChecked(final int theRowsChecked) {
+        myRowsChecked = theRowsChecked;
+    }
+
+    /**
+     * Sets the number of complete rows removed.
+     * @param theRowsCleared the rows removed.
+     */
+    public void setRowsCleared(final int theRowsCleared) {
+        myRowsCleared = theRowsCleared;
+    }
+}
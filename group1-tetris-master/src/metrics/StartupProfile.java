@@ -0,0 +1,114 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how long the game takes to reach each phase of startup.
+ * <p>Phases may be marked from any thread; only the first mark of a phase counts.
+ * When reporting is enabled each phase is printed as soon as it is reached, so
+ * time-to-first-frame can be tracked over releases.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class StartupProfile {
+
+    /** Command line flag that turns on reporting. */
+    public static final String FLAG = "--startup-profile";
+
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * The phases of startup.
+     */
+    public enum Phase {
+        /** The first frame of the window has been painted. */
+        FIRST_FRAME("first frame"),
+        /** The event queue has processed everything queued during the first paint. */
+        INTERACTIVE("interactive"),
+        /** The audio line is open and playing. */
+        AUDIO_READY("audio ready");
+
+        /** The name printed for the phase. */
+        private final String myLabel;
+
+        /**
+         * Creates a phase.
+         * @param theLabel the name printed for the phase.
+         */
+        Phase(final String theLabel) {
+            myLabel = theLabel;
+        }
+    }
+
+    /** System.nanoTime() when the profile was created, at the start of main. */
+    private final long myStartNanos;
+
+    /** Nanoseconds from the start to each phase, 0 while not reached. */
+    private final AtomicLongArray myPhaseNanos;
+
+    /** Whether phases are printed. */
+    private final boolean myReporting;
+
+    /**
+     * Creates a profile starting now.
+     * @param theReporting whether to print each phase when it is reached.
+     */
+    public StartupProfile(final boolean theReporting) {
+        myStartNanos = System.nanoTime();
+        myPhaseNanos = new AtomicLongArray(Phase.values().length);
+        myReporting = theReporting;
+        if (theReporting) {
+            System.out.printf("startup: main entered %d ms after JVM start%n",
+                    ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+    }
+
+    /**
+     * Creates a profile from the command line arguments.
+     * @param theArgs the command line arguments.
+     * @return a profile that reports when the startup profile flag is present.
+     */
+    public static StartupProfile fromArgs(final String... theArgs) {
+        boolean reporting = false;
+        for (final String arg : theArgs) {
+            reporting |= FLAG.equals(arg);
+        }
+        return new StartupProfile(reporting);
+    }
+
+    /**
+     * Marks a phase as reached now. Later marks of the same phase are ignored.
+     * @param thePhase the phase reached.
+     */
+    public void mark(final Phase thePhase) {
+        final long elapsed = Math.max(1, System.nanoTime() - myStartNanos);
+        if (myPhaseNanos.compareAndSet(thePhase.ordinal(), 0, elapsed) && myReporting) {
+            System.out.printf("startup: %s at %.1f ms%n", thePhase.myLabel,
+                    elapsed / NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * Checks whether a phase has been reached.
+     * @param thePhase the phase.
+     * @return true if the phase has been marked.
+     */
+    public boolean isReached(final Phase thePhase) {
+        return myPhaseNanos.get(thePhase.ordinal()) != 0;
+    }
+
+    /**
+     * Gets the time from the start of main to a phase.
+     * @param thePhase the phase.
+     * @return milliseconds to the phase, or -1 if it has not been reached.
+     */
+    public double getMillis(final Phase thePhase) {
+        final long nanos = myPhaseNanos.get(thePhase.ordinal());
+        return nanos == 0 ? -1 : nanos / NANOS_PER_MILLI;
+    }
+}
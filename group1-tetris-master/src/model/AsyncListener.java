@@ -0,0 +1,256 @@
+package model;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers the events of a Board to a listener on an Executor instead of the thread
+ * that plays the Board.
+ * <p>Each AsyncListener has its own bounded queue. Firing an event only queues it
+ * and, if the listener is idle, hands one delivery task to the executor, so a slow
+ * listener such as an exporter, the audio or the network no longer holds up
+ * {@code down()} or the gravity tick. Events reach the listener one at a time in
+ * the order they were fired, even on an executor with many threads.</p>
+ * <p>When the queue is full the {@link Overflow} policy decides what happens. If the
+ * executor rejects the delivery, for example because it was shut down, the queued
+ * events are dropped and the next event tries again. The event values a Board fires
+ * are immutable or fresh copies, so they are safe to read on another thread.
+ * Listeners that touch Swing should still hop to the event dispatch thread
+ * themselves.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class AsyncListener implements PropertyChangeListener {
+
+    /**
+     * What to do with an event when the queue of a listener is full.
+     */
+    public enum Overflow {
+        /** Wait on the firing thread until the listener makes room; nothing is lost. */
+        BLOCK,
+        /** Drop the oldest queued event to make room. */
+        DROP_OLDEST,
+        /**
+         * Drop the queued event of the same property, which the new one supersedes,
+         * for listeners that only need the latest state such as views. Counting
+         * events such as completed rows are merged too, so counting listeners should
+         * not use this policy. When no event of the same property is queued the
+         * oldest is dropped.
+         */
+        MERGE_LATEST
+    }
+
+    /** The listener events are delivered to. */
+    private final PropertyChangeListener myListener;
+
+    /** Runs the deliveries. */
+    private final Executor myExecutor;
+
+    /** The most events queued. */
+    private final int myCapacity;
+
+    /** What to do when the queue is full. */
+    private final Overflow myOverflow;
+
+    /** The events waiting for delivery, oldest first. */
+    private final ArrayDeque<PropertyChangeEvent> myQueue;
+
+    /** Guards the queue and the scheduled flag. */
+    private final ReentrantLock myLock = new ReentrantLock();
+
+    /** Signalled when a blocked firing thread may find room in the queue. */
+    private final Condition myNotFull = myLock.newCondition();
+
+    /** Runs the deliveries on the executor. */
+    private final Runnable myDelivery = this::deliver;
+
+    /** The number of events delivered. */
+    private final LongAdder myDelivered = new LongAdder();
+
+    /** The number of events dropped or merged away. */
+    private final LongAdder myDropped = new LongAdder();
+
+    /** Whether a delivery task is queued or running. */
+    private boolean myScheduled;
+
+    /**
+     * Creates an asynchronous wrapper of a listener; add it to a Board, or use
+     * Board.addPropertyChangeListener with an executor which does both.
+     * @param theListener the listener events are delivered to.
+     * @param theExecutor runs the deliveries.
+     * @param theCapacity the most events queued.
+     * @param theOverflow what to do when the queue is full.
+     */
+    public AsyncListener(final PropertyChangeListener theListener, final Executor theExecutor,
+                         final int theCapacity, final Overflow theOverflow) {
+        if (theCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + theCapacity);
+        }
+        myListener = Objects.requireNonNull(theListener);
+        myExecutor = Objects.requireNonNull(theExecutor);
+        myCapacity = theCapacity;
+        myOverflow = Objects.requireNonNull(theOverflow);
+        myQueue = new ArrayDeque<>(theCapacity);
+    }
+
+    /**
+     * Queues an event for the listener according to the overflow policy.
+     * @param theEvent the event.
+     */
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        boolean schedule = false;
+        myLock.lock();
+        try {
+            if (myQueue.size() >= myCapacity) {
+                makeRoom(theEvent);
+            }
+            myQueue.addLast(theEvent);
+            schedule = !myScheduled;
+            myScheduled = true;
+        } finally {
+            myLock.unlock();
+        }
+        if (schedule) {
+            try {
+                myExecutor.execute(myDelivery);
+            } catch (final RejectedExecutionException e) {
+                reject(e);
+            }
+        }
+    }
+
+    /**
+     * Gets the listener events are delivered to.
+     * @return the listener.
+     */
+    public PropertyChangeListener getListener() {
+        return myListener;
+    }
+
+    /**
+     * Gets the number of events waiting for delivery.
+     * @return the events queued.
+     */
+    public int getQueued() {
+        final int result;
+        myLock.lock();
+        try {
+            result = myQueue.size();
+        } finally {
+            myLock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of events delivered.
+     * @return the events delivered.
+     */
+    public long getDeliveredCount() {
+        return myDelivered.sum();
+    }
+
+    /**
+     * Gets the number of events dropped or merged away because the queue was full,
+     * or dropped because the executor rejected their delivery.
+     * @return the events lost.
+     */
+    public long getDroppedCount() {
+        return myDropped.sum();
+    }
+
+    /**
+     * Makes room for an event in the full queue. Called with the lock held.
+     * @param theEvent the event about to be queued.
+     */
+    private void makeRoom(final PropertyChangeEvent theEvent) {
+        if (myOverflow == Overflow.BLOCK) {
+            while (myQueue.size() >= myCapacity) {
+                myNotFull.awaitUninterruptibly();
+            }
+        } else {
+            boolean merged = false;
+            if (myOverflow == Overflow.MERGE_LATEST) {
+                final Iterator<PropertyChangeEvent> queued = myQueue.iterator();
+                while (!merged && queued.hasNext()) {
+                    if (Objects.equals(queued.next().getPropertyName(),
+                            theEvent.getPropertyName())) {
+                        queued.remove();
+                        merged = true;
+                    }
+                }
+            }
+            if (!merged) {
+                myQueue.pollFirst();
+            }
+            myDropped.increment();
+        }
+    }
+
+    /**
+     * Drops the queued events after the executor rejected their delivery, so that
+     * the next event schedules a delivery again and blocked firing threads go on.
+     * @param theException why the executor rejected the delivery.
+     */
+    private void reject(final RejectedExecutionException theException) {
+        myLock.lock();
+        try {
+            myDropped.add(myQueue.size());
+            myQueue.clear();
+            myScheduled = false;
+            myNotFull.signalAll();
+        } finally {
+            myLock.unlock();
+        }
+        System.err.println("AsyncListener could not deliver events: " + theException);
+    }
+
+    /**
+     * Delivers queued events until the queue is empty.
+     */
+    private void deliver() {
+        PropertyChangeEvent event = next();
+        while (event != null) {
+            try {
+                myListener.propertyChange(event);
+            } catch (final RuntimeException e) {
+                //One failing event must not stop the delivery of the others
+                System.err.println("AsyncListener listener failed: " + e);
+            }
+            myDelivered.increment();
+            event = next();
+        }
+    }
+
+    /**
+     * Takes the next event to deliver, or ends the delivery task.
+     * @return the event, or null if the queue is empty and the task ended.
+     */
+    private PropertyChangeEvent next() {
+        final PropertyChangeEvent result;
+        myLock.lock();
+        try {
+            result = myQueue.pollFirst();
+            if (result == null) {
+                myScheduled = false;
+            } else if (myOverflow == Overflow.BLOCK) {
+                myNotFull.signal();
+            }
+        } finally {
+            myLock.unlock();
+        }
+        return result;
+    }
+}
@@ -24,5 +24,7 @@ public enum Block {
     T,
     /** A Block from a ZPiece. */
     Z,
+    /** A Block of a garbage row sent by an opponent. */
+    GARBAGE,
 
 }
@@ -8,9 +8,16 @@ package model;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import metrics.BoardDropEvent;
+import metrics.BoardMetrics;
+import metrics.BoardStepEvent;
+import metrics.RowCheckEvent;
 import model.wallkicks.WallKick;
 
 
@@ -78,6 +85,37 @@ public class Board implements Boardable {
      */
     private static final int DEFAULT_HEIGHT = 20;
 
+    /**
+     * Multiplier of the linear congruential piece generator.
+     */
+    private static final long RANDOM_MULTIPLIER = 0x5DEECE66DL;
+
+    /**
+     * Addend of the linear congruential piece generator.
+     */
+    private static final long RANDOM_ADDEND = 0xBL;
+
+    /**
+     * Mask keeping the piece generator state to 48 bits.
+     */
+    private static final long RANDOM_MASK = (1L << 48) - 1;
+
+    /**
+     * Shift selecting the high 31 bits of the piece generator state.
+     */
+    private static final int RANDOM_SHIFT = 17;
+
+    /**
+     * Bytes of a saved state besides the cells: row count, piece flag, piece, rotation,
+     * position, next piece, game over, generator state and sequence index.
+     */
+    private static final int STATE_HEADER = 2 + 1 + 1 + 1 + 4 + 4 + 1 + 1 + 8 + 4;
+
+    /**
+     * The value of a piece byte in a saved state when there is no piece.
+     */
+    private static final int NO_PIECE = 0xFF;
+
     // Instance fields
 
     /**
@@ -135,6 +173,39 @@ public class Board implements Boardable {
      */
     private boolean myDrop;
 
+    /**
+     * State of the piece generator. The generator is owned by the Board so that a
+     * journaled game can be replayed with exactly the same pieces.
+     */
+    private long myRandomState;
+
+    /**
+     * Journal receiving every state changing operation, or null when not journaling.
+     */
+    private GameJournal myJournal;
+
+    /**
+     * Counts what this Board does, or null when not counting.
+     */
+    private BoardMetrics myMetrics;
+
+    /**
+     * The number of listeners, kept to count event fan-out without copying the
+     * listener array on every event. Volatile because listeners may be added on
+     * another thread than the one playing the Board.
+     */
+    private volatile int myListenerCount;
+
+    /**
+     * The number of events fired so far, for the flight recorder events.
+     */
+    private int myEventCount;
+
+    /**
+     * The number of rows cleared so far, for the flight recorder events.
+     */
+    private int myRowsCleared;
+
     // Constructors
 
     /**
@@ -159,7 +230,7 @@ public class Board implements Boardable {
         myPCS = new PropertyChangeSupport(this);
         myNonRandomPieces = new ArrayList<>();
         mySequenceIndex = 0;
-
+        reseed(System.nanoTime());
     }
 
 
@@ -170,6 +241,64 @@ public class Board implements Boardable {
      */
     public void addPropertyChangeListener(final PropertyChangeListener theListener) {
         myPCS.addPropertyChangeListener(theListener);
+        myListenerCount = myPCS.getPropertyChangeListeners().length;
+    }
+
+    /**
+     * Adds a PropertyChangeListener whose events are delivered on an executor, so a
+     * slow listener does not hold up the thread that plays this Board.
+     *
+     * @param theListener the listener.
+     * @param theExecutor runs the deliveries.
+     * @param theCapacity the most events queued for the listener.
+     * @param theOverflow what to do when the queue is full.
+     * @return the wrapper added, to be passed to removePropertyChangeListener.
+     */
+    public AsyncListener addPropertyChangeListener(final PropertyChangeListener theListener,
+                                                   final Executor theExecutor,
+                                                   final int theCapacity,
+                                                   final AsyncListener.Overflow theOverflow) {
+        final AsyncListener result = new AsyncListener(theListener, theExecutor, theCapacity,
+                theOverflow);
+        myPCS.addPropertyChangeListener(result);
+        myListenerCount = myPCS.getPropertyChangeListeners().length;
+        return result;
+    }
+
+    /**
+     * Removes PropertyChangeListener.
+     *
+     * @param theListener the PropertyChangeListener to be removed.
+     */
+    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
+        myPCS.removePropertyChangeListener(theListener);
+        myListenerCount = myPCS.getPropertyChangeListeners().length;
+    }
+
+    /**
+     * Starts or stops counting what this Board does. One BoardMetrics may be shared
+     * by many Boards.
+     *
+     * @param theMetrics the metrics to count into, or null to stop counting.
+     */
+    public void setMetrics(final BoardMetrics theMetrics) {
+        myMetrics = theMetrics;
+    }
+
+    /**
+     * Starts journaling every state changing operation of this Board.
+     * The piece generator is reseeded and the seed is written to the journal header,
+     * so the journal should be attached before the first call to newGame().
+     *
+     * @param theJournal the journal to record to, or null to stop journaling.
+     */
+    public void setJournal(final GameJournal theJournal) {
+        myJournal = theJournal;
+        if (theJournal != null) {
+            final long seed = System.nanoTime();
+            reseed(seed);
+            theJournal.recordHeader(myWidth, myHeight, seed);
+        }
     }
 
     /**
@@ -199,6 +328,7 @@ public class Board implements Boardable {
      */
     @Override
     public void newGame() {
+        journal(GameJournal.Operation.NEW_GAME);
 
         mySequenceIndex = 0;
         myFrozenBlocks.clear();
@@ -223,6 +353,12 @@ public class Board implements Boardable {
      */
     @Override
     public void setPieceSequence(final List<TetrisPiece> thePieces) {
+        if (myJournal != null) {
+            myJournal.record(GameJournal.Operation.SEQUENCE, thePieces.size());
+            for (final TetrisPiece piece : thePieces) {
+                myJournal.record(GameJournal.Operation.SEQUENCE_PIECE, piece.ordinal());
+            }
+        }
         myNonRandomPieces = new ArrayList<>(thePieces);
         mySequenceIndex = 0;
         myCurrentPiece = nextMovablePiece(true);
@@ -243,7 +379,22 @@ public class Board implements Boardable {
          * However, more code could be added to this method
          * to implement additional functionality
          */
-        down();
+        final BoardStepEvent event = new BoardStepEvent();
+        event.begin();
+        final MovableTetrisPiece piece = myCurrentPiece;
+        final int events = myEventCount;
+        final int rows = myRowsCleared;
+        journal(GameJournal.Operation.STEP);
+        if (myMetrics != null) {
+            myMetrics.step();
+        }
+        moveDown();
+        if (event.shouldCommit()) {
+            event.setPieceType(pieceType(piece));
+            event.setRowsCleared(myRowsCleared - rows);
+            event.setEventCount(myEventCount - events);
+            event.commit();
+        }
     }
 
     /**
@@ -253,8 +404,21 @@ public class Board implements Boardable {
      */
     @Override
     public void down() {
-        if (!move(myCurrentPiece.down())) {
+        journal(GameJournal.Operation.DOWN);
+        countMove();
+        moveDown();
+    }
+
+    /**
+     * Moves the piece down one row, freezing it and clearing lines when it can not move.
+     * Does nothing but notify before the first game, when there is no piece.
+     */
+    private void moveDown() {
+        if (myCurrentPiece != null && !move(myCurrentPiece.down())) {
             // the piece froze, so clear lines and update current piece
+            if (myMetrics != null) {
+                myMetrics.freeze();
+            }
             addPieceToBoardData(myFrozenBlocks, myCurrentPiece);
             checkRows();
             if (!myGameOver) {
@@ -274,6 +438,8 @@ public class Board implements Boardable {
      */
     @Override
     public void left() {
+        journal(GameJournal.Operation.LEFT);
+        countMove();
         if (myCurrentPiece != null) {
             move(myCurrentPiece.left());
         }
@@ -285,6 +451,8 @@ public class Board implements Boardable {
      */
     @Override
     public void right() {
+        journal(GameJournal.Operation.RIGHT);
+        countMove();
         if (myCurrentPiece != null) {
             move(myCurrentPiece.right());
         }
@@ -296,6 +464,10 @@ public class Board implements Boardable {
      */
     @Override
     public void rotateCW() {
+        journal(GameJournal.Operation.ROTATE_CW);
+        if (myMetrics != null) {
+            myMetrics.rotation();
+        }
         if (myCurrentPiece != null) {
             if (myCurrentPiece.getTetrisPiece() == TetrisPiece.O) {
                 move(myCurrentPiece.rotateCW());
@@ -307,6 +479,9 @@ public class Board implements Boardable {
                 for (final Point p : offsets) {
                     final Point offsetLocation = cwPiece.getPosition().transform(p);
                     final MovableTetrisPiece temp = cwPiece.setPosition(offsetLocation);
+                    if (myMetrics != null) {
+                        myMetrics.kickAttempt();
+                    }
                     if (move(temp)) {
                         break;
                     }
@@ -321,6 +496,10 @@ public class Board implements Boardable {
      */
     @Override
     public void rotateCCW() {
+        journal(GameJournal.Operation.ROTATE_CCW);
+        if (myMetrics != null) {
+            myMetrics.rotation();
+        }
         if (myCurrentPiece != null) {
             if (myCurrentPiece.getTetrisPiece() == TetrisPiece.O) {
                 move(myCurrentPiece.rotateCCW());
@@ -332,6 +511,9 @@ public class Board implements Boardable {
                 for (final Point p : offsets) {
                     final Point offsetLocation = ccwPiece.getPosition().transform(p);
                     final MovableTetrisPiece temp = ccwPiece.setPosition(offsetLocation);
+                    if (myMetrics != null) {
+                        myMetrics.kickAttempt();
+                    }
                     if (move(temp)) {
                         break;
                     }
@@ -346,21 +528,174 @@ public class Board implements Boardable {
      */
     @Override
     public void drop() {
-        if (!myGameOver) {
+        final BoardDropEvent event = new BoardDropEvent();
+        event.begin();
+        final MovableTetrisPiece piece = myCurrentPiece;
+        final int events = myEventCount;
+        final int rows = myRowsCleared;
+        int distance = 0;
+        journal(GameJournal.Operation.DROP);
+        countMove();
+        if (!myGameOver && myCurrentPiece != null) {
             myDrop = true;
             while (isPieceLegal(myCurrentPiece.down())) {
-                down();  // move down as far as possible
+                moveDown();  // move down as far as possible
+                distance++;
             }
             myDrop = false;
-            down();  // move down one more time to freeze in place
+            moveDown();  // move down one more time to freeze in place
         }
         notifyObserversOfCurrPieceChange();
+        if (event.shouldCommit()) {
+            event.setPieceType(pieceType(piece));
+            event.setDistance(distance);
+            event.setRowsCleared(myRowsCleared - rows);
+            event.setEventCount(myEventCount - events);
+            event.commit();
+        }
+    }
+
+    /**
+     * Pushes garbage rows in from the bottom, as sent by an opponent in a versus
+     * match. Every garbage row is full except for its hole column.
+     * The top rows of the board are recycled as the garbage rows and moved to the
+     * bottom, so the other rows are neither copied nor rebuilt. The current piece is
+     * lifted out of the garbage if it overlaps it, and the game is over if a frozen
+     * block is pushed off the top of the board.
+     *
+     * @param theCount the number of garbage rows, from 0 to the height of the board.
+     * @param theHole the column left empty in every garbage row.
+     */
+    public void addGarbageRows(final int theCount, final int theHole) {
+        if (theCount < 0 || theCount > myHeight) {
+            throw new IllegalArgumentException("Garbage row count " + theCount);
+        }
+        if (theHole < 0 || theHole >= myWidth) {
+            throw new IllegalArgumentException("Garbage hole column " + theHole);
+        }
+        journal(GameJournal.Operation.GARBAGE,
+                theCount << GameJournal.GARBAGE_SHIFT | theHole);
+        if (!myGameOver && theCount > 0 && !myFrozenBlocks.isEmpty()) {
+            boolean toppedOut = false;
+            for (int i = 0; i < theCount; i++) {
+                final Block[] row = myFrozenBlocks.remove(myFrozenBlocks.size() - 1);
+                for (final Block b : row) {
+                    if (b != null) {
+                        toppedOut = true;
+                    }
+                }
+                Arrays.fill(row, Block.GARBAGE);
+                row[theHole] = null;
+                myFrozenBlocks.add(0, row);
+            }
+            if (myCurrentPiece != null) {
+                while (collision(myCurrentPiece)) {
+                    myCurrentPiece = myCurrentPiece.setPosition(
+                            myCurrentPiece.getPosition().transform(0, 1));
+                }
+            }
+
+            notifyObserversOfBoardChange(PROPERTY_CHANGE_BOARD);
+            if (toppedOut) {
+                myGameOver = true;
+                notifyObserversOfGameEnd();
+            }
+            notifyObserversOfCurrPieceChange();
+        }
+    }
+
+    /**
+     * Gets the size of a saved state of this board.
+     *
+     * @return the most bytes saveState writes.
+     */
+    public int getStateSize() {
+        return STATE_HEADER + myWidth * myHeight;
+    }
+
+    /**
+     * Saves the whole state of the game at the position of a buffer, advancing the
+     * position, so that it can be restored later, for example to roll back a
+     * mispredicted input. The piece sequence and the journal are not saved.
+     *
+     * @param theBuffer the buffer, with at least getStateSize bytes remaining.
+     */
+    public void saveState(final ByteBuffer theBuffer) {
+        theBuffer.putShort((short) myFrozenBlocks.size());
+        for (final Block[] row : myFrozenBlocks) {
+            for (final Block b : row) {
+                theBuffer.put((byte) (b == null ? 0 : b.ordinal() + 1));
+            }
+        }
+        if (myCurrentPiece == null) {
+            theBuffer.put((byte) 0).put((byte) 0).put((byte) 0).putInt(0).putInt(0);
+        } else {
+            theBuffer.put((byte) 1);
+            theBuffer.put((byte) myCurrentPiece.getTetrisPiece().ordinal());
+            theBuffer.put((byte) myCurrentPiece.getRotation().ordinal());
+            theBuffer.putInt(myCurrentPiece.getPosition().x());
+            theBuffer.putInt(myCurrentPiece.getPosition().y());
+        }
+        theBuffer.put((byte) (myNextPiece == null ? NO_PIECE : myNextPiece.ordinal()));
+        theBuffer.put((byte) (myGameOver ? 1 : 0));
+        theBuffer.putLong(myRandomState);
+        theBuffer.putInt(mySequenceIndex);
+    }
+
+    /**
+     * Restores a state saved by saveState from the position of a buffer, advancing the
+     * position. The rows of the board are overwritten in place. Listeners are told
+     * about the restored board and current piece, and about the next piece and the
+     * game status when those changed.
+     *
+     * @param theBuffer the buffer, positioned at a saved state of a board of this size.
+     */
+    public void restoreState(final ByteBuffer theBuffer) {
+        final int rows = theBuffer.getShort();
+        while (myFrozenBlocks.size() > rows) {
+            myFrozenBlocks.remove(myFrozenBlocks.size() - 1);
+        }
+        while (myFrozenBlocks.size() < rows) {
+            myFrozenBlocks.add(new Block[myWidth]);
+        }
+        final Block[] blocks = Block.values();
+        for (final Block[] row : myFrozenBlocks) {
+            for (int x = 0; x < myWidth; x++) {
+                final int cell = theBuffer.get();
+                row[x] = cell == 0 ? null : blocks[cell - 1];
+            }
+        }
+        final boolean hasPiece = theBuffer.get() != 0;
+        final TetrisPiece piece = TetrisPiece.values()[theBuffer.get()];
+        final Rotation rotation = Rotation.values()[theBuffer.get()];
+        final Point position = new Point(theBuffer.getInt(), theBuffer.getInt());
+        myCurrentPiece = hasPiece ? new MovableTetrisPiece(piece, position, rotation) : null;
+        final int next = theBuffer.get() & NO_PIECE;
+        final TetrisPiece oldNext = myNextPiece;
+        myNextPiece = next == NO_PIECE ? null : TetrisPiece.values()[next];
+        final boolean wasOver = myGameOver;
+        myGameOver = theBuffer.get() != 0;
+        myRandomState = theBuffer.getLong();
+        mySequenceIndex = theBuffer.getInt();
+        myDrop = false;
+
+        notifyObserversOfBoardChange(PROPERTY_CHANGE_BOARD);
+        if (myCurrentPiece != null) {
+            notifyObserversOfCurrPieceChange();
+        }
+        if (myNextPiece != oldNext && myNextPiece != null) {
+            notifyObserversOfNextPiece();
+        }
+        if (myGameOver != wasOver) {
+            notifyObserversOfGameEnd();
+        }
     }
 
     /**
      * Notifies all listeners attached to this object of changes to the current piece.
      */
     public void notifyObserversOfCurrPieceChange() {
+        countEvent();
         myPCS.firePropertyChange(PROPERTY_CHANGE_CURR, null, myCurrentPiece);
     }
 
@@ -369,13 +704,19 @@ public class Board implements Boardable {
      * @param thePropertyName Property Name for the property change.
      */
     public void notifyObserversOfBoardChange(final String thePropertyName) {
-        myPCS.firePropertyChange(thePropertyName, null, new BoardData().getBoardData());
+        countEvent();
+        //Copying the board is only worth it when someone is listening, which a Board
+        //hosted on a server usually is not
+        if (myPCS.hasListeners(thePropertyName)) {
+            myPCS.firePropertyChange(thePropertyName, null, new BoardData().getBoardData());
+        }
     }
 
     /**
      * Notifies all listeners attached to this object of changes to the game status.
      */
     public void notifyObserversOfGameEnd() {
+        countEvent();
         myPCS.firePropertyChange(PROPERTY_CHANGE_GAME, null, myGameOver);
     }
 
@@ -383,6 +724,7 @@ public class Board implements Boardable {
      * Notifies all listeners attached to this object of changes to the next piece.
      */
     public void notifyObserversOfNextPiece() {
+        countEvent();
         myPCS.firePropertyChange(PROPERTY_CHANGE_NEXT, null, myNextPiece);
     }
 
@@ -390,6 +732,7 @@ public class Board implements Boardable {
      * Notifies all listeners attached to this object of the completion of a row.
      */
     public void notifyObserverOfCompleteRow() {
+        countEvent();
         myPCS.firePropertyChange(PROPERTY_CHANGE_ROW, null, true);
     }
 
@@ -432,8 +775,186 @@ public class Board implements Boardable {
     }
 
 
+    // package private methods
+
+    /**
+     * Reseeds the piece generator.
+     *
+     * @param theSeed the new seed.
+     */
+    void reseed(final long theSeed) {
+        myRandomState = scrambleSeed(theSeed);
+    }
+
+    /**
+     * Turns a seed into the first state of a linear congruential generator, the same
+     * generator that picks this Board's pieces.
+     *
+     * @param theSeed the seed.
+     * @return the generator state.
+     */
+    static long scrambleSeed(final long theSeed) {
+        return (theSeed ^ RANDOM_MULTIPLIER) & RANDOM_MASK;
+    }
+
+    /**
+     * Advances a generator state made by scrambleSeed.
+     *
+     * @param theState the current generator state.
+     * @return the next generator state.
+     */
+    static long nextRandomState(final long theState) {
+        return (theState * RANDOM_MULTIPLIER + RANDOM_ADDEND) & RANDOM_MASK;
+    }
+
+    /**
+     * Gets the non-negative random bits of a generator state.
+     *
+     * @param theState the generator state.
+     * @return the high 31 bits of the state.
+     */
+    static int randomBits(final long theState) {
+        return (int) (theState >>> RANDOM_SHIFT);
+    }
+
+    /**
+     * Gets the frozen blocks, bottom row first. The list is not copied and must not be
+     * changed.
+     *
+     * @return the frozen blocks.
+     */
+    List<Block[]> getFrozenBlocks() {
+        return myFrozenBlocks;
+    }
+
+    /**
+     * Gets the piece that is currently movable.
+     *
+     * @return the current piece, or null before the first game.
+     */
+    MovableTetrisPiece getCurrentPiece() {
+        return myCurrentPiece;
+    }
+
+    /**
+     * Gets the piece that is next to play.
+     *
+     * @return the next piece, or null before the first game.
+     */
+    TetrisPiece getNextPiece() {
+        return myNextPiece;
+    }
+
+    /**
+     * Tells whether a piece would fit on the board, within its bounds and clear of
+     * the frozen blocks.
+     *
+     * @param thePiece the piece to test.
+     * @return true if the piece fits.
+     */
+    boolean fits(final MovableTetrisPiece thePiece) {
+        return isPieceLegal(thePiece);
+    }
+
+    /**
+     * Tells whether rotateCW() would turn the current piece, trying the same wall
+     * kicks without moving the piece or counting metrics.
+     *
+     * @return true if the current piece can rotate clockwise.
+     */
+    boolean canRotateCW() {
+        boolean result = false;
+        if (myCurrentPiece != null) {
+            final MovableTetrisPiece cwPiece = myCurrentPiece.rotateCW();
+            if (myCurrentPiece.getTetrisPiece() == TetrisPiece.O) {
+                result = isPieceLegal(cwPiece);
+            } else {
+                for (final Point p : WallKick.getWallKicks(cwPiece.getTetrisPiece(),
+                        myCurrentPiece.getRotation(), cwPiece.getRotation())) {
+                    final Point kicked = cwPiece.getPosition().transform(p);
+                    result = result || isPieceLegal(cwPiece.setPosition(kicked));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the game over state.
+     *
+     * @return true if the game is over.
+     */
+    public boolean isGameOver() {
+        return myGameOver;
+    }
+
     // private helper methods
 
+    /**
+     * Records an operation in the journal if one is attached.
+     *
+     * @param theOperation the operation to record.
+     */
+    private void journal(final GameJournal.Operation theOperation) {
+        journal(theOperation, 0);
+    }
+
+    /**
+     * Records an operation with an argument in the journal if one is attached.
+     *
+     * @param theOperation the operation to record.
+     * @param theArg the operation argument.
+     */
+    private void journal(final GameJournal.Operation theOperation, final int theArg) {
+        if (myJournal != null) {
+            myJournal.record(theOperation, theArg);
+        }
+    }
+
+    /**
+     * Names the type of a piece for a flight recorder event.
+     *
+     * @param thePiece the piece, or null.
+     * @return the name of its TetrisPiece, or null if there is no piece.
+     */
+    private static String pieceType(final MovableTetrisPiece thePiece) {
+        String result = null;
+        if (thePiece != null) {
+            result = thePiece.getTetrisPiece().name();
+        }
+        return result;
+    }
+
+    /**
+     * Counts a move by the player if this Board is counting.
+     */
+    private void countMove() {
+        if (myMetrics != null) {
+            myMetrics.move();
+        }
+    }
+
+    /**
+     * Counts an event, and the listeners it reaches if this Board is counting. Every
+     * notification counts, whether or not anyone listens to it.
+     */
+    private void countEvent() {
+        myEventCount++;
+        if (myMetrics != null) {
+            myMetrics.event(myListenerCount);
+        }
+    }
+
+    /**
+     * Picks a random TetrisPiece using this Board's piece generator.
+     *
+     * @return a random TetrisPiece.
+     */
+    private TetrisPiece nextRandomPiece() {
+        myRandomState = nextRandomState(myRandomState);
+        return TetrisPiece.values()[randomBits(myRandomState) % TetrisPiece.values().length];
+    }
+
     /**
      * Helper function to check if the current piece can be shifted to the
      * specified position.
@@ -495,6 +1016,8 @@ public class Board implements Boardable {
      * Checks the board for complete rows.
      */
     private void checkRows() {
+        final RowCheckEvent event = new RowCheckEvent();
+        event.begin();
         final List<Integer> completeRows = new ArrayList<>();
         for (final Block[] row : myFrozenBlocks) {
             boolean complete = true;
@@ -506,6 +1029,9 @@ public class Board implements Boardable {
             }
             if (complete) {
                 completeRows.add(myFrozenBlocks.indexOf(row));
+                if (myMetrics != null) {
+                    myMetrics.lineCleared();
+                }
                 notifyObserverOfCompleteRow();
             }
         }
@@ -516,6 +1042,12 @@ public class Board implements Boardable {
                 myFrozenBlocks.remove(row);
                 myFrozenBlocks.add(new Block[myWidth]);
             }
+            myRowsCleared += completeRows.size();
+        }
+        if (event.shouldCommit()) {
+            event.setRowsChecked(myFrozenBlocks.size());
+            event.setRowsCleared(completeRows.size());
+            event.commit();
         }
     }
 
@@ -628,7 +1160,7 @@ public class Board implements Boardable {
 
         final boolean share = myNextPiece != null;
         if (myNonRandomPieces == null || myNonRandomPieces.isEmpty()) {
-            myNextPiece = TetrisPiece.getRandomPiece();
+            myNextPiece = nextRandomPiece();
         } else {
             mySequenceIndex %= myNonRandomPieces.size();
             myNextPiece = myNonRandomPieces.get(mySequenceIndex++);
@@ -643,7 +1175,9 @@ public class Board implements Boardable {
 
     /**
      * A class to describe the board data to registered Observers.
-     * The board data includes the current piece and the frozen blocks.
+     * The board data holds the frozen blocks and empty rows above them for the
+     * hidden spawn rows; the current piece is sent separately with CURR events, so
+     * a board event never leaves a copy of it behind in the views.
      */
     protected final class BoardData {
 
@@ -661,9 +1195,6 @@ public class Board implements Boardable {
             myBoardData.add(new Block[myWidth]);
             myBoardData.add(new Block[myWidth]);
             myBoardData.add(new Block[myWidth]);
-            if (myCurrentPiece != null) {
-                addPieceToBoardData(myBoardData, myCurrentPiece);
-            }
         }
 
         /**
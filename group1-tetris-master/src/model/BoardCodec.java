@@ -0,0 +1,183 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes the visible state of a Board in a compact binary form for sending over
+ * the network.
+ * <p>The encoding is, in order: the width and height (one byte each), a flags byte
+ * (bit 0 game over, bit 1 current piece present), the current piece as piece,
+ * rotation, x and y bytes when present, the next piece byte ({@value #NO_PIECE} when
+ * there is none) and finally every cell of the frozen blocks, bottom row first, as
+ * 4 bit values packed two per byte: 0 for an empty cell, otherwise the Block ordinal
+ * plus one. A standard 10 by 20 board encodes in at most {@code maxSize(10, 20)},
+ * 108 bytes.</p>
+ *
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class BoardCodec {
+
+    /** Flag set when the game is over. */
+    public static final int FLAG_GAME_OVER = 1;
+
+    /** Flag set when the encoding holds a current piece. */
+    public static final int FLAG_CURRENT_PIECE = 2;
+
+    /** The value of the next piece byte when there is no next piece. */
+    public static final int NO_PIECE = 0xFF;
+
+    /** Bytes before the cells, with a current piece. */
+    private static final int MAX_HEADER = 8;
+
+    /** Bytes of the current piece. */
+    private static final int PIECE_BYTES = 4;
+
+    /** Number of bits per cell. */
+    private static final int CELL_BITS = 4;
+
+    /** Mask of the bits of one cell. */
+    private static final int CELL_MASK = 0xF;
+
+    /** Mask of an unsigned byte. */
+    private static final int BYTE_MASK = 0xFF;
+
+    /** Offset of the flags byte. */
+    private static final int FLAGS_OFFSET = 2;
+
+    /** Rows above the board that Board events include room for. */
+    private static final int HIDDEN_ROWS = 4;
+
+    private BoardCodec() { }
+
+    /**
+     * Gets the largest encoding of a board.
+     *
+     * @param theWidth the width of the board.
+     * @param theHeight the height of the board.
+     * @return the largest number of bytes encode can write.
+     */
+    public static int maxSize(final int theWidth, final int theHeight) {
+        return MAX_HEADER + (theWidth * theHeight + 1) / 2;
+    }
+
+    /**
+     * Encodes a board at the position of a buffer, advancing the position.
+     *
+     * @param theBoard the board to encode.
+     * @param theBuffer the buffer, with at least maxSize bytes remaining.
+     */
+    public static void encode(final Board theBoard, final ByteBuffer theBuffer) {
+        final MovableTetrisPiece current = theBoard.getCurrentPiece();
+        final TetrisPiece next = theBoard.getNextPiece();
+        int flags = 0;
+        if (theBoard.isGameOver()) {
+            flags |= FLAG_GAME_OVER;
+        }
+        if (current != null) {
+            flags |= FLAG_CURRENT_PIECE;
+        }
+        theBuffer.put((byte) theBoard.getWidth());
+        theBuffer.put((byte) theBoard.getHeight());
+        theBuffer.put((byte) flags);
+        if (current != null) {
+            theBuffer.put((byte) current.getTetrisPiece().ordinal());
+            theBuffer.put((byte) current.getRotation().ordinal());
+            theBuffer.put((byte) current.getPosition().x());
+            theBuffer.put((byte) current.getPosition().y());
+        }
+        theBuffer.put((byte) (next == null ? NO_PIECE : next.ordinal()));
+
+        int pending = 0;
+        int cells = 0;
+        for (final Block[] row : theBoard.getFrozenBlocks()) {
+            for (final Block block : row) {
+                final int cell = block == null ? 0 : block.ordinal() + 1;
+                if (cells % 2 == 1) {
+                    theBuffer.put((byte) (pending | cell));
+                } else {
+                    pending = cell << CELL_BITS;
+                }
+                cells++;
+            }
+        }
+        if (cells % 2 == 1) {
+            theBuffer.put((byte) pending);
+            cells++;
+        }
+        //A board that never started a game has no rows yet
+        for (; cells < theBoard.getWidth() * theBoard.getHeight(); cells += 2) {
+            theBuffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Checks the game over flag of an encoding without decoding it.
+     *
+     * @param theBuffer the buffer, positioned at the start of an encoding.
+     * @return true if the encoded game is over.
+     */
+    public static boolean isGameOver(final ByteBuffer theBuffer) {
+        return (theBuffer.get(theBuffer.position() + FLAGS_OFFSET) & FLAG_GAME_OVER) != 0;
+    }
+
+    /**
+     * Decodes an encoding into board data laid out like that of a
+     * Board.PROPERTY_CHANGE_BOARD event, but with the current piece drawn into the
+     * cells since a client of the encoding gets no separate piece, advancing the
+     * position.
+     *
+     * @param theBuffer the buffer, positioned at the start of an encoding.
+     * @return the rows of the board, bottom row first.
+     */
+    public static List<Block[]> decode(final ByteBuffer theBuffer) {
+        final int width = theBuffer.get() & BYTE_MASK;
+        final int height = theBuffer.get() & BYTE_MASK;
+        final int flags = theBuffer.get();
+        final byte[] piece = new byte[PIECE_BYTES];
+        if ((flags & FLAG_CURRENT_PIECE) != 0) {
+            theBuffer.get(piece);
+        }
+        theBuffer.get();
+
+        final Block[] blocks = Block.values();
+        final List<Block[]> result = new ArrayList<>();
+        int packed = 0;
+        for (int i = 0; i < width * height; i++) {
+            if (i % width == 0) {
+                result.add(new Block[width]);
+            }
+            final int cell;
+            if (i % 2 == 0) {
+                packed = theBuffer.get();
+                cell = packed >> CELL_BITS & CELL_MASK;
+            } else {
+                cell = packed & CELL_MASK;
+            }
+            if (cell != 0) {
+                result.get(i / width)[i % width] = blocks[cell - 1];
+            }
+        }
+        //Room for a piece above the board, as in Board events
+        while (result.size() < height + HIDDEN_ROWS) {
+            result.add(new Block[width]);
+        }
+        if ((flags & FLAG_CURRENT_PIECE) != 0) {
+            final TetrisPiece type = TetrisPiece.values()[piece[0]];
+            for (final int[] square
+                    : type.getPointsByRotation(Rotation.values()[piece[1]])) {
+                final int x = square[0] + piece[2];
+                final int y = square[1] + piece[3];
+                if (x >= 0 && x < width && y >= 0 && y < result.size()) {
+                    result.get(y)[x] = type.getBlock();
+                }
+            }
+        }
+        return result;
+    }
+}
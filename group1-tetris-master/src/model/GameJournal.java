@@ -0,0 +1,416 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Records every state changing operation of a Board as a fixed-width binary record.
+ * <p>Records are appended by the game thread into an in-memory buffer. Full buffers
+ * are handed to a background writer thread so the game never waits on I/O. A Board
+ * can be rebuilt from the journal by replaying the records in order.</p>
+ * <p>Each record is {@value #RECORD_SIZE} bytes: the operation code (int), an
+ * operation argument (int) and a value (long) that holds the seed for header records
+ * and the System.nanoTime() of the operation for all others.</p>
+ * <p>Records are appended by a single game thread. Appending, flushing and closing
+ * are synchronized so that another thread, such as a timer or a shutdown hook, may
+ * flush or close the journal while the game is running.</p>
+ *
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class GameJournal implements Closeable {
+
+    /** The size in bytes of a single journal record. */
+    public static final int RECORD_SIZE = 16;
+
+    /** The number of records held by one write-behind buffer. */
+    private static final int BUFFER_RECORDS = 1024;
+
+    /** Number of bits the board width is shifted by in a header record. */
+    private static final int WIDTH_SHIFT = 16;
+
+    /** Mask for the board height in a header record. */
+    private static final int HEIGHT_MASK = 0xFFFF;
+
+    /** Number of bits the row count is shifted by in a garbage record. */
+    static final int GARBAGE_SHIFT = 16;
+
+    /** Mask for the hole column in a garbage record. */
+    static final int GARBAGE_HOLE_MASK = 0xFFFF;
+
+    /** Empty buffer used to tell the writer thread to finish. */
+    private static final ByteBuffer END_OF_JOURNAL = ByteBuffer.allocate(0);
+
+    /** The channel the records are written to. */
+    private final WritableByteChannel mySink;
+
+    /** Filled buffers waiting for the writer thread. */
+    private final BlockingQueue<ByteBuffer> myPending;
+
+    /** Buffers that have been written and can be reused. */
+    private final Queue<ByteBuffer> myFree;
+
+    /** The background thread that drains filled buffers to the sink. */
+    private final Thread myWriter;
+
+    /** The buffer records are currently appended to. */
+    private ByteBuffer myActive;
+
+    /** The first error raised by the writer thread, reported on close. */
+    private volatile IOException myWriteError;
+
+    /** Whether this journal has been closed. */
+    private boolean myClosed;
+
+    /**
+     * The kinds of records stored in a journal.
+     */
+    public enum Operation {
+        /** Board dimensions and random seed; always the first record of a journal. */
+        HEADER,
+        /** Board.newGame(). */
+        NEW_GAME,
+        /** Board.left(). */
+        LEFT,
+        /** Board.right(). */
+        RIGHT,
+        /** Board.rotateCW(). */
+        ROTATE_CW,
+        /** Board.rotateCCW(). */
+        ROTATE_CCW,
+        /** Board.down(). */
+        DOWN,
+        /** Board.drop(). */
+        DROP,
+        /** Board.step(). */
+        STEP,
+        /** Board.setPieceSequence(); the argument is the number of pieces that follow. */
+        SEQUENCE,
+        /** One piece of a sequence; the argument is the TetrisPiece ordinal. */
+        SEQUENCE_PIECE,
+        /**
+         * Board.addGarbageRows(); the argument holds the row count above
+         * GARBAGE_SHIFT and the hole column below it.
+         */
+        GARBAGE
+    }
+
+    /**
+     * Watches a Board while a journal is replayed onto it, for example to draw a frame
+     * after every operation.
+     */
+    @FunctionalInterface
+    public interface ReplayObserver {
+
+        /**
+         * Called once the Board has been created from the header record, before any
+         * operation is replayed, so listeners can be added to it.
+         *
+         * @param theBoard the Board being rebuilt.
+         */
+        default void started(final Board theBoard) {
+        }
+
+        /**
+         * Called after each game operation has been replayed.
+         *
+         * @param theBoard the Board being rebuilt.
+         * @param theOperation the operation that was replayed.
+         */
+        void replayed(Board theBoard, Operation theOperation);
+    }
+
+    /**
+     * Creates a journal writing to the given channel.
+     *
+     * @param theSink the channel to write records to.
+     */
+    public GameJournal(final WritableByteChannel theSink) {
+        mySink = theSink;
+        myPending = new LinkedBlockingQueue<>();
+        myFree = new ConcurrentLinkedQueue<>();
+        myActive = newBuffer();
+        myWriter = new Thread(this::drain, "GameJournal-writer");
+        myWriter.setDaemon(true);
+        myWriter.start();
+    }
+
+    /**
+     * Creates a journal writing to a file, replacing any existing contents.
+     *
+     * @param thePath the journal file.
+     * @return a new journal.
+     * @throws IOException if the file could not be opened.
+     */
+    public static GameJournal open(final Path thePath) throws IOException {
+        return new GameJournal(FileChannel.open(thePath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Rebuilds a Board by replaying a journal file.
+     *
+     * @param thePath the journal file.
+     * @return a Board in the state recorded by the journal.
+     * @throws IOException if the journal could not be read or is not a journal.
+     */
+    public static Board rebuild(final Path thePath) throws IOException {
+        return rebuild(thePath, (board, op) -> { });
+    }
+
+    /**
+     * Rebuilds a Board by replaying a journal file, telling an observer about every
+     * replayed operation.
+     *
+     * @param thePath the journal file.
+     * @param theObserver the observer of the replay.
+     * @return a Board in the state recorded by the journal.
+     * @throws IOException if the journal could not be read or is not a journal.
+     */
+    public static Board rebuild(final Path thePath, final ReplayObserver theObserver)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(thePath, StandardOpenOption.READ)) {
+            return rebuild(channel, theObserver);
+        }
+    }
+
+    /**
+     * Rebuilds a Board by replaying the journal records read from a channel.
+     * A trailing partial record, as left behind by a crash, is ignored.
+     *
+     * @param theSource the channel to read records from.
+     * @return a Board in the state recorded by the journal.
+     * @throws IOException if the journal could not be read or is not a journal.
+     */
+    public static Board rebuild(final ReadableByteChannel theSource) throws IOException {
+        return rebuild(theSource, (board, op) -> { });
+    }
+
+    /**
+     * Rebuilds a Board by replaying the journal records read from a channel, telling
+     * an observer about every replayed operation.
+     * A trailing partial record, as left behind by a crash, is ignored.
+     *
+     * @param theSource the channel to read records from.
+     * @param theObserver the observer of the replay.
+     * @return a Board in the state recorded by the journal.
+     * @throws IOException if the journal could not be read or is not a journal.
+     */
+    public static Board rebuild(final ReadableByteChannel theSource,
+                                final ReplayObserver theObserver) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFER_RECORDS);
+        final Operation[] operations = Operation.values();
+        final TetrisPiece[] pieces = TetrisPiece.values();
+        final List<TetrisPiece> sequence = new ArrayList<>();
+        int sequenceLength = 0;
+        Board board = null;
+
+        while (theSource.read(buffer) >= 0 || buffer.position() >= RECORD_SIZE) {
+            buffer.flip();
+            while (buffer.remaining() >= RECORD_SIZE) {
+                final int code = buffer.getInt();
+                final int arg = buffer.getInt();
+                final long value = buffer.getLong();
+                if (code < 0 || code >= operations.length) {
+                    throw new IOException("Unknown journal operation " + code);
+                }
+                final Operation op = operations[code];
+                if (board == null) {
+                    if (op != Operation.HEADER) {
+                        throw new IOException("Journal does not start with a header");
+                    }
+                    final int width = arg >>> WIDTH_SHIFT;
+                    final int height = arg & HEIGHT_MASK;
+                    if (width == 0 || height == 0) {
+                        throw new IOException("Journal board size " + width + "x" + height);
+                    }
+                    board = new Board(width, height);
+                    board.reseed(value);
+                    theObserver.started(board);
+                } else if (op == Operation.SEQUENCE_PIECE) {
+                    if (arg < 0 || arg >= pieces.length) {
+                        throw new IOException("Unknown journal piece " + arg);
+                    }
+                    sequence.add(pieces[arg]);
+                    if (sequence.size() == sequenceLength) {
+                        board.setPieceSequence(sequence);
+                        sequence.clear();
+                    }
+                } else if (op == Operation.SEQUENCE) {
+                    if (arg < 0) {
+                        throw new IOException("Journal sequence length " + arg);
+                    }
+                    sequenceLength = arg;
+                    if (sequenceLength == 0) {
+                        board.setPieceSequence(sequence);
+                    }
+                } else if (op == Operation.GARBAGE) {
+                    final int rows = arg >>> GARBAGE_SHIFT;
+                    final int hole = arg & GARBAGE_HOLE_MASK;
+                    if (rows > board.getHeight() || hole >= board.getWidth()) {
+                        throw new IOException("Journal garbage " + rows + " rows, hole " + hole);
+                    }
+                    board.addGarbageRows(rows, hole);
+                    theObserver.replayed(board, op);
+                } else {
+                    apply(board, op);
+                    theObserver.replayed(board, op);
+                }
+            }
+            buffer.compact();
+        }
+        if (board == null) {
+            throw new IOException("Empty journal");
+        }
+        return board;
+    }
+
+    /**
+     * Appends the header record describing the journaled Board.
+     *
+     * @param theWidth the width of the Board.
+     * @param theHeight the height of the Board.
+     * @param theSeed the seed of the Board's piece generator.
+     */
+    synchronized void recordHeader(final int theWidth, final int theHeight, final long theSeed) {
+        append(Operation.HEADER, theWidth << WIDTH_SHIFT | theHeight & HEIGHT_MASK, theSeed);
+    }
+
+    /**
+     * Appends a record for an operation.
+     *
+     * @param theOperation the operation performed.
+     * @param theArg the operation argument.
+     */
+    synchronized void record(final Operation theOperation, final int theArg) {
+        append(theOperation, theArg, System.nanoTime());
+    }
+
+    /**
+     * Hands the records appended so far to the writer thread without waiting for them
+     * to be written.
+     */
+    public synchronized void flush() {
+        if (myActive.position() > 0) {
+            handOff();
+        }
+    }
+
+    /**
+     * Writes all remaining records, stops the writer thread and closes the sink.
+     *
+     * @throws IOException if any record could not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!myClosed) {
+            myClosed = true;
+            flush();
+            myPending.add(END_OF_JOURNAL);
+            try {
+                myWriter.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mySink.close();
+            if (myWriteError != null) {
+                throw myWriteError;
+            }
+        }
+    }
+
+    /**
+     * Appends one record to the active buffer.
+     *
+     * @param theOperation the operation.
+     * @param theArg the operation argument.
+     * @param theValue the record value.
+     */
+    private void append(final Operation theOperation, final int theArg, final long theValue) {
+        if (!myClosed) {
+            if (!myActive.hasRemaining()) {
+                handOff();
+            }
+            myActive.putInt(theOperation.ordinal());
+            myActive.putInt(theArg);
+            myActive.putLong(theValue);
+        }
+    }
+
+    /**
+     * Passes the active buffer to the writer thread and takes a fresh one.
+     */
+    private void handOff() {
+        myActive.flip();
+        myPending.add(myActive);
+        final ByteBuffer reused = myFree.poll();
+        myActive = reused == null ? newBuffer() : reused;
+    }
+
+    /**
+     * Writer thread loop that writes filled buffers to the sink.
+     */
+    private void drain() {
+        try {
+            ByteBuffer buffer = myPending.take();
+            while (buffer != END_OF_JOURNAL) {
+                try {
+                    while (buffer.hasRemaining() && myWriteError == null) {
+                        mySink.write(buffer);
+                    }
+                } catch (final IOException e) {
+                    myWriteError = e;
+                }
+                buffer.clear();
+                myFree.add(buffer);
+                buffer = myPending.take();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Replays a single recorded operation on a Board.
+     *
+     * @param theBoard the Board to apply the operation to.
+     * @param theOperation the operation to apply.
+     */
+    static void apply(final Board theBoard, final Operation theOperation) {
+        switch (theOperation) {
+            case NEW_GAME -> theBoard.newGame();
+            case LEFT -> theBoard.left();
+            case RIGHT -> theBoard.right();
+            case ROTATE_CW -> theBoard.rotateCW();
+            case ROTATE_CCW -> theBoard.rotateCCW();
+            case DOWN -> theBoard.down();
+            case DROP -> theBoard.drop();
+            case STEP -> theBoard.step();
+            default -> { }
+        }
+    }
+
+    /**
+     * Allocates a write-behind buffer.
+     *
+     * @return a new empty buffer.
+     */
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocateDirect(RECORD_SIZE * BUFFER_RECORDS);
+    }
+}
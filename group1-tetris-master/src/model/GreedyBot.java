@@ -0,0 +1,260 @@
+package model;
+
+/**
+ * A computer player that places every piece where it leaves the best board.
+ * <p>For each rotation and column of the current piece the bot drops the piece
+ * straight down on a bit mask copy of the frozen blocks and scores the result by
+ * its aggregate column height, cleared lines, holes and bumpiness. It is stateless,
+ * so one bot can play any number of Boards on one thread, and fast enough to
+ * simulate thousands of versus matches.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class GreedyBot {
+
+    /** Weight of the sum of the column heights. */
+    private static final double HEIGHT_WEIGHT = -0.51;
+
+    /** Weight of the cleared lines. */
+    private static final double LINES_WEIGHT = 0.76;
+
+    /** Weight of the empty cells below a filled cell. */
+    private static final double HOLES_WEIGHT = -0.36;
+
+    /** Weight of the height differences of neighbouring columns. */
+    private static final double BUMPINESS_WEIGHT = -0.18;
+
+    /** Score of a placement that ends the game. */
+    private static final double TOP_OUT = -1.0e9;
+
+    /** Rows above the board that a piece may occupy. */
+    private static final int HIDDEN_ROWS = 4;
+
+    /** The most moves made for one piece before it is dropped where it is. */
+    private static final int MAX_MOVES = 32;
+
+    /**
+     * Applies one move toward the best placement of the current piece, dropping it
+     * once it is there or if the move is blocked. Used to play at a visible pace.
+     * @param theBoard the board to play.
+     */
+    public void move(final Board theBoard) {
+        final MovableTetrisPiece piece = theBoard.getCurrentPiece();
+        if (piece != null && !theBoard.isGameOver()) {
+            final int[] target = bestPlacement(theBoard);
+            if (!moveToward(theBoard, piece, target)) {
+                theBoard.drop();
+            }
+        }
+    }
+
+    /**
+     * Chooses the next move toward the best placement of the current piece without
+     * making it, for players whose moves are sent as inputs.
+     * @param theBoard the board to play.
+     * @return LEFT, RIGHT or ROTATE_CW toward the placement, DROP once there or if
+     *         the move is blocked, or null if there is no piece to move.
+     */
+    public GameJournal.Operation nextMove(final Board theBoard) {
+        final MovableTetrisPiece piece = theBoard.getCurrentPiece();
+        GameJournal.Operation result = null;
+        if (piece != null && !theBoard.isGameOver()) {
+            final int[] target = bestPlacement(theBoard);
+            if (piece.getRotation().ordinal() != target[0] && theBoard.canRotateCW()) {
+                result = GameJournal.Operation.ROTATE_CW;
+            } else if (piece.getRotation().ordinal() == target[0]
+                    && piece.getPosition().x() > target[1] && theBoard.fits(piece.left())) {
+                result = GameJournal.Operation.LEFT;
+            } else if (piece.getRotation().ordinal() == target[0]
+                    && piece.getPosition().x() < target[1] && theBoard.fits(piece.right())) {
+                result = GameJournal.Operation.RIGHT;
+            } else {
+                result = GameJournal.Operation.DROP;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Moves the current piece to its best placement and drops it.
+     * @param theBoard the board to play.
+     */
+    public void playPiece(final Board theBoard) {
+        MovableTetrisPiece piece = theBoard.getCurrentPiece();
+        if (piece != null && !theBoard.isGameOver()) {
+            final int[] target = bestPlacement(theBoard);
+            int moves = 0;
+            while (moves < MAX_MOVES && moveToward(theBoard, piece, target)) {
+                piece = theBoard.getCurrentPiece();
+                moves++;
+            }
+            theBoard.drop();
+        }
+    }
+
+    /**
+     * Makes one move of the current piece toward a placement.
+     * @param theBoard the board.
+     * @param thePiece the current piece.
+     * @param theTarget the rotation ordinal and x position to reach.
+     * @return true if the piece moved, false if it is there or could not move.
+     */
+    private static boolean moveToward(final Board theBoard, final MovableTetrisPiece thePiece,
+                                      final int[] theTarget) {
+        final int rotation = thePiece.getRotation().ordinal();
+        final int x = thePiece.getPosition().x();
+        if (rotation != theTarget[0]) {
+            theBoard.rotateCW();
+        } else if (x > theTarget[1]) {
+            theBoard.left();
+        } else if (x < theTarget[1]) {
+            theBoard.right();
+        }
+        return theBoard.getCurrentPiece() != thePiece;
+    }
+
+    /**
+     * Finds the best placement of the current piece.
+     * @param theBoard the board.
+     * @return the rotation ordinal and x position of the placement.
+     */
+    private static int[] bestPlacement(final Board theBoard) {
+        final int width = theBoard.getWidth();
+        final int[] rows = new int[theBoard.getHeight() + HIDDEN_ROWS];
+        int y = 0;
+        for (final Block[] row : theBoard.getFrozenBlocks()) {
+            for (int x = 0; x < width; x++) {
+                if (row[x] != null) {
+                    rows[y] |= 1 << x;
+                }
+            }
+            y++;
+        }
+
+        final MovableTetrisPiece piece = theBoard.getCurrentPiece();
+        final int[] result = {piece.getRotation().ordinal(), piece.getPosition().x()};
+        final int[] placed = new int[rows.length];
+        double best = Double.NEGATIVE_INFINITY;
+        for (final Rotation rotation : Rotation.values()) {
+            final int[][] points = piece.getTetrisPiece().getPointsByRotation(rotation);
+            for (int x = -width; x < width; x++) {
+                final int landing = landing(rows, points, x, width);
+                if (landing >= 0) {
+                    System.arraycopy(rows, 0, placed, 0, rows.length);
+                    for (final int[] point : points) {
+                        placed[point[1] + landing] |= 1 << point[0] + x;
+                    }
+                    final double score = score(placed, width, theBoard.getHeight());
+                    if (score > best) {
+                        best = score;
+                        result[0] = rotation.ordinal();
+                        result[1] = x;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds where a piece dropped straight down from above the board comes to rest.
+     * @param theRows the frozen blocks as bit masks, bottom row first.
+     * @param thePoints the points of the piece.
+     * @param theX the x position of the piece.
+     * @param theWidth the width of the board.
+     * @return the y position it rests at, or -1 if it does not fit in the columns.
+     */
+    private static int landing(final int[] theRows, final int[][] thePoints, final int theX,
+                               final int theWidth) {
+        int top = 0;
+        boolean inside = true;
+        for (final int[] point : thePoints) {
+            inside &= point[0] + theX >= 0 && point[0] + theX < theWidth;
+            top = Math.max(top, point[1]);
+        }
+        int result = -1;
+        if (inside && fits(theRows, thePoints, theX, theRows.length - 1 - top)) {
+            result = theRows.length - 1 - top;
+            while (fits(theRows, thePoints, theX, result - 1)) {
+                result--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a piece fits at a position.
+     * @param theRows the frozen blocks as bit masks.
+     * @param thePoints the points of the piece.
+     * @param theX the x position.
+     * @param theY the y position.
+     * @return true if every point is on empty cells above the floor.
+     */
+    private static boolean fits(final int[] theRows, final int[][] thePoints, final int theX,
+                                final int theY) {
+        boolean result = true;
+        for (final int[] point : thePoints) {
+            final int y = point[1] + theY;
+            result &= y >= 0 && (theRows[y] & 1 << point[0] + theX) == 0;
+        }
+        return result;
+    }
+
+    /**
+     * Scores the blocks after a placement, clearing its full rows first.
+     * @param theRows the blocks as bit masks, changed by clearing the full rows.
+     * @param theWidth the width of the board.
+     * @param theHeight the height of the board.
+     * @return the score, higher is better.
+     */
+    private static double score(final int[] theRows, final int theWidth,
+                                final int theHeight) {
+        final int full = (1 << theWidth) - 1;
+        int lines = 0;
+        int kept = 0;
+        for (int y = 0; y < theRows.length; y++) {
+            if (theRows[y] == full) {
+                lines++;
+            } else {
+                theRows[kept++] = theRows[y];
+            }
+        }
+        for (int y = kept; y < theRows.length; y++) {
+            theRows[y] = 0;
+        }
+
+        double result;
+        if (theRows[theHeight] != 0) {
+            result = TOP_OUT;
+        } else {
+            int heights = 0;
+            int holes = 0;
+            int bumpiness = 0;
+            int previous = -1;
+            for (int x = 0; x < theWidth; x++) {
+                int height = 0;
+                for (int y = theHeight - 1; y >= 0 && height == 0; y--) {
+                    if ((theRows[y] & 1 << x) != 0) {
+                        height = y + 1;
+                    }
+                }
+                for (int y = 0; y < height; y++) {
+                    if ((theRows[y] & 1 << x) == 0) {
+                        holes++;
+                    }
+                }
+                heights += height;
+                if (previous >= 0) {
+                    bumpiness += Math.abs(height - previous);
+                }
+                previous = height;
+            }
+            result = HEIGHT_WEIGHT * heights + LINES_WEIGHT * lines + HOLES_WEIGHT * holes
+                    + BUMPINESS_WEIGHT * bumpiness;
+        }
+        return result;
+    }
+}
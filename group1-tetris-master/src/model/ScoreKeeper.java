@@ -0,0 +1,144 @@
+package model;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+
+/**
+ * Keeps the score, cleared lines and level of a game by listening to a Board.
+ * <p>Every freeze and every completed row is counted exactly once, when the Board
+ * fires it, no matter how often the view is painted. The rows completed by one
+ * piece are scored together when the piece freezes, multiplied by the level.
+ * Listeners are only told about the score, lines and level when they change.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class ScoreKeeper implements PropertyChangeListener {
+
+    /** The Property Change variable for a change of the score. */
+    public static final String PROPERTY_CHANGE_SCORE = "SCORE";
+
+    /** The Property Change variable for a change of the number of cleared lines. */
+    public static final String PROPERTY_CHANGE_LINES = "LINES";
+
+    /** The Property Change variable for a change of the level. */
+    public static final String PROPERTY_CHANGE_LEVEL = "LEVEL";
+
+    /** The number of cleared lines needed to progress to the next level. */
+    private static final int LEVEL_SCALE = 5;
+
+    /** Points for freezing a piece. */
+    private static final int POINTS_PER_FREEZE = 4;
+
+    /** Points per level for clearing 1, 2, 3 or 4 lines with one piece. */
+    private static final int[] LINE_POINTS = {0, 40, 100, 300, 1200};
+
+    /** The score. */
+    private int myScore;
+
+    /** The number of cleared lines. */
+    private int myLines;
+
+    /** The level, starting at 1. */
+    private int myLevel = 1;
+
+    /** Rows completed by the piece that is freezing, scored on the freeze. */
+    private int myPendingRows;
+
+    /** PropertyChangeSupport to manage various property changes. */
+    private final PropertyChangeSupport myPCS = new PropertyChangeSupport(this);
+
+    /**
+     * Gets the score.
+     * @return the score.
+     */
+    public int getScore() {
+        return myScore;
+    }
+
+    /**
+     * Gets the number of cleared lines.
+     * @return the cleared lines.
+     */
+    public int getLines() {
+        return myLines;
+    }
+
+    /**
+     * Gets the level.
+     * @return the level, starting at 1.
+     */
+    public int getLevel() {
+        return myLevel;
+    }
+
+    /**
+     * Adds PropertyChangeListener to this object.
+     * @param theListener the PropertyChangeListener to be added
+     */
+    public void addPropertyChangeListener(final PropertyChangeListener theListener) {
+        myPCS.addPropertyChangeListener(theListener);
+    }
+
+    /**
+     * Removes PropertyChangeListener from this object.
+     * @param theListener the PropertyChangeListener to be removed
+     */
+    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
+        myPCS.removePropertyChangeListener(theListener);
+    }
+
+    /**
+     * Counts completed rows and freezes, and starts over when a new game starts.
+     * @param theEvent A PropertyChangeEvent object describing the event source
+     *          and the property that has changed.
+     */
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        if (Board.PROPERTY_CHANGE_ROW.equals(theEvent.getPropertyName())) {
+            myPendingRows++;
+        } else if (Board.PROPERTY_CHANGE_FREEZE.equals(theEvent.getPropertyName())) {
+            scoreFreeze();
+        } else if (Board.PROPERTY_CHANGE_GAME.equals(theEvent.getPropertyName())
+                && !(boolean) theEvent.getNewValue()) {
+            myPendingRows = 0;
+            update(0, 0);
+        }
+    }
+
+    /**
+     * Scores a frozen piece and the rows it completed.
+     */
+    private void scoreFreeze() {
+        final int rows = Math.min(myPendingRows, LINE_POINTS.length - 1);
+        myPendingRows = 0;
+        update(myScore + POINTS_PER_FREEZE + LINE_POINTS[rows] * myLevel, myLines + rows);
+    }
+
+    /**
+     * Sets the score and lines, derives the level and tells listeners what changed.
+     * @param theScore the new score.
+     * @param theLines the new number of cleared lines.
+     */
+    private void update(final int theScore, final int theLines) {
+        final int level = 1 + theLines / LEVEL_SCALE;
+        if (theScore != myScore) {
+            final int old = myScore;
+            myScore = theScore;
+            myPCS.firePropertyChange(PROPERTY_CHANGE_SCORE, old, theScore);
+        }
+        if (theLines != myLines) {
+            final int old = myLines;
+            myLines = theLines;
+            myPCS.firePropertyChange(PROPERTY_CHANGE_LINES, old, theLines);
+        }
+        if (level != myLevel) {
+            final int old = myLevel;
+            myLevel = level;
+            myPCS.firePropertyChange(PROPERTY_CHANGE_LEVEL, old, level);
+        }
+    }
+}
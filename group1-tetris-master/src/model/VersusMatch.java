@@ -0,0 +1,233 @@
+package model;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.nio.ByteBuffer;
+
+/**
+ * A versus match between two Boards in which clearing lines sends garbage rows to
+ * the opponent.
+ * <p>Clearing 2, 3 or 4 lines with one piece sends 1, 2 or 4 garbage rows. All rows
+ * of one attack share a hole column drawn from the match's own generator, and both
+ * Boards are seeded alike at the start of every game so both players get the same
+ * pieces; each game's seed is drawn from the one before. A match with the same
+ * seed and the same moves therefore plays out the same, which lets bot matches be
+ * simulated and replayed. The first player to top out loses.</p>
+ * <p>The whole state of a match, both Boards included, can be saved to and restored
+ * from a ByteBuffer, which is what rollback netcode needs.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class VersusMatch implements PropertyChangeListener {
+
+    /** A constant for the garbage property, fired with the number of rows sent. */
+    public static final String PROPERTY_CHANGE_GARBAGE = "GARBAGE";
+
+    /** A constant for the winner property, fired with the index of the winner. */
+    public static final String PROPERTY_CHANGE_WINNER = "WINNER";
+
+    /** The winner while the match is not over. */
+    public static final int NO_WINNER = -1;
+
+    /** Garbage rows sent for the number of lines cleared by one piece. */
+    private static final int[] GARBAGE_FOR_LINES = {0, 0, 1, 2, 4};
+
+    /** Bytes of a saved state besides the boards: garbage sent, winner and holes. */
+    private static final int STATE_HEADER = 4 + 4 + 4 + 8;
+
+    /** The two boards. */
+    private final Board[] myBoards;
+
+    /** Lines completed by the piece being frozen on each board. */
+    private final int[] myPendingLines = new int[2];
+
+    /** Garbage rows sent by each board. */
+    private final int[] myGarbageSent = new int[2];
+
+    /** Manages the listeners of the match. */
+    private final PropertyChangeSupport myPCS = new PropertyChangeSupport(this);
+
+    /** The index of the winner, or NO_WINNER. */
+    private int myWinner = NO_WINNER;
+
+    /** State of the generator picking the hole column of each attack. */
+    private long myHoleState;
+
+    /** The seed of the next game, drawn from the seed of the game before. */
+    private long myNextSeed;
+
+    /**
+     * Creates a match between two new standard Boards.
+     * @param theSeed the seed of the pieces and the garbage holes.
+     */
+    public VersusMatch(final long theSeed) {
+        this(new Board(), new Board(), theSeed);
+    }
+
+    /**
+     * Creates a match between two Boards of the same size.
+     * @param theFirst the board of the first player.
+     * @param theSecond the board of the second player.
+     * @param theSeed the seed of the pieces and the garbage holes.
+     */
+    public VersusMatch(final Board theFirst, final Board theSecond, final long theSeed) {
+        myBoards = new Board[] {theFirst, theSecond};
+        myNextSeed = theSeed;
+        myHoleState = Board.scrambleSeed(theSeed);
+        for (final Board board : myBoards) {
+            board.reseed(theSeed);
+            board.addPropertyChangeListener(this);
+        }
+    }
+
+    /**
+     * Adds PropertyChangeListener.
+     * @param theListener Listener to be added.
+     */
+    public void addPropertyChangeListener(final PropertyChangeListener theListener) {
+        myPCS.addPropertyChangeListener(theListener);
+    }
+
+    /**
+     * Removes PropertyChangeListener.
+     * @param theListener Listener to be removed.
+     */
+    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
+        myPCS.removePropertyChangeListener(theListener);
+    }
+
+    /**
+     * Starts a new game on both boards, both reseeded with the seed of the game.
+     */
+    public void newGame() {
+        final long seed = myNextSeed;
+        myNextSeed = Board.nextRandomState(Board.scrambleSeed(seed));
+        myHoleState = Board.scrambleSeed(seed);
+        myWinner = NO_WINNER;
+        for (int i = 0; i < myBoards.length; i++) {
+            myPendingLines[i] = 0;
+            myGarbageSent[i] = 0;
+            myBoards[i].reseed(seed);
+            myBoards[i].newGame();
+        }
+    }
+
+    /**
+     * Gets the board of a player.
+     * @param thePlayer the player, 0 or 1.
+     * @return the board.
+     */
+    public Board getBoard(final int thePlayer) {
+        return myBoards[thePlayer];
+    }
+
+    /**
+     * Gets the garbage rows a player has sent.
+     * @param thePlayer the player, 0 or 1.
+     * @return the rows sent.
+     */
+    public int getGarbageSent(final int thePlayer) {
+        return myGarbageSent[thePlayer];
+    }
+
+    /**
+     * Gets the winner.
+     * @return the index of the winner, or NO_WINNER while the match is not over.
+     */
+    public int getWinner() {
+        return myWinner;
+    }
+
+    /**
+     * Checks if the match is over.
+     * @return true once a player has topped out.
+     */
+    public boolean isOver() {
+        return myWinner != NO_WINNER;
+    }
+
+    /**
+     * Gets the size of a saved state of this match.
+     * @return the most bytes saveState writes.
+     */
+    public int getStateSize() {
+        return STATE_HEADER + myBoards[0].getStateSize() + myBoards[1].getStateSize();
+    }
+
+    /**
+     * Saves the state of the match and both boards at the position of a buffer,
+     * advancing the position.
+     * @param theBuffer the buffer, with at least getStateSize bytes remaining.
+     */
+    public void saveState(final ByteBuffer theBuffer) {
+        myBoards[0].saveState(theBuffer);
+        myBoards[1].saveState(theBuffer);
+        theBuffer.putInt(myGarbageSent[0]).putInt(myGarbageSent[1]).putInt(myWinner);
+        theBuffer.putLong(myHoleState);
+    }
+
+    /**
+     * Restores a state saved by saveState from the position of a buffer, advancing the
+     * position.
+     * @param theBuffer the buffer, positioned at a saved state of this match.
+     */
+    public void restoreState(final ByteBuffer theBuffer) {
+        myBoards[0].restoreState(theBuffer);
+        myBoards[1].restoreState(theBuffer);
+        myGarbageSent[0] = theBuffer.getInt();
+        myGarbageSent[1] = theBuffer.getInt();
+        myWinner = theBuffer.getInt();
+        myHoleState = theBuffer.getLong();
+        myPendingLines[0] = 0;
+        myPendingLines[1] = 0;
+    }
+
+    /**
+     * Counts the lines a board clears, sends garbage when its piece freezes and ends
+     * the match when a board tops out.
+     * @param theEvent the Board event.
+     */
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        final int player = theEvent.getSource() == myBoards[0] ? 0 : 1;
+        if (Board.PROPERTY_CHANGE_ROW.equals(theEvent.getPropertyName())) {
+            myPendingLines[player]++;
+        } else if (Board.PROPERTY_CHANGE_FREEZE.equals(theEvent.getPropertyName())) {
+            final int lines = Math.min(myPendingLines[player], GARBAGE_FOR_LINES.length - 1);
+            myPendingLines[player] = 0;
+            if (!isOver() && GARBAGE_FOR_LINES[lines] > 0) {
+                attack(player, GARBAGE_FOR_LINES[lines]);
+            }
+        } else if (Board.PROPERTY_CHANGE_GAME.equals(theEvent.getPropertyName())
+                && (boolean) theEvent.getNewValue() && !isOver()) {
+            myWinner = 1 - player;
+            myPCS.firePropertyChange(PROPERTY_CHANGE_WINNER, NO_WINNER, myWinner);
+        }
+    }
+
+    /**
+     * Sends garbage rows to the opponent of a player.
+     * @param thePlayer the attacking player.
+     * @param theRows the number of rows.
+     */
+    private void attack(final int thePlayer, final int theRows) {
+        final Board opponent = myBoards[1 - thePlayer];
+        myGarbageSent[thePlayer] += theRows;
+        myPCS.firePropertyChange(PROPERTY_CHANGE_GARBAGE, null, theRows);
+        opponent.addGarbageRows(theRows, nextHole(opponent.getWidth()));
+    }
+
+    /**
+     * Picks the hole column of an attack.
+     * @param theWidth the width of the board attacked.
+     * @return the column.
+     */
+    private int nextHole(final int theWidth) {
+        myHoleState = Board.nextRandomState(myHoleState);
+        return Board.randomBits(myHoleState) % theWidth;
+    }
+}
@@ -0,0 +1,250 @@
+package network;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import metrics.BoardMetrics;
+import metrics.MetricsRegistry;
+
+/**
+ * Hosts many games at once, one Board per TCP connection.
+ * <p>Every accepted connection becomes a GameSession running on its own thread. On
+ * a JVM with virtual threads the sessions run on virtual threads, so tens of
+ * thousands of sessions cost little more than their Boards and buffers; on older
+ * JVMs they run on platform daemon threads with small stacks. Virtual threads are
+ * found by reflection so the server still builds and runs on older JVMs.</p>
+ * <p>Usage: {@code java network.GameServer [port]} listens on the loopback address,
+ * or on an ephemeral port when no port is given, and publishes the metrics of all
+ * sessions summed together as {@code tetris:type=BoardAggregate}.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class GameServer implements Closeable {
+
+    /** Stack size of platform session threads. */
+    private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+
+    /** Pending connections the operating system may queue. */
+    private static final int BACKLOG = 4096;
+
+    /** Milliseconds the accept thread pauses after a failed accept. */
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    /** Milliseconds between the statistics printed by main. */
+    private static final long REPORT_MILLIS = 5000;
+
+    /** The JMX type of the metrics of all sessions, which are not those of one Board. */
+    private static final String METRICS_TYPE = "BoardAggregate";
+
+    /** The listening socket. */
+    private final ServerSocketChannel myServer;
+
+    /** Creates the session threads. */
+    private final ThreadFactory myThreads;
+
+    /** Whether the session threads are virtual threads. */
+    private final boolean myVirtual;
+
+    /** The sessions that are connected. */
+    private final Set<GameSession> mySessions = ConcurrentHashMap.newKeySet();
+
+    /** The number of sessions accepted so far. */
+    private final AtomicLong myAccepted = new AtomicLong();
+
+    /** Counts what the boards of all sessions do, summed together. */
+    private final BoardMetrics myMetrics = new BoardMetrics();
+
+    /** Accepts connections. */
+    private final Thread myAcceptor;
+
+    /**
+     * Starts a server on the loopback address.
+     * @param thePort the port, or 0 for an ephemeral port.
+     * @throws IOException if the port could not be bound.
+     */
+    public GameServer(final int thePort) throws IOException {
+        myServer = ServerSocketChannel.open();
+        myServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), thePort),
+                BACKLOG);
+        ThreadFactory threads = virtualThreads();
+        myVirtual = threads != null;
+        if (threads == null) {
+            threads = task -> {
+                final Thread thread = new Thread(null, task, "GameSession",
+                        PLATFORM_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        myThreads = threads;
+        myAcceptor = new Thread(this::accept, "GameServer-accept");
+        myAcceptor.setDaemon(true);
+        myAcceptor.start();
+    }
+
+    /**
+     * Runs a server until the JVM is stopped, printing statistics every few seconds.
+     * @param theArgs [port]
+     * @throws IOException if the port could not be bound.
+     * @throws InterruptedException if interrupted while sleeping.
+     */
+    public static void main(final String[] theArgs) throws IOException, InterruptedException {
+        final int port = theArgs.length > 0 ? Integer.parseInt(theArgs[0]) : 0;
+        try (GameServer server = new GameServer(port)) {
+            MetricsRegistry.register(METRICS_TYPE, server.getMetrics());
+            System.out.println("Listening on " + server.getPort() + " with "
+                    + (server.isVirtual() ? "virtual" : "platform") + " threads");
+            while (true) {
+                Thread.sleep(REPORT_MILLIS);
+                System.out.println(server.getSessionCount() + " sessions, "
+                        + server.getRetainedBytes() / 1024 + " KB retained");
+            }
+        }
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return the port.
+     * @throws IOException if the server is closed.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) myServer.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the metrics the boards of all sessions count into, an aggregate of every
+     * session rather than the metrics of one Board.
+     * @return the metrics.
+     */
+    public BoardMetrics getMetrics() {
+        return myMetrics;
+    }
+
+    /**
+     * Checks whether sessions run on virtual threads.
+     * @return true for virtual threads, false for platform threads.
+     */
+    public boolean isVirtual() {
+        return myVirtual;
+    }
+
+    /**
+     * Gets the number of connected sessions.
+     * @return the sessions.
+     */
+    public int getSessionCount() {
+        return mySessions.size();
+    }
+
+    /**
+     * Gets the number of sessions accepted since the server started.
+     * @return the accepted sessions.
+     */
+    public long getAcceptedCount() {
+        return myAccepted.get();
+    }
+
+    /**
+     * Estimates the bytes held by all connected sessions.
+     * @return the retained bytes.
+     */
+    public long getRetainedBytes() {
+        long result = 0;
+        for (final GameSession session : mySessions) {
+            result += session.getRetainedBytes();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the connected sessions, for example to read their memory use.
+     * @return a copy of the set of sessions.
+     */
+    public Set<GameSession> getSessions() {
+        return Set.copyOf(mySessions);
+    }
+
+    /**
+     * Stops accepting connections and disconnects every session.
+     * @throws IOException if the listening socket could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        myServer.close();
+        for (final GameSession session : mySessions) {
+            session.close();
+        }
+    }
+
+    /**
+     * Accept thread loop. A failed accept, such as when the process is out of file
+     * descriptors, is reported and retried after a pause; only closing the server
+     * ends the loop.
+     */
+    private void accept() {
+        while (myServer.isOpen()) {
+            try {
+                final SocketChannel channel = myServer.accept();
+                try {
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                } catch (final IOException e) {
+                    channel.close();
+                    throw e;
+                }
+                final GameSession session = new GameSession(channel, mySessions::remove,
+                        myMetrics);
+                mySessions.add(session);
+                myAccepted.incrementAndGet();
+                myThreads.newThread(session).start();
+            } catch (final ClosedChannelException e) {
+                //The server was closed, the loop ends
+            } catch (final IOException e) {
+                System.err.println("GameServer could not accept a connection: " + e);
+                backOff();
+            }
+        }
+    }
+
+    /**
+     * Pauses the accept thread after a failed accept, so that a lasting failure such
+     * as running out of file descriptors does not spin.
+     */
+    private void backOff() {
+        try {
+            Thread.sleep(ACCEPT_BACKOFF_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets a factory of virtual threads if the JVM has them.
+     * @return the factory, or null on a JVM without virtual threads.
+     */
+    private static ThreadFactory virtualThreads() {
+        ThreadFactory result = null;
+        try {
+            final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            final Object builder = ofVirtual.invoke(null);
+            final Method factory = Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory");
+            result = (ThreadFactory) factory.invoke(builder);
+        } catch (final ReflectiveOperationException e) {
+            //No virtual threads on this JVM
+        }
+        return result;
+    }
+}
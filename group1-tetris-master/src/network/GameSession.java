@@ -0,0 +1,211 @@
+package network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.function.Consumer;
+import metrics.BoardMetrics;
+import model.Board;
+import model.BoardCodec;
+import model.GameJournal.Operation;
+
+/**
+ * One connected player with a Board of their own.
+ * <p>A session runs on its own thread and does blocking reads and writes, which is
+ * cheap on virtual threads. Both buffers are allocated once, and the Board has no
+ * listeners so no board data is copied, which keeps the garbage made per input
+ * small.</p>
+ * <p>The session tracks its memory: the bytes held by its buffers and, where the
+ * JVM supports it for the session thread, the bytes allocated while serving it.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class GameSession implements Runnable {
+
+    /** Estimated bytes held by a Board besides its rows. */
+    private static final int BOARD_OVERHEAD = 256;
+
+    /** Estimated bytes held by one row of a Board besides its cells. */
+    private static final int ROW_OVERHEAD = 40;
+
+    /** Bytes per reference. */
+    private static final int REFERENCE_BYTES = 4;
+
+    /** Used to read the allocation counter of the session thread, or null. */
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    /** The connection. */
+    private final SocketChannel myChannel;
+
+    /** The player's board. */
+    private final Board myBoard;
+
+    /** Holds the input being read. */
+    private final ByteBuffer myInput = ByteBuffer.allocateDirect(Protocol.INPUT_SIZE);
+
+    /** Holds the acknowledgement being written. */
+    private final ByteBuffer myOutput;
+
+    /** Called with this session when it ends. */
+    private final Consumer<GameSession> myOnClose;
+
+    /** The number of inputs served. */
+    private volatile long myInputs;
+
+    /** Bytes allocated by the session thread so far, or -1 if not supported. */
+    private volatile long myAllocated = -1;
+
+    /**
+     * Creates a session.
+     * @param theChannel the connection, in blocking mode.
+     * @param theOnClose called with the session when it ends.
+     * @param theMetrics the metrics the board counts into, shared by all sessions.
+     */
+    GameSession(final SocketChannel theChannel, final Consumer<GameSession> theOnClose,
+                final BoardMetrics theMetrics) {
+        myChannel = theChannel;
+        myOnClose = theOnClose;
+        myBoard = new Board();
+        myBoard.setMetrics(theMetrics);
+        myOutput = ByteBuffer.allocateDirect(Protocol.ACK_HEADER_SIZE
+                + BoardCodec.maxSize(myBoard.getWidth(), myBoard.getHeight()));
+    }
+
+    /**
+     * Gets the number of inputs served.
+     * @return the inputs.
+     */
+    public long getInputs() {
+        return myInputs;
+    }
+
+    /**
+     * Estimates the bytes held by this session: its buffers and its Board.
+     * @return the retained bytes.
+     */
+    public long getRetainedBytes() {
+        final int rowBytes = ROW_OVERHEAD + myBoard.getWidth() * REFERENCE_BYTES;
+        return myInput.capacity() + myOutput.capacity() + BOARD_OVERHEAD
+                + (long) rowBytes * myBoard.getHeight();
+    }
+
+    /**
+     * Gets the bytes allocated by the session thread while serving this session.
+     * @return the allocated bytes, or -1 if the JVM can not measure them, as for
+     *         virtual threads.
+     */
+    public long getAllocatedBytes() {
+        return myAllocated;
+    }
+
+    /**
+     * Serves inputs until the client disconnects.
+     */
+    @Override
+    public void run() {
+        final long start = allocatedBytes();
+        try {
+            while (readInput()) {
+                final int code = myInput.get(0);
+                final int sequence = myInput.getShort(1) & Protocol.SHORT_MASK;
+                final Operation op = Protocol.operationOf(code);
+                if (op == null) {
+                    break;
+                }
+                Protocol.apply(myBoard, op);
+                writeAck(sequence);
+                myInputs++;
+                if (start >= 0) {
+                    myAllocated = allocatedBytes() - start;
+                }
+            }
+        } catch (final IOException e) {
+            //The client went away, the session just ends
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Closes the connection.
+     */
+    void close() {
+        try {
+            myChannel.close();
+        } catch (final IOException e) {
+            //Already closed
+        }
+        myOnClose.accept(this);
+    }
+
+    /**
+     * Reads one complete input.
+     * @return false if the client disconnected between inputs.
+     * @throws IOException if the connection failed or closed within an input.
+     */
+    private boolean readInput() throws IOException {
+        myInput.clear();
+        boolean result = true;
+        while (result && myInput.hasRemaining()) {
+            if (myChannel.read(myInput) < 0) {
+                if (myInput.position() > 0) {
+                    throw new EOFException("Connection closed within an input");
+                }
+                result = false;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the acknowledgement of an input with the state of the board.
+     * @param theSequence the sequence number of the input.
+     * @throws IOException if the connection failed.
+     */
+    private void writeAck(final int theSequence) throws IOException {
+        myOutput.clear();
+        myOutput.put((byte) Protocol.ACK);
+        myOutput.putShort((short) theSequence);
+        myOutput.position(Protocol.ACK_HEADER_SIZE);
+        BoardCodec.encode(myBoard, myOutput);
+        myOutput.putShort(Protocol.ACK_HEADER_SIZE - 2,
+                (short) (myOutput.position() - Protocol.ACK_HEADER_SIZE));
+        myOutput.flip();
+        while (myOutput.hasRemaining()) {
+            myChannel.write(myOutput);
+        }
+    }
+
+    /**
+     * Reads the allocation counter of the current thread.
+     * @return the allocated bytes, or -1 if not supported.
+     */
+    private static long allocatedBytes() {
+        long result = -1;
+        if (THREADS != null) {
+            result = THREADS.getCurrentThreadAllocatedBytes();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the thread bean if it can count allocations.
+     * @return the bean, or null.
+     */
+    private static com.sun.management.ThreadMXBean threadBean() {
+        com.sun.management.ThreadMXBean result = null;
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean)
+                        .isThreadAllocatedMemorySupported()) {
+            result = (com.sun.management.ThreadMXBean) bean;
+        }
+        return result;
+    }
+}
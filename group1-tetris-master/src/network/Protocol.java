@@ -0,0 +1,73 @@
+package network;
+
+import model.Board;
+import model.GameJournal.Operation;
+
+/**
+ * The binary protocol spoken between game clients and the GameServer.
+ * <p>A client sends inputs of {@value #INPUT_SIZE} bytes: the code of a game
+ * operation, using the ordinals of GameJournal.Operation from NEW_GAME to STEP,
+ * followed by a 16 bit sequence number chosen by the client.</p>
+ * <p>The server answers every input with an acknowledgement: the type byte
+ * {@value #ACK}, the sequence number of the input, a 16 bit length and the state of
+ * the Board after the input, encoded by BoardCodec. All numbers are big-endian.</p>
+ * <p>Spectators only receive: every change of the watched Board is sent as a frame
+ * with the same header as an acknowledgement, but with the type byte {@value #FRAME}
+ * and the frame number in place of the sequence number.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class Protocol {
+
+    /** The size of an input message. */
+    public static final int INPUT_SIZE = 3;
+
+    /** The type byte of an acknowledgement. */
+    public static final int ACK = 1;
+
+    /** The type byte of a spectator frame. */
+    public static final int FRAME = 2;
+
+    /** The size of an acknowledgement or frame before the encoded state. */
+    public static final int ACK_HEADER_SIZE = 5;
+
+    /** Mask of an unsigned 16 bit number. */
+    public static final int SHORT_MASK = 0xFFFF;
+
+    private Protocol() { }
+
+    /**
+     * Finds the operation of an input code.
+     * @param theCode the code sent by the client.
+     * @return the operation, or null if the code is not a game operation.
+     */
+    public static Operation operationOf(final int theCode) {
+        Operation result = null;
+        if (theCode >= Operation.NEW_GAME.ordinal() && theCode <= Operation.STEP.ordinal()) {
+            result = Operation.values()[theCode];
+        }
+        return result;
+    }
+
+    /**
+     * Applies an input operation to a Board.
+     * @param theBoard the board.
+     * @param theOperation the operation, from NEW_GAME to STEP.
+     */
+    public static void apply(final Board theBoard, final Operation theOperation) {
+        switch (theOperation) {
+            case NEW_GAME -> theBoard.newGame();
+            case LEFT -> theBoard.left();
+            case RIGHT -> theBoard.right();
+            case ROTATE_CW -> theBoard.rotateCW();
+            case ROTATE_CCW -> theBoard.rotateCCW();
+            case DOWN -> theBoard.down();
+            case DROP -> theBoard.drop();
+            case STEP -> theBoard.step();
+            default -> throw new IllegalArgumentException("Not an input: " + theOperation);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package network;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import metrics.LatencyHistogram;
+import model.GameJournal.Operation;
+import model.VersusMatch;
+
+/**
+ * Keeps both sides of an online VersusMatch in step with rollback.
+ * <p>The match advances in fixed ticks. In every tick each player has at most one
+ * input, the code of a game operation from LEFT to DROP or {@value #NO_INPUT}, and
+ * every {@value #GRAVITY_TICKS} ticks both Boards step. Given the same seed and the
+ * same inputs both sides therefore simulate exactly the same match.</p>
+ * <p>The local input of a tick is applied at once, while the remote input is
+ * predicted to be no input until it arrives. The state of the whole match is saved
+ * before each tick into a preallocated ring of {@value #RING_TICKS} buffers; when a
+ * remote input turns out to differ from the prediction, the next advance restores
+ * the state of that tick and simulates the ticks since then again with the real
+ * inputs. The local side may run at most one ring ahead of the last confirmed
+ * remote input, so the state to roll back to is always still in the ring.</p>
+ * <p>A session is not thread safe; inputs must be received on the thread that
+ * advances it.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class RollbackSession {
+
+    /** The input of a tick in which a player did nothing. */
+    public static final int NO_INPUT = 0;
+
+    /** The number of saved states, and so the most ticks that can be rolled back. */
+    public static final int RING_TICKS = 32;
+
+    /** Ticks between the steps of both Boards. */
+    public static final int GRAVITY_TICKS = 30;
+
+    /** The number of inputs kept per player, enough for a remote side a ring ahead. */
+    private static final int INPUT_TICKS = 4 * RING_TICKS;
+
+    /** The match being played. */
+    private final VersusMatch myMatch;
+
+    /** The index of the local player. */
+    private final int myLocal;
+
+    /** The index of the remote player. */
+    private final int myRemote;
+
+    /** The state of the match before each of the latest ticks, by tick. */
+    private final ByteBuffer[] myStates = new ByteBuffer[RING_TICKS];
+
+    /** The inputs of each player, by tick. */
+    private final byte[][] myInputs = new byte[2][INPUT_TICKS];
+
+    /** Holds the current state while a checksum is computed. */
+    private final ByteBuffer myScratch;
+
+    /** Computes checksums of states. */
+    private final CRC32 myCrc = new CRC32();
+
+    /** The time each rollback took, in nanoseconds. */
+    private final LatencyHistogram myRollbackNanos = new LatencyHistogram();
+
+    /** The next tick to simulate. */
+    private int myTick;
+
+    /** The last tick up to which every remote input has arrived. */
+    private int myRemoteConfirmed = -1;
+
+    /** The first tick simulated with a wrong prediction, or Integer.MAX_VALUE. */
+    private int myRollbackFrom = Integer.MAX_VALUE;
+
+    /** The number of rollbacks. */
+    private long myRollbacks;
+
+    /** The number of ticks simulated again by rollbacks. */
+    private long myResimulated;
+
+    /** The most ticks simulated again by one rollback. */
+    private int myMaxRollback;
+
+    /**
+     * Creates a session and starts a new game of the match, which must be seeded
+     * alike on both sides.
+     * @param theMatch the match.
+     * @param theLocalPlayer the index of the local player, 0 or 1.
+     */
+    public RollbackSession(final VersusMatch theMatch, final int theLocalPlayer) {
+        myMatch = theMatch;
+        myLocal = theLocalPlayer;
+        myRemote = 1 - theLocalPlayer;
+        for (int i = 0; i < RING_TICKS; i++) {
+            myStates[i] = ByteBuffer.allocate(theMatch.getStateSize());
+        }
+        myScratch = ByteBuffer.allocate(theMatch.getStateSize());
+        theMatch.newGame();
+    }
+
+    /**
+     * Gets the next tick to simulate.
+     * @return the tick.
+     */
+    public int getTick() {
+        return myTick;
+    }
+
+    /**
+     * Gets the last tick up to which every remote input has arrived.
+     * @return the tick, or -1 if none has arrived.
+     */
+    public int getRemoteConfirmed() {
+        return myRemoteConfirmed;
+    }
+
+    /**
+     * Gets the local input of a tick, to send to the remote side.
+     * @param theTick a tick from the latest ring of simulated ticks.
+     * @return the input.
+     */
+    public int getLocalInput(final int theTick) {
+        return myInputs[myLocal][theTick % INPUT_TICKS];
+    }
+
+    /**
+     * Checks whether the local side may advance without waiting for remote inputs.
+     * @return false if advancing would leave the last confirmed tick out of the ring.
+     */
+    public boolean canAdvance() {
+        return myTick - myRemoteConfirmed < RING_TICKS;
+    }
+
+    /**
+     * Rolls back any mispredicted ticks and simulates the next tick.
+     * @param theInput the local input of the tick.
+     */
+    public void advance(final int theInput) {
+        if (!canAdvance()) {
+            throw new IllegalStateException("Tick " + myTick + " is too far ahead of "
+                    + myRemoteConfirmed);
+        }
+        rollback();
+        myInputs[myLocal][myTick % INPUT_TICKS] = (byte) theInput;
+        simulate(myTick);
+        myTick++;
+    }
+
+    /**
+     * Takes the remote input of a tick. Inputs must arrive in tick order; inputs of
+     * ticks already confirmed and inputs after a gap are ignored, so a transport may
+     * resend every input until it is acknowledged.
+     * @param theTick the tick of the input.
+     * @param theInput the input.
+     */
+    public void receiveRemote(final int theTick, final int theInput) {
+        if (theTick == myRemoteConfirmed + 1) {
+            myInputs[myRemote][theTick % INPUT_TICKS] = (byte) theInput;
+            //Ticks simulated so far predicted that the remote player did nothing
+            if (theTick < myTick && theInput != NO_INPUT) {
+                myRollbackFrom = Math.min(myRollbackFrom, theTick);
+            }
+            myRemoteConfirmed = theTick;
+        }
+    }
+
+    /**
+     * Computes a checksum of the current state after rolling back any mispredicted
+     * ticks. Once every remote input before the current tick has arrived, both sides
+     * have the same checksum at the same tick unless they went out of sync.
+     * @return the CRC-32 of the state.
+     */
+    public long checksum() {
+        rollback();
+        myScratch.clear();
+        myMatch.saveState(myScratch);
+        myScratch.flip();
+        myCrc.reset();
+        myCrc.update(myScratch);
+        return myCrc.getValue();
+    }
+
+    /**
+     * Gets the number of rollbacks.
+     * @return the rollbacks.
+     */
+    public long getRollbackCount() {
+        return myRollbacks;
+    }
+
+    /**
+     * Gets the number of ticks simulated again by rollbacks.
+     * @return the ticks.
+     */
+    public long getResimulatedTicks() {
+        return myResimulated;
+    }
+
+    /**
+     * Gets the most ticks simulated again by one rollback.
+     * @return the ticks.
+     */
+    public int getMaxRollback() {
+        return myMaxRollback;
+    }
+
+    /**
+     * Gets the times rollbacks took, restoring included.
+     * @return a snapshot of the times in nanoseconds.
+     */
+    public LatencyHistogram.Snapshot getRollbackNanos() {
+        return myRollbackNanos.snapshot();
+    }
+
+    /**
+     * Restores the state of the first mispredicted tick and simulates the ticks since
+     * then again, if there is one.
+     */
+    private void rollback() {
+        if (myRollbackFrom < myTick) {
+            final long start = System.nanoTime();
+            final ByteBuffer state = myStates[myRollbackFrom % RING_TICKS];
+            state.rewind();
+            myMatch.restoreState(state);
+            for (int tick = myRollbackFrom; tick < myTick; tick++) {
+                simulate(tick);
+            }
+            myRollbackNanos.record(System.nanoTime() - start);
+            myRollbacks++;
+            myResimulated += myTick - myRollbackFrom;
+            myMaxRollback = Math.max(myMaxRollback, myTick - myRollbackFrom);
+        }
+        myRollbackFrom = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Saves the state before a tick and applies the inputs and gravity of the tick.
+     * @param theTick the tick.
+     */
+    private void simulate(final int theTick) {
+        final ByteBuffer state = myStates[theTick % RING_TICKS];
+        state.clear();
+        myMatch.saveState(state);
+
+        for (int player = 0; player < 2; player++) {
+            int input = NO_INPUT;
+            if (player == myLocal || theTick <= myRemoteConfirmed) {
+                input = myInputs[player][theTick % INPUT_TICKS];
+            }
+            final Operation op = Protocol.operationOf(input);
+            if (op != null && op != Operation.NEW_GAME && !myMatch.isOver()) {
+                Protocol.apply(myMatch.getBoard(player), op);
+            }
+        }
+        if (theTick % GRAVITY_TICKS == GRAVITY_TICKS - 1 && !myMatch.isOver()) {
+            myMatch.getBoard(0).step();
+            myMatch.getBoard(1).step();
+        }
+    }
+}
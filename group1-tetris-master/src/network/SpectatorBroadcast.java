@@ -0,0 +1,537 @@
+package network;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import model.Board;
+import model.BoardCodec;
+
+/**
+ * Streams a live game to any number of spectators over TCP.
+ * <p>Every change of the Board is encoded once, on the game thread, as a whole
+ * Protocol frame into its slot of a preallocated ring of the latest
+ * {@value #RING_FRAMES} frames. A single sender thread writes the frames to all
+ * spectators with non-blocking gathering writes, so the game thread does the same
+ * work however many spectators are watching.</p>
+ * <p>Each slot records the number of the frame it holds, cleared while the game
+ * thread rewrites it. The sender copies every frame once into a ring of its own and
+ * checks the number of the slot before and after the copy, so a frame the game
+ * thread overwrites meanwhile is never sent. The rest of a partly written frame is
+ * copied to the spectator.</p>
+ * <p>Each spectator has its own position in the ring, which makes the frames between
+ * that position and the newest frame its bounded queue. A spectator that falls a
+ * whole ring behind is not waited for: once the frame it is writing is complete it
+ * skips to the newest frame. Every frame holds the whole state, so the newest frame
+ * is a keyframe and the spectator is back in sync.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class SpectatorBroadcast implements PropertyChangeListener, Closeable {
+
+    /** The number of frames a spectator may fall behind before it resyncs. */
+    public static final int RING_FRAMES = 64;
+
+    /** The most frames written to a spectator in one gathering write. */
+    private static final int GATHER_FRAMES = 16;
+
+    /** Bytes of the buffer that reads and discards what spectators send. */
+    private static final int DISCARD_BYTES = 64;
+
+    /** Milliseconds accepting pauses after a failed accept. */
+    private static final long ACCEPT_BACKOFF_MILLIS = 100;
+
+    /** The board being watched. */
+    private final Board myBoard;
+
+    /** The listening socket. */
+    private final ServerSocketChannel myServer;
+
+    /** Wakes the sender thread for new spectators, new frames and writable sockets. */
+    private final Selector mySelector;
+
+    /** The registration of the listening socket with the selector. */
+    private final SelectionKey myServerKey;
+
+    /** The slots of the latest frames, by frame number modulo the ring size. */
+    private final ByteBuffer[] myFrames = new ByteBuffer[RING_FRAMES];
+
+    /** The size of the frame in each slot, published by mySlotFrames. */
+    private final int[] myFrameSizes = new int[RING_FRAMES];
+
+    /** The number of the frame in each slot, or -1 while it is written. */
+    private final AtomicLongArray mySlotFrames = new AtomicLongArray(RING_FRAMES);
+
+    /** The copies of the frames written to spectators, only used by the sender thread. */
+    private final ByteBuffer[] myCopies = new ByteBuffer[RING_FRAMES];
+
+    /** The number of the frame in each copy, only used by the sender thread. */
+    private final long[] myCopyFrames = new long[RING_FRAMES];
+
+    /** The size of a slot, the largest frame. */
+    private final int myFrameCapacity;
+
+    /** The spectators, only used by the sender thread. */
+    private final List<Spectator> mySpectators = new ArrayList<>();
+
+    /** The buffers of a gathering write, only used by the sender thread. */
+    private final ByteBuffer[] myGather = new ByteBuffer[GATHER_FRAMES];
+
+    /** Reads and discards what spectators send, only used by the sender thread. */
+    private final ByteBuffer myDiscard = ByteBuffer.allocateDirect(DISCARD_BYTES);
+
+    /** Writes frames to the spectators. */
+    private final Thread mySender;
+
+    /** The number of the newest frame, or -1 before the first. */
+    private volatile long myHead = -1;
+
+    /** The number of connected spectators. */
+    private volatile int mySpectatorCount;
+
+    /** The number of times a spectator skipped to the newest frame. */
+    private volatile long myResyncs;
+
+    /** The bytes written to spectators. */
+    private volatile long myBytesSent;
+
+    /** Whether the broadcast was closed. */
+    private volatile boolean myClosed;
+
+    /**
+     * System.nanoTime() when accepting resumes after a failed accept, or 0 while
+     * accepting. Only used by the sender thread.
+     */
+    private long myAcceptResume;
+
+    /**
+     * Creates a broadcast listening on the loopback address.
+     * @param theBoard the board to broadcast.
+     * @param thePort the port, or 0 for an ephemeral port.
+     * @throws IOException if the port could not be bound.
+     */
+    private SpectatorBroadcast(final Board theBoard, final int thePort) throws IOException {
+        myBoard = theBoard;
+        myFrameCapacity = Protocol.ACK_HEADER_SIZE
+                + BoardCodec.maxSize(theBoard.getWidth(), theBoard.getHeight());
+        final ByteBuffer ring = ByteBuffer.allocate(RING_FRAMES * myFrameCapacity);
+        final ByteBuffer copies = ByteBuffer.allocateDirect(RING_FRAMES * myFrameCapacity);
+        for (int i = 0; i < RING_FRAMES; i++) {
+            myFrames[i] = ring.slice(i * myFrameCapacity, myFrameCapacity);
+            myCopies[i] = copies.slice(i * myFrameCapacity, myFrameCapacity);
+            mySlotFrames.set(i, -1);
+        }
+        Arrays.fill(myCopyFrames, -1);
+        mySelector = Selector.open();
+        myServer = ServerSocketChannel.open();
+        myServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), thePort));
+        myServer.configureBlocking(false);
+        myServerKey = myServer.register(mySelector, SelectionKey.OP_ACCEPT);
+        mySender = new Thread(this::send, "SpectatorBroadcast");
+        mySender.setDaemon(true);
+    }
+
+    /**
+     * Starts broadcasting a board, beginning with its current state.
+     * Must be called on the thread that plays the board.
+     * @param theBoard the board to broadcast.
+     * @param thePort the port to listen on, or 0 for an ephemeral port.
+     * @return the broadcast, listening to the board.
+     * @throws IOException if the port could not be bound.
+     */
+    public static SpectatorBroadcast attach(final Board theBoard, final int thePort)
+            throws IOException {
+        final SpectatorBroadcast result = new SpectatorBroadcast(theBoard, thePort);
+        result.publish();
+        theBoard.addPropertyChangeListener(result);
+        result.mySender.start();
+        return result;
+    }
+
+    /**
+     * Gets the port spectators connect to.
+     * @return the port.
+     * @throws IOException if the broadcast is closed.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) myServer.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the number of connected spectators.
+     * @return the spectators.
+     */
+    public int getSpectatorCount() {
+        return mySpectatorCount;
+    }
+
+    /**
+     * Gets the number of frames encoded so far.
+     * @return the frames.
+     */
+    public long getFrameCount() {
+        return myHead + 1;
+    }
+
+    /**
+     * Gets the number of times a slow spectator skipped to the newest frame.
+     * @return the resyncs.
+     */
+    public long getResyncCount() {
+        return myResyncs;
+    }
+
+    /**
+     * Gets the bytes written to all spectators.
+     * @return the bytes sent.
+     */
+    public long getBytesSent() {
+        return myBytesSent;
+    }
+
+    /**
+     * Encodes a frame when the current piece moves or the game starts or ends.
+     * Every change of the board ends with one of these events.
+     * @param theEvent the Board event.
+     */
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        if (Board.PROPERTY_CHANGE_CURR.equals(theEvent.getPropertyName())
+                || Board.PROPERTY_CHANGE_GAME.equals(theEvent.getPropertyName())) {
+            publish();
+        }
+    }
+
+    /**
+     * Stops listening to the board and disconnects every spectator.
+     * @throws IOException if the listening socket could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        myBoard.removePropertyChangeListener(this);
+        myClosed = true;
+        mySelector.wakeup();
+        try {
+            mySender.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        myServer.close();
+    }
+
+    /**
+     * Encodes the board as a new frame into its slot of the ring, publishes it and
+     * wakes the sender thread.
+     */
+    private void publish() {
+        final long number = myHead + 1;
+        final int slot = slot(number);
+        final ByteBuffer frame = myFrames[slot];
+        mySlotFrames.set(slot, -1);
+        //The frame must not be changed before the slot is seen to be cleared
+        VarHandle.storeStoreFence();
+        frame.clear();
+        frame.put((byte) Protocol.FRAME);
+        frame.putShort((short) number);
+        frame.position(Protocol.ACK_HEADER_SIZE);
+        BoardCodec.encode(myBoard, frame);
+        frame.putShort(Protocol.ACK_HEADER_SIZE - 2,
+                (short) (frame.position() - Protocol.ACK_HEADER_SIZE));
+        myFrameSizes[slot] = frame.position();
+        mySlotFrames.set(slot, number);
+        myHead = number;
+        mySelector.wakeup();
+    }
+
+    /**
+     * Sender thread loop.
+     */
+    private void send() {
+        long flushed = -1;
+        try {
+            while (!myClosed) {
+                mySelector.select(myAcceptResume == 0 ? 0 : ACCEPT_BACKOFF_MILLIS);
+                if (myAcceptResume != 0 && System.nanoTime() - myAcceptResume >= 0) {
+                    myAcceptResume = 0;
+                    myServerKey.interestOps(SelectionKey.OP_ACCEPT);
+                }
+                for (final SelectionKey key : mySelector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        final Spectator spectator = (Spectator) key.attachment();
+                        if (key.isReadable()) {
+                            discard(spectator);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(spectator);
+                        }
+                    }
+                }
+                mySelector.selectedKeys().clear();
+                //Spectators still waiting for their socket are flushed when it is
+                //writable, the others as soon as there is a new frame
+                if (myHead != flushed) {
+                    flushed = myHead;
+                    for (int i = mySpectators.size() - 1; i >= 0; i--) {
+                        final Spectator spectator = mySpectators.get(i);
+                        if ((spectator.myKey.interestOps() & SelectionKey.OP_WRITE) == 0) {
+                            flush(spectator);
+                        }
+                    }
+                }
+            }
+        } catch (final IOException | ClosedSelectorException e) {
+            System.err.println("SpectatorBroadcast stopped: " + e);
+        } finally {
+            for (int i = mySpectators.size() - 1; i >= 0; i--) {
+                disconnect(mySpectators.get(i));
+            }
+            try {
+                mySelector.close();
+            } catch (final IOException e) {
+                //Nothing left to release
+            }
+        }
+    }
+
+    /**
+     * Accepts every pending spectator, starting each at the newest frame. A failed
+     * accept, such as when the process is out of file descriptors, only pauses
+     * accepting for a moment; the spectators already watching keep their stream.
+     */
+    private void accept() {
+        boolean pending = true;
+        while (pending) {
+            SocketChannel channel = null;
+            try {
+                channel = myServer.accept();
+                pending = channel != null;
+                if (pending) {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    final Spectator spectator = new Spectator(channel,
+                            channel.register(mySelector, SelectionKey.OP_READ), myHead,
+                            myFrameCapacity);
+                    spectator.myKey.attach(spectator);
+                    mySpectators.add(spectator);
+                    mySpectatorCount = mySpectators.size();
+                    flush(spectator);
+                }
+            } catch (final IOException e) {
+                System.err.println("SpectatorBroadcast could not accept a spectator: " + e);
+                closeQuietly(channel);
+                //The connection is still pending, so stop selecting it for a while
+                //instead of failing in a busy loop
+                myServerKey.interestOps(0);
+                myAcceptResume = System.nanoTime()
+                        + TimeUnit.MILLISECONDS.toNanos(ACCEPT_BACKOFF_MILLIS);
+                pending = false;
+            }
+        }
+    }
+
+    /**
+     * Writes as many of the frames a spectator is missing as its socket takes.
+     * @param theSpectator the spectator.
+     */
+    private void flush(final Spectator theSpectator) {
+        final long head = myHead;
+        int count = 0;
+        if (theSpectator.myPartial.hasRemaining()) {
+            myGather[count++] = theSpectator.myPartial;
+        } else if (head - theSpectator.myNext >= RING_FRAMES) {
+            theSpectator.myNext = head;
+            myResyncs++;
+        }
+        //A spectator never skips within a frame, so the resync waits until the
+        //partial frame has been written
+        for (long number = theSpectator.myNext; count < GATHER_FRAMES && number <= head;
+             number++) {
+            final ByteBuffer frame = copy(number);
+            if (frame == null) {
+                //Overwritten since the head was read, a later flush resyncs
+                break;
+            }
+            frame.rewind();
+            myGather[count++] = frame;
+        }
+
+        try {
+            if (count > 0) {
+                myBytesSent += theSpectator.myChannel.write(myGather, 0, count);
+            }
+            advance(theSpectator, count);
+            int interest = SelectionKey.OP_READ;
+            if (theSpectator.myPartial.hasRemaining() || theSpectator.myNext <= myHead) {
+                interest |= SelectionKey.OP_WRITE;
+            }
+            theSpectator.myKey.interestOps(interest);
+        } catch (final IOException e) {
+            disconnect(theSpectator);
+        }
+        Arrays.fill(myGather, 0, count, null);
+    }
+
+    /**
+     * Moves a spectator past the frames of a gathering write that were written,
+     * copying the rest of a frame that was written in part.
+     * @param theSpectator the spectator.
+     * @param theCount the number of buffers in the gathering write.
+     */
+    private void advance(final Spectator theSpectator, final int theCount) {
+        boolean done = false;
+        for (int i = 0; i < theCount && !done; i++) {
+            final ByteBuffer buffer = myGather[i];
+            if (buffer == theSpectator.myPartial) {
+                done = buffer.hasRemaining();
+            } else if (buffer.hasRemaining()) {
+                if (buffer.position() > 0) {
+                    theSpectator.myNext++;
+                    theSpectator.myPartial.clear();
+                    theSpectator.myPartial.put(buffer);
+                    theSpectator.myPartial.flip();
+                }
+                done = true;
+            } else {
+                theSpectator.myNext++;
+            }
+        }
+    }
+
+    /**
+     * Gets the sender's copy of a frame, copying it from its slot the first time.
+     * @param theNumber the frame number.
+     * @return the copy, or null if the game thread has overwritten the frame.
+     */
+    private ByteBuffer copy(final long theNumber) {
+        final int slot = slot(theNumber);
+        ByteBuffer result = myCopies[slot];
+        if (myCopyFrames[slot] != theNumber) {
+            myCopyFrames[slot] = -1;
+            if (mySlotFrames.get(slot) == theNumber) {
+                final int size = myFrameSizes[slot];
+                result.clear();
+                result.put(0, myFrames[slot], 0, size);
+                result.limit(size);
+                //The frame must be read before its slot is checked again
+                VarHandle.loadLoadFence();
+                if (mySlotFrames.get(slot) == theNumber) {
+                    myCopyFrames[slot] = theNumber;
+                }
+            }
+            if (myCopyFrames[slot] != theNumber) {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads and discards what a spectator sent, disconnecting it if it went away.
+     * @param theSpectator the spectator.
+     */
+    private void discard(final Spectator theSpectator) {
+        try {
+            myDiscard.clear();
+            if (theSpectator.myChannel.read(myDiscard) < 0) {
+                disconnect(theSpectator);
+            }
+        } catch (final IOException e) {
+            disconnect(theSpectator);
+        }
+    }
+
+    /**
+     * Closes the connection of a spectator.
+     * @param theSpectator the spectator.
+     */
+    private void disconnect(final Spectator theSpectator) {
+        theSpectator.myKey.cancel();
+        try {
+            theSpectator.myChannel.close();
+        } catch (final IOException e) {
+            //Already closed
+        }
+        mySpectators.remove(theSpectator);
+        mySpectatorCount = mySpectators.size();
+    }
+
+    /**
+     * Closes a connection that never became a spectator.
+     * @param theChannel the connection, or null.
+     */
+    private static void closeQuietly(final SocketChannel theChannel) {
+        if (theChannel != null) {
+            try {
+                theChannel.close();
+            } catch (final IOException e) {
+                //Already closed
+            }
+        }
+    }
+
+    /**
+     * Gets the ring index of a frame.
+     * @param theNumber the frame number.
+     * @return the index.
+     */
+    private static int slot(final long theNumber) {
+        return (int) (theNumber % RING_FRAMES);
+    }
+
+    /**
+     * One connected spectator and its position in the ring.
+     */
+    private static final class Spectator {
+
+        /** The connection, in non-blocking mode. */
+        private final SocketChannel myChannel;
+
+        /** The registration of the connection with the selector. */
+        private final SelectionKey myKey;
+
+        /** The number of the next frame to write after the partial frame. */
+        private long myNext;
+
+        /** The rest of a frame of which only a part was written, empty if none. */
+        private final ByteBuffer myPartial;
+
+        /**
+         * Creates a spectator.
+         * @param theChannel the connection.
+         * @param theKey the registration of the connection.
+         * @param theNext the number of the first frame to write.
+         * @param theFrameCapacity the size of the largest frame.
+         */
+        private Spectator(final SocketChannel theChannel, final SelectionKey theKey,
+                          final long theNext, final int theFrameCapacity) {
+            myChannel = theChannel;
+            myKey = theKey;
+            myNext = theNext;
+            myPartial = ByteBuffer.allocateDirect(theFrameCapacity);
+            myPartial.limit(0);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package view;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferStrategy;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.Serial;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import metrics.BoardPaintEvent;
+import metrics.FrameMetrics;
+import model.Block;
+import model.Board;
+import model.MovableTetrisPiece;
+
+/**
+ * Draws the Tetris board with active rendering instead of Swing repaints.
+ * <p>Board events only update the renderer and bump a version number. A dedicated
+ * render thread wakes once per frame at the frame cap, and when the version has
+ * changed since the last frame it draws the whole board into a BufferStrategy and
+ * shows it. Frames with nothing new are skipped.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public class ActiveBoardCanvas extends Canvas implements PropertyChangeListener {
+
+    /** Default serial version UID. */
+    @Serial
+    private static final long serialVersionUID = 3125829371066297744L;
+
+    /** The number of buffers in the buffer strategy. */
+    private static final int BUFFERS = 2;
+
+    /** Size of the game over text. */
+    private static final int FONT_SIZE = 25;
+
+    /** Weight of the newest frame in the average frame time. */
+    private static final double AVERAGE_WEIGHT = 0.05;
+
+    /** The renderer, guarded by itself as it is shared with the render thread. */
+    private final transient BoardRenderer myRenderer;
+
+    /** Pre-rendered background and gridlines, guarded by the renderer. */
+    private final transient StaticLayer myBackgroundLayer;
+
+    /** Nanoseconds between frames at the frame cap. */
+    private final long myFrameNanos;
+
+    /** The board data from the last board event. EDT only. */
+    private transient List<Block[]> myBoardData;
+
+    /** The current piece. EDT only. */
+    private transient MovableTetrisPiece myCurrShape;
+
+    /** Game over boolean. */
+    private volatile boolean myGameOver;
+
+    /** The timing of the game timer, used to draw the piece between ticks. */
+    private volatile FallTiming myTiming = FallTiming.STOPPED;
+
+    /** Incremented whenever something visible changes. */
+    private volatile long myVersion;
+
+    /** Whether the render thread should keep running. */
+    private volatile boolean myRunning;
+
+    /** The last frame time in nanoseconds. */
+    private volatile long myLastFrameNanos;
+
+    /** Exponential moving average of the frame time in nanoseconds. */
+    private volatile double myAverageFrameNanos;
+
+    /** The number of frames drawn. */
+    private volatile long myFramesDrawn;
+
+    /** The number of frames skipped because nothing changed. */
+    private volatile long myFramesSkipped;
+
+    /** Receives the frame times, or null when not measuring. */
+    private volatile FrameMetrics myMetrics;
+
+    /**
+     * Creates a canvas rendering at most theFrameCap frames per second.
+     * @param theFrameCap the maximum frames per second.
+     */
+    public ActiveBoardCanvas(final int theFrameCap) {
+        this(theFrameCap, BoardRenderer.BOARD_WIDTH, BoardRenderer.BOARD_HEIGHT);
+    }
+
+    /**
+     * Creates a canvas for a board of any size, rendering at most theFrameCap frames
+     * per second. The board is scaled to fit the canvas.
+     * @param theFrameCap the maximum frames per second.
+     * @param theColumns the width of the board in blocks.
+     * @param theRows the height of the board in blocks.
+     */
+    public ActiveBoardCanvas(final int theFrameCap, final int theColumns, final int theRows) {
+        super();
+        myFrameNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, theFrameCap);
+        myRenderer = new BoardRenderer(theColumns, theRows);
+        myBackgroundLayer = new StaticLayer(myRenderer::renderGrid);
+        setBackground(Color.ORANGE);
+        setPreferredSize(new Dimension(theColumns * BoardRenderer.BLOCK_SIZE,
+                theRows * BoardRenderer.BLOCK_SIZE));
+        setIgnoreRepaint(true);
+    }
+
+    /**
+     * Creates the buffer strategy and starts the render thread once the canvas is
+     * displayable.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(BUFFERS);
+        myRunning = true;
+        final Thread renderer = new Thread(this::renderLoop, "ActiveBoardCanvas-render");
+        renderer.setDaemon(true);
+        renderer.start();
+    }
+
+    /**
+     * Stops the render thread when the canvas is no longer displayable.
+     */
+    @Override
+    public void removeNotify() {
+        myRunning = false;
+        super.removeNotify();
+    }
+
+    /**
+     * Starts or stops recording frame times into metrics.
+     * @param theMetrics the metrics to record into, or null to stop.
+     */
+    public void setMetrics(final FrameMetrics theMetrics) {
+        myMetrics = theMetrics;
+    }
+
+    /**
+     * Gets the time taken by the last frame drawn.
+     * @return the last frame time in nanoseconds.
+     */
+    public long getLastFrameNanos() {
+        return myLastFrameNanos;
+    }
+
+    /**
+     * Gets the moving average of the frame time.
+     * @return the average frame time in nanoseconds.
+     */
+    public double getAverageFrameNanos() {
+        return myAverageFrameNanos;
+    }
+
+    /**
+     * Gets the number of frames drawn.
+     * @return the frames drawn.
+     */
+    public long getFramesDrawn() {
+        return myFramesDrawn;
+    }
+
+    /**
+     * Gets the number of frames skipped because nothing changed.
+     * @return the frames skipped.
+     */
+    public long getFramesSkipped() {
+        return myFramesSkipped;
+    }
+
+    /**
+     * Handles Property Change Events.
+     * @param theEvent A PropertyChangeEvent object describing the event source
+     *          and the property that has changed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        if (Board.PROPERTY_CHANGE_CURR.equals(theEvent.getPropertyName())) {
+            myCurrShape = (MovableTetrisPiece) theEvent.getNewValue();
+            updateCells();
+        } else if (Board.PROPERTY_CHANGE_BOARD.equals(theEvent.getPropertyName())) {
+            myBoardData = (List<Block[]>) theEvent.getNewValue();
+            updateCells();
+        } else if (Board.PROPERTY_CHANGE_GAME.equals(theEvent.getPropertyName())) {
+            myGameOver = (boolean) theEvent.getNewValue();
+            myVersion++;
+        } else if (TetrisFrame.PROPERTY_CHANGE_TICK.equals(theEvent.getPropertyName())) {
+            myTiming = (FallTiming) theEvent.getNewValue();
+            myVersion++;
+        } else if (MenuBar.PROPERTY_CHANGE_BACK_COLOR.equals(theEvent.getPropertyName())) {
+            setBackground((Color) theEvent.getNewValue());
+            myVersion++;
+        }
+    }
+
+    /**
+     * Updates the renderer and marks the canvas as changed if any cell changed.
+     */
+    private void updateCells() {
+        final Rectangle dirty;
+        synchronized (myRenderer) {
+            dirty = myRenderer.update(myBoardData, myCurrShape);
+        }
+        if (dirty != null) {
+            myVersion++;
+        }
+    }
+
+    /**
+     * Render thread loop. Draws a frame whenever the version or the size changed, the
+     * piece is falling or the buffer contents were lost, then sleeps until the next
+     * frame deadline.
+     */
+    private void renderLoop() {
+        long drawnVersion = -1;
+        long drawnSize = -1;
+        long deadline = System.nanoTime();
+        while (myRunning) {
+            final long version = myVersion;
+            final long size = (long) getWidth() << Integer.SIZE | getHeight();
+            final BufferStrategy strategy = getBufferStrategy();
+            if (strategy != null && (version != drawnVersion || size != drawnSize
+                    || myTiming.isRunning() || strategy.contentsLost())) {
+                final long start = System.nanoTime();
+                drawFrame(strategy);
+                final long elapsed = System.nanoTime() - start;
+                myLastFrameNanos = elapsed;
+                myAverageFrameNanos = myAverageFrameNanos == 0 ? elapsed
+                        : myAverageFrameNanos + AVERAGE_WEIGHT * (elapsed - myAverageFrameNanos);
+                myFramesDrawn++;
+                if (PerformanceOverlay.isRecording()) {
+                    PerformanceOverlay.recordPaint(elapsed);
+                }
+                final FrameMetrics metrics = myMetrics;
+                if (metrics != null) {
+                    metrics.recordBoardPaint(elapsed);
+                }
+                drawnVersion = version;
+                drawnSize = size;
+            } else {
+                myFramesSkipped++;
+            }
+            deadline += myFrameNanos;
+            final long now = System.nanoTime();
+            if (deadline < now) {
+                //Fell behind, start counting again from now rather than catching up
+                deadline = now;
+            } else {
+                LockSupport.parkNanos(deadline - now);
+            }
+        }
+    }
+
+    /**
+     * Draws one complete frame into the buffer strategy and shows it.
+     * @param theStrategy the buffer strategy.
+     */
+    private void drawFrame(final BufferStrategy theStrategy) {
+        final BoardPaintEvent event = new BoardPaintEvent();
+        event.begin();
+        do {
+            do {
+                final Graphics2D g2d = (Graphics2D) theStrategy.getDrawGraphics();
+                synchronized (myRenderer) {
+                    myRenderer.layout(getWidth(), getHeight());
+                    myBackgroundLayer.draw(g2d, this);
+                    myRenderer.paintBlocks(g2d, new Rectangle(0, 0, getWidth(), getHeight()),
+                            myTiming.fraction(System.nanoTime()));
+                }
+                if (myGameOver) {
+                    drawGameOver(g2d);
+                }
+                g2d.dispose();
+            } while (theStrategy.contentsRestored());
+            theStrategy.show();
+        } while (theStrategy.contentsLost());
+        if (event.shouldCommit()) {
+            event.setArea(getWidth(), getHeight());
+            event.commit();
+        }
+    }
+
+    /**
+     * Draws the game over message.
+     * @param theGraphics the graphics to draw on.
+     */
+    private void drawGameOver(final Graphics2D theGraphics) {
+        final int blockHeight = 4;
+        final int height = blockHeight * myRenderer.getCellSize();
+        theGraphics.setColor(Color.LIGHT_GRAY);
+        theGraphics.fillRect(0, 0, getWidth(), height);
+        theGraphics.setColor(Color.BLACK);
+        theGraphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, FONT_SIZE));
+        final String text = "Game Over";
+        final int width = theGraphics.getFontMetrics().stringWidth(text);
+        theGraphics.drawString(text, (getWidth() - width) / 2, height / 2 + FONT_SIZE / 2);
+    }
+}
@@ -1,12 +1,11 @@
 package view;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.RenderingHints;
+import java.awt.Rectangle;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
@@ -15,6 +14,9 @@ import java.util.List;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingConstants;
+import javax.swing.Timer;
+import metrics.BoardPaintEvent;
+import metrics.FrameMetrics;
 import model.Block;
 import model.Board;
 import model.MovableTetrisPiece;
@@ -35,23 +37,8 @@ public class BoardPanel extends JPanel implements PropertyChangeListener {
     @Serial
     private static final long serialVersionUID = -1013748546840061936L;
 
-    /** Board width. */
-    private static final int PANEL_WIDTH = 250;
-
-    /** Board height. */
-    private static final int PANEL_HEIGHT = 500;
-
-    /** Default dimension for the panel. */
-    private static final Dimension SIZE = new Dimension(PANEL_WIDTH, PANEL_HEIGHT);
-
-    /** The width of the board in blocks. */
-    private static final int BOARD_WIDTH = 10;
-
-    /** The height of the board in blocks. */
-    private static final int BOARD_HEIGHT = 20;
-
-    /** The size of a block in pixels. */
-    private static final int BLOCK_SIZE = 25;
+    /** Milliseconds between repaints of the falling piece, about 60 per second. */
+    private static final int ANIMATION_DELAY = 16;
 
     /** The current shape. */
     private MovableTetrisPiece myCurrShape;
@@ -59,12 +46,27 @@ public class BoardPanel extends JPanel implements PropertyChangeListener {
     /** The board data array. */
     private List<Block[]> myBoardData;
 
+    /** Draws the blocks and tracks which cells changed. */
+    private final BoardRenderer myRenderer;
+
+    /** Pre-rendered background and gridlines. */
+    private final StaticLayer myBackgroundLayer;
+
     /** Game over boolean. */
     private boolean myGameOver;
 
+    /** The timing of the game timer, used to draw the piece between ticks. */
+    private FallTiming myTiming = FallTiming.STOPPED;
+
+    /** Repaints the falling piece while the game timer is running. */
+    private final Timer myAnimation = new Timer(ANIMATION_DELAY, e -> repaintPiece());
+
     /** PropertyChangeSupport to manage various property changes. */
     private final PropertyChangeSupport myPCS;
 
+    /** Receives the paint times, or null when not measuring. */
+    private FrameMetrics myMetrics;
+
     /** JLabel that shows the game over message. */
     private final JLabel myGameOverMessage = new JLabel("<html>Game<br> Over</html>"
             , SwingConstants.CENTER);
@@ -75,7 +77,18 @@ public class BoardPanel extends JPanel implements PropertyChangeListener {
      * a specific size and position, and adds a "Board Area" label to it.
      */
     public BoardPanel() {
+        this(BoardRenderer.BOARD_WIDTH, BoardRenderer.BOARD_HEIGHT);
+    }
+
+    /**
+     * Creates a panel for a board of any size. The board is scaled to fit the panel.
+     * @param theColumns the width of the board in blocks.
+     * @param theRows the height of the board in blocks.
+     */
+    public BoardPanel(final int theColumns, final int theRows) {
         super();
+        myRenderer = new BoardRenderer(theColumns, theRows);
+        myBackgroundLayer = new StaticLayer(myRenderer::renderGrid);
         initializePanel();
 
 
@@ -93,7 +106,8 @@ public class BoardPanel extends JPanel implements PropertyChangeListener {
         final int blockWidth = 10;
         final int blockHeight = 4;
         this.setBackground(Color.ORANGE);
-        setPreferredSize(SIZE);
+        setPreferredSize(new Dimension(myRenderer.getColumns() * BoardRenderer.BLOCK_SIZE,
+                myRenderer.getRows() * BoardRenderer.BLOCK_SIZE));
 
         this.add(myGameOverMessage);
         myGameOverMessage.setVisible(false);
@@ -101,83 +115,84 @@ public class BoardPanel extends JPanel implements PropertyChangeListener {
         myGameOverMessage.setFont(new Font(Font.SANS_SERIF, Font.BOLD, fontSize));
         myGameOverMessage.setOpaque(true);
         myGameOverMessage.setBackground(Color.LIGHT_GRAY);
-        myGameOverMessage.setPreferredSize(new Dimension(blockWidth * BLOCK_SIZE,
-                blockHeight * BLOCK_SIZE));
+        myGameOverMessage.setPreferredSize(new Dimension(
+                blockWidth * BoardRenderer.BLOCK_SIZE, blockHeight * BoardRenderer.BLOCK_SIZE));
 
     }
     /**
-     * Draws the Tetris board with gridlines and blocks.
+     * Draws the pre-rendered background and gridlines, then the blocks inside the clip.
      * @param theGraphics the Graphics object to draw on.
      */
     @Override
     protected void paintComponent(final Graphics theGraphics) {
-        super.paintComponent(theGraphics);
+        final BoardPaintEvent event = new BoardPaintEvent();
+        event.begin();
+        final boolean timed = PerformanceOverlay.isRecording() || myMetrics != null;
+        final long start = timed ? System.nanoTime() : 0;
         final Graphics2D g2d = (Graphics2D) theGraphics;
-        final int rowNum = 24;
-        final double stroke = 0.25;
-
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                RenderingHints.VALUE_ANTIALIAS_ON);
-
-        if (myCurrShape != null) {
-            final model.Point loc = myCurrShape.getPosition();
-
-            final int[][] shape = myCurrShape.getTetrisPiece().getPointsByRotation(
-                    myCurrShape.getRotation());
-
-
-            for (final int[] square : shape) {
-                final int x = square[0];
-                final int y = square[1];
-
-                //Draw the actual Piece
-                g2d.setColor(Color.magenta);
-                g2d.fill3DRect((x + loc.x()) * BLOCK_SIZE,
-                        (BOARD_HEIGHT - (y + loc.y()) - 1) * BLOCK_SIZE,
-                        BLOCK_SIZE, BLOCK_SIZE, true);
-
-                //Draw the black outline
-                g2d.setColor(Color.BLACK);
-                g2d.setStroke(new BasicStroke((float) 1));
-                //Leave parenthesis around x + loc.x(),
-                // even if there is a warning saying they are not needed.
-                g2d.drawRect((x + loc.x()) * BLOCK_SIZE,
-                        (BOARD_HEIGHT - (y + loc.y()) - 1) * BLOCK_SIZE,
-                        BLOCK_SIZE, BLOCK_SIZE);
+        myRenderer.layout(getWidth(), getHeight());
+        myBackgroundLayer.draw(g2d, this);
+
+        //Only the cells overlapping the clip need to be drawn
+        final Rectangle clip = g2d.getClipBounds(new Rectangle(0, 0, getWidth(), getHeight()));
+        myRenderer.paintBlocks(g2d, clip, myTiming.fraction(System.nanoTime()));
+        if (timed) {
+            final long elapsed = System.nanoTime() - start;
+            if (PerformanceOverlay.isRecording()) {
+                PerformanceOverlay.recordPaint(elapsed);
             }
+            if (myMetrics != null) {
+                myMetrics.recordBoardPaint(elapsed);
+            }
+        }
+        if (event.shouldCommit()) {
+            event.setArea(clip.width, clip.height);
+            event.commit();
+        }
+    }
 
+    /**
+     * Starts or stops recording paint times into metrics.
+     * @param theMetrics the metrics to record into, or null to stop.
+     */
+    public void setMetrics(final FrameMetrics theMetrics) {
+        myMetrics = theMetrics;
+    }
 
+    /**
+     * Updates the cells from the latest board data and current piece and repaints
+     * only the area covering the cells that changed.
+     */
+    private void updateCells() {
+        final Rectangle dirty = myRenderer.update(myBoardData, myCurrShape);
+        if (dirty != null) {
+            repaint(dirty);
         }
+    }
 
-        g2d.setColor(Color.BLUE);
-        if (myBoardData != null) {
-            int row1 = 0;
-            for (; row1 < rowNum; row1++) {
-                final Block[] bArr = myBoardData.get(row1);
-                int col = 0;
-                for (final Block block : bArr) {
-                    if (block != null) {
-                        g2d.fillRect(col * BLOCK_SIZE, (BOARD_HEIGHT - row1 - 1) * BLOCK_SIZE,
-                                BLOCK_SIZE, BLOCK_SIZE);
-                    }
-                    col++;
-                }
-            }
+    /**
+     * Repaints the area the falling piece is drawn in.
+     */
+    private void repaintPiece() {
+        final Rectangle area = myRenderer.pieceArea();
+        if (area != null) {
+            repaint(area);
         }
+    }
 
-        // Draw the gridlines in white
-        g2d.setStroke(new BasicStroke((float) stroke));
-        g2d.setColor(Color.WHITE);
-        for (int row = 0; row < BOARD_HEIGHT; row++) {
-            g2d.drawLine(0, BLOCK_SIZE * row, BLOCK_SIZE * BOARD_WIDTH,
-                    BLOCK_SIZE * row);
-        }
-        for (int col = 0; col < BOARD_WIDTH; col++) {
-            g2d.drawLine(col * BLOCK_SIZE, 0, col * BLOCK_SIZE,
-                    BLOCK_SIZE * BOARD_HEIGHT);
+    /**
+     * Starts or stops repainting the falling piece when the game timer starts,
+     * stops or ticks.
+     * @param theTiming the timing of the game timer.
+     */
+    private void updateTiming(final FallTiming theTiming) {
+        myTiming = theTiming;
+        if (theTiming.isRunning()) {
+            myAnimation.start();
+        } else {
+            myAnimation.stop();
+            repaintPiece();
         }
-
-
     }
 
     /**
@@ -211,17 +226,19 @@ public class BoardPanel extends JPanel implements PropertyChangeListener {
     public void propertyChange(final PropertyChangeEvent theEvent) {
         if (Board.PROPERTY_CHANGE_CURR.equals(theEvent.getPropertyName())) {
             myCurrShape = (MovableTetrisPiece) theEvent.getNewValue();
+            updateCells();
         } else if (Board.PROPERTY_CHANGE_BOARD.equals(theEvent.getPropertyName())) {
             myBoardData = (List<Block[]>) theEvent.getNewValue();
+            updateCells();
         } else if (Board.PROPERTY_CHANGE_GAME.equals(theEvent.getPropertyName())) {
             myGameOver = (boolean) theEvent.getNewValue();
             displayMessage();
+        } else if (TetrisFrame.PROPERTY_CHANGE_TICK.equals(theEvent.getPropertyName())) {
+            updateTiming((FallTiming) theEvent.getNewValue());
         } else if (MenuBar.PROPERTY_CHANGE_BACK_COLOR.equals(theEvent.getPropertyName())) {
             final Color color = (Color) theEvent.getNewValue();
             this.setBackground(color);
+            repaint();
         }
-
-        revalidate();
-        repaint();
     }
 }
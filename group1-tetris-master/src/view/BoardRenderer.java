@@ -0,0 +1,415 @@
+package view;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.util.Arrays;
+import java.util.List;
+import model.Block;
+import model.MovableTetrisPiece;
+
+/**
+ * Draws the blocks of a Tetris board from the board data and current piece sent in
+ * Board events. The renderer keeps the state of every visible cell so callers can
+ * find out which part of the board changed, and is shared by every component that
+ * draws a board.
+ * <p>The geometry comes from the board dimensions and the size of the component:
+ * cells are square, as large as fit, and the board is centered. Tiles are drawn
+ * from an atlas rendered at the device pixel size of a cell, so a resize or a
+ * HiDPI scale only renders the tiles once.</p>
+ * <p>The current piece is kept apart from the other cells so it can be drawn part
+ * of the way towards the next row between timer ticks, and a ghost piece is drawn
+ * where the current piece would land.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+final class BoardRenderer {
+
+    /** The default width of the board in blocks. */
+    static final int BOARD_WIDTH = 10;
+
+    /** The default height of the board in blocks. */
+    static final int BOARD_HEIGHT = 20;
+
+    /** The preferred size of a block in pixels. */
+    static final int BLOCK_SIZE = 25;
+
+    /** Width of the gridlines. */
+    private static final float GRID_STROKE = 0.25f;
+
+    /**
+     * Cell state of an empty cell. Frozen cells hold their Block ordinal plus one and
+     * ghost cells hold the negated ordinal plus one.
+     */
+    private static final byte EMPTY = 0;
+
+    /** The number of squares in a piece. */
+    private static final int PIECE_SQUARES = 4;
+
+    /** The width of the board in blocks. */
+    private final int myColumns;
+
+    /** The height of the board in blocks. */
+    private final int myRows;
+
+    /** The state of every visible cell as last requested to be painted. */
+    private final byte[][] myCells;
+
+    /** Scratch cells the new state is built in before comparing with myCells. */
+    private final byte[][] myNextCells;
+
+    /** Rows of the visible squares of the current piece. */
+    private final int[] myPieceRows = new int[PIECE_SQUARES];
+
+    /** Columns of the visible squares of the current piece. */
+    private final int[] myPieceColumns = new int[PIECE_SQUARES];
+
+    /** The number of visible squares of the current piece. */
+    private int myPieceSize;
+
+    /** The block of the current piece, or null if there is none. */
+    private Block myPieceBlock;
+
+    /** How many rows the current piece can still fall. */
+    private int myDropDistance;
+
+    /** The size of a cell in pixels. */
+    private int myCellSize = BLOCK_SIZE;
+
+    /** The x coordinate of the left edge of the board. */
+    private int myOriginX;
+
+    /** The y coordinate of the top edge of the board. */
+    private int myOriginY;
+
+    /** The tiles the blocks are drawn with, for the last device scale. */
+    private TileAtlas myTiles = TileAtlas.forSize(BLOCK_SIZE);
+
+    /**
+     * Creates a renderer for a board of the default size.
+     */
+    BoardRenderer() {
+        this(BOARD_WIDTH, BOARD_HEIGHT);
+    }
+
+    /**
+     * Creates a renderer for a board.
+     * @param theColumns the width of the board in blocks.
+     * @param theRows the height of the board in blocks.
+     */
+    BoardRenderer(final int theColumns, final int theRows) {
+        myColumns = theColumns;
+        myRows = theRows;
+        myCells = new byte[theRows][theColumns];
+        myNextCells = new byte[theRows][theColumns];
+    }
+
+    /**
+     * Gets the width of the board in blocks.
+     * @return the number of columns.
+     */
+    int getColumns() {
+        return myColumns;
+    }
+
+    /**
+     * Gets the height of the board in blocks.
+     * @return the number of rows.
+     */
+    int getRows() {
+        return myRows;
+    }
+
+    /**
+     * Gets the size of a cell for the last layout.
+     * @return the cell size in pixels.
+     */
+    int getCellSize() {
+        return myCellSize;
+    }
+
+    /**
+     * Fits the board into an area, choosing the largest square cells that fit and
+     * centering the board.
+     * @param theWidth the width of the area.
+     * @param theHeight the height of the area.
+     */
+    void layout(final int theWidth, final int theHeight) {
+        myCellSize = Math.max(1, Math.min(theWidth / myColumns, theHeight / myRows));
+        myOriginX = (theWidth - myCellSize * myColumns) / 2;
+        myOriginY = (theHeight - myCellSize * myRows) / 2;
+    }
+
+    /**
+     * Gets the area of a cell.
+     * @param theRow the board row, 0 at the bottom.
+     * @param theColumn the board column.
+     * @return the pixel area of the cell.
+     */
+    Rectangle cellBounds(final int theRow, final int theColumn) {
+        return new Rectangle(cellX(theColumn), cellY(theRow), myCellSize, myCellSize);
+    }
+
+    /**
+     * Rebuilds the visible cells from board data and the current piece.
+     * @param theBoardData the board data from the last board event, or null.
+     * @param thePiece the current piece, or null.
+     * @return the area covering the cells that changed, or null if none changed.
+     */
+    Rectangle update(final List<Block[]> theBoardData, final MovableTetrisPiece thePiece) {
+        for (final byte[] row : myNextCells) {
+            Arrays.fill(row, EMPTY);
+        }
+        if (theBoardData != null) {
+            for (int row = 0; row < myRows; row++) {
+                final Block[] bArr = theBoardData.get(row);
+                for (int col = 0; col < myColumns; col++) {
+                    if (bArr[col] != null) {
+                        myNextCells[row][col] = (byte) (bArr[col].ordinal() + 1);
+                    }
+                }
+            }
+        }
+
+        Rectangle dirty = pieceArea();
+        updatePiece(theBoardData, thePiece);
+        dirty = union(dirty, pieceArea());
+
+        for (int row = 0; row < myRows; row++) {
+            for (int col = 0; col < myColumns; col++) {
+                if (myCells[row][col] != myNextCells[row][col]) {
+                    myCells[row][col] = myNextCells[row][col];
+                    dirty = union(dirty, cellBounds(row, col));
+                }
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Gets what a cell shows, for views that do not draw with Graphics.
+     * @param theRow the board row, 0 at the bottom.
+     * @param theColumn the board column.
+     * @return the Block ordinal plus one for a frozen block or the current piece, the
+     *         negated ordinal plus one for a ghost cell, or 0 for an empty cell.
+     */
+    int blockAt(final int theRow, final int theColumn) {
+        int result = myCells[theRow][theColumn];
+        for (int i = 0; i < myPieceSize; i++) {
+            if (myPieceRows[i] == theRow && myPieceColumns[i] == theColumn) {
+                result = myPieceBlock.ordinal() + 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the area the current piece is drawn in between this tick and the next,
+     * which is where a view must repaint while the piece falls.
+     * @return the area, or null if there is no visible piece.
+     */
+    Rectangle pieceArea() {
+        Rectangle result = null;
+        for (int i = 0; i < myPieceSize; i++) {
+            result = union(result, cellBounds(myPieceRows[i], myPieceColumns[i]));
+        }
+        if (result != null && myDropDistance > 0) {
+            result.height += myCellSize;
+        }
+        return result;
+    }
+
+    /**
+     * Draws the blocks overlapping a clip area with the current piece on its row.
+     * @param theGraphics the graphics to draw on.
+     * @param theClip the area to draw.
+     */
+    void paintBlocks(final Graphics2D theGraphics, final Rectangle theClip) {
+        paintBlocks(theGraphics, theClip, 0);
+    }
+
+    /**
+     * Draws the blocks overlapping a clip area, with the current piece part of the way
+     * towards the next row if it can still fall.
+     * @param theGraphics the graphics to draw on.
+     * @param theClip the area to draw.
+     * @param theFall how far the piece has fallen towards the next row, from 0 to 1.
+     */
+    void paintBlocks(final Graphics2D theGraphics, final Rectangle theClip,
+                     final double theFall) {
+        final int size = myCellSize;
+        final int firstCol = Math.max(0, (theClip.x - myOriginX) / size);
+        final int lastCol = Math.min(myColumns - 1,
+                (theClip.x + theClip.width - myOriginX) / size);
+        final int firstRow = Math.max(0,
+                myRows - 1 - (theClip.y + theClip.height - myOriginY) / size);
+        final int lastRow = Math.min(myRows - 1,
+                myRows - 1 - Math.floorDiv(theClip.y - myOriginY, size));
+
+        final TileAtlas tiles = tilesFor(theGraphics);
+        final Block[] blocks = Block.values();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                final byte cell = myCells[row][col];
+                if (cell > EMPTY) {
+                    tiles.drawTile(theGraphics, blocks[cell - 1], cellX(col), cellY(row), size);
+                } else if (cell < EMPTY) {
+                    TileAtlas.drawGhost(theGraphics, blocks[-cell - 1], cellX(col),
+                            cellY(row), size);
+                }
+            }
+        }
+
+        if (myPieceBlock != null) {
+            int offset = 0;
+            if (myDropDistance > 0) {
+                offset = (int) (theFall * size);
+            }
+            for (int i = 0; i < myPieceSize; i++) {
+                tiles.drawTile(theGraphics, myPieceBlock, cellX(myPieceColumns[i]),
+                        cellY(myPieceRows[i]) + offset, size);
+            }
+        }
+    }
+
+    /**
+     * Renders the gridlines, used for the pre-rendered background layer.
+     * @param theGraphics the graphics of the layer.
+     * @param theWidth the width of the layer.
+     * @param theHeight the height of the layer.
+     */
+    void renderGrid(final Graphics2D theGraphics, final int theWidth, final int theHeight) {
+        layout(theWidth, theHeight);
+        theGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        theGraphics.setStroke(new BasicStroke(GRID_STROKE));
+        theGraphics.setColor(Color.WHITE);
+        final int right = myOriginX + myCellSize * myColumns;
+        final int bottom = myOriginY + myCellSize * myRows;
+        for (int row = 0; row < myRows; row++) {
+            final int y = myOriginY + myCellSize * row;
+            theGraphics.drawLine(myOriginX, y, right, y);
+        }
+        for (int col = 0; col < myColumns; col++) {
+            final int x = myOriginX + myCellSize * col;
+            theGraphics.drawLine(x, myOriginY, x, bottom);
+        }
+    }
+
+    /**
+     * Stores the visible squares of the current piece and marks its ghost in the new
+     * cells. The ghost is where the piece lands if dropped, found by lowering the
+     * piece until a square would hit the floor or a frozen block.
+     * @param theBoardData the board data, or null.
+     * @param thePiece the current piece, or null.
+     */
+    private void updatePiece(final List<Block[]> theBoardData,
+                             final MovableTetrisPiece thePiece) {
+        myPieceSize = 0;
+        myPieceBlock = null;
+        myDropDistance = 0;
+        if (thePiece != null) {
+            final model.Point loc = thePiece.getPosition();
+            final int[][] squares = thePiece.getTetrisPiece().getPointsByRotation(
+                    thePiece.getRotation());
+            int drop = Integer.MAX_VALUE;
+            for (final int[] square : squares) {
+                final int col = square[0] + loc.x();
+                final int row = square[1] + loc.y();
+                drop = Math.min(drop, fallDistance(theBoardData, row, col));
+                if (row >= 0 && row < myRows && col >= 0 && col < myColumns) {
+                    myPieceRows[myPieceSize] = row;
+                    myPieceColumns[myPieceSize] = col;
+                    myPieceSize++;
+                }
+            }
+            myPieceBlock = thePiece.getTetrisPiece().getBlock();
+            myDropDistance = Math.max(0, drop);
+
+            final byte ghost = (byte) -(myPieceBlock.ordinal() + 1);
+            for (final int[] square : squares) {
+                final int col = square[0] + loc.x();
+                final int row = square[1] + loc.y() - myDropDistance;
+                //Rows above the visible board are never drawn
+                if (myDropDistance > 0 && row >= 0 && row < myRows && col >= 0
+                        && col < myColumns && myNextCells[row][col] == EMPTY) {
+                    myNextCells[row][col] = ghost;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the empty cells below a square before the floor or a frozen block.
+     * @param theBoardData the board data, or null.
+     * @param theRow the row of the square.
+     * @param theColumn the column of the square.
+     * @return the number of rows the square can fall.
+     */
+    private static int fallDistance(final List<Block[]> theBoardData, final int theRow,
+                                    final int theColumn) {
+        int row = theRow - 1;
+        if (theBoardData != null) {
+            while (row >= 0 && (row >= theBoardData.size()
+                    || theBoardData.get(row)[theColumn] == null)) {
+                row--;
+            }
+        } else {
+            row = -1;
+        }
+        return theRow - row - 1;
+    }
+
+    /**
+     * Adds an area to another that may not exist yet.
+     * @param theArea the area so far, or null, modified and returned if not null.
+     * @param theAdded the area to add, or null.
+     * @return the union of both areas, or null if both are null.
+     */
+    private static Rectangle union(final Rectangle theArea, final Rectangle theAdded) {
+        Rectangle result = theArea;
+        if (result == null) {
+            result = theAdded;
+        } else if (theAdded != null) {
+            result.add(theAdded);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the atlas matching the device pixel size of a cell, which only changes
+     * when the cell size or the display scale changes.
+     * @param theGraphics the graphics that will be drawn on.
+     * @return the atlas.
+     */
+    private TileAtlas tilesFor(final Graphics2D theGraphics) {
+        final int deviceSize = TileAtlas.deviceSize(theGraphics, myCellSize);
+        if (myTiles.getCellSize() != deviceSize) {
+            myTiles = TileAtlas.forSize(deviceSize);
+        }
+        return myTiles;
+    }
+
+    /**
+     * Gets the x coordinate of a column.
+     * @param theColumn the column.
+     * @return the left edge of the column.
+     */
+    private int cellX(final int theColumn) {
+        return myOriginX + theColumn * myCellSize;
+    }
+
+    /**
+     * Gets the y coordinate of a row.
+     * @param theRow the row, 0 at the bottom.
+     * @return the top edge of the row.
+     */
+    private int cellY(final int theRow) {
+        return myOriginY + (myRows - theRow - 1) * myCellSize;
+    }
+}
@@ -0,0 +1,55 @@
+package view;
+
+/**
+ * The timing of the game timer at its last tick, used by the board views to
+ * interpolate the falling piece between ticks without stepping the model more often.
+ * FallTiming objects are immutable.
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+final class FallTiming {
+
+    /** Timing of a timer that is not running, the piece does not fall. */
+    static final FallTiming STOPPED = new FallTiming(0, 0);
+
+    /** System.nanoTime() of the last tick. */
+    private final long myTickNanos;
+
+    /** Nanoseconds between ticks, or 0 if the timer is not running. */
+    private final long myPeriodNanos;
+
+    /**
+     * Creates a timing.
+     * @param theTickNanos System.nanoTime() of the last tick.
+     * @param thePeriodNanos nanoseconds between ticks, or 0 if the timer is stopped.
+     */
+    FallTiming(final long theTickNanos, final long thePeriodNanos) {
+        myTickNanos = theTickNanos;
+        myPeriodNanos = thePeriodNanos;
+    }
+
+    /**
+     * Checks whether the timer is running.
+     * @return true if the piece is falling.
+     */
+    boolean isRunning() {
+        return myPeriodNanos > 0;
+    }
+
+    /**
+     * Finds how far the piece has fallen towards the next row.
+     * @param theNowNanos the current System.nanoTime().
+     * @return the fraction of a row between 0 inclusive and 1 exclusive.
+     */
+    double fraction(final long theNowNanos) {
+        double result = 0;
+        if (myPeriodNanos > 0) {
+            final double elapsed = (double) (theNowNanos - myTickNanos) / myPeriodNanos;
+            result = Math.max(0, Math.min(elapsed, Math.nextDown(1.0)));
+        }
+        return result;
+    }
+}
@@ -32,6 +32,9 @@ public class MenuBar extends JPanel {
     /** The music String. */
     public static final String PROPERTY_CHANGE_MUSIC = "MUSIC";
 
+    /** The performance overlay String. */
+    public static final String PROPERTY_CHANGE_OVERLAY = "PERFORMANCE_OVERLAY";
+
     @Serial
     private static final long serialVersionUID = -8340223118855585654L;
 
@@ -99,6 +102,10 @@ public class MenuBar extends JPanel {
     /** The music check box item. */
     private final JCheckBoxMenuItem myMusic = new JCheckBoxMenuItem("Music", false);
 
+    /** The performance overlay check box item. */
+    private final JCheckBoxMenuItem myOverlay =
+            new JCheckBoxMenuItem("Performance Overlay (F3)", false);
+
     /**
      * Constructor for the MenuBar class that sets up the JMenuBar with a File menu
      * and options.
@@ -131,6 +138,7 @@ public class MenuBar extends JPanel {
         mySettings.add(myBGColor);
         mySettings.add(myNextPieceColor);
         mySettings.add(myMusic);
+        mySettings.add(myOverlay);
     }
 
     /**
@@ -166,6 +174,8 @@ public class MenuBar extends JPanel {
                 "Next Piece Panel Background Color", Color.BLACK)));
 
         myMusic.addActionListener(e -> notifyObserverOfMusicChange());
+
+        myOverlay.addActionListener(e -> notifyObserverOfOverlayChange());
     }
 
     /**
@@ -191,6 +201,22 @@ public class MenuBar extends JPanel {
         myPCS.firePropertyChange(PROPERTY_CHANGE_MUSIC, null, myMusic.getState());
     }
 
+    /**
+     * Flips the performance overlay check box and notifies observers, used by the
+     * hotkey.
+     */
+    public void toggleOverlay() {
+        myOverlay.setState(!myOverlay.getState());
+        notifyObserverOfOverlayChange();
+    }
+
+    /**
+     * Notify observers of a performance overlay change.
+     */
+    private void notifyObserverOfOverlayChange() {
+        myPCS.firePropertyChange(PROPERTY_CHANGE_OVERLAY, null, myOverlay.getState());
+    }
+
     /**
      * Adds propertyChangeListener.
      * @param theListener the PropertyChangeListener to be added
@@ -0,0 +1,187 @@
+package view;
+
+import java.io.File;
+import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Streams looping background music into the SoundMixer.
+ * <p>Instead of decoding the whole track into a Clip, a decoder thread reads the
+ * audio file in small chunks into a ring buffer which the mixer drains as it plays.
+ * Only a few KB of audio are held in memory and nothing is decoded on the thread
+ * that creates the player.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+class MusicPlayer {
+
+    /** The size of the ring buffer in bytes. */
+    private static final int RING_SIZE = 16 * 1024;
+
+    /** The number of bytes decoded from the stream at once. */
+    private static final int CHUNK_SIZE = 2048;
+
+    /** The music file. */
+    private final File myFile;
+
+    /** The format the music is decoded to. */
+    private final AudioFormat myFormat;
+
+    /** The ring buffer between the decoder and the mixer. */
+    private final byte[] myRing;
+
+    /** Total number of bytes written into the ring buffer. Guarded by myRing. */
+    private long myWritten;
+
+    /** Total number of bytes read out of the ring buffer. Guarded by myRing. */
+    private long myRead;
+
+    /** Whether the music should currently be heard. */
+    private volatile boolean myPlaying;
+
+    /** Whether the player has been closed. Guarded by myRing. */
+    private boolean myClosed;
+
+    /**
+     * Creates a music player for a file. No audio is decoded until start() is called.
+     * @param theFile the music file to loop.
+     * @param theFormat the format to decode the music to.
+     */
+    MusicPlayer(final File theFile, final AudioFormat theFormat) {
+        myFile = theFile;
+        myFormat = theFormat;
+        myRing = new byte[RING_SIZE];
+    }
+
+    /**
+     * Starts the background decoder thread.
+     */
+    public void start() {
+        final Thread decoder = new Thread(this::decode, "MusicPlayer-decoder");
+        decoder.setDaemon(true);
+        decoder.start();
+    }
+
+    /**
+     * Starts playing the music and sets it to loop continuously.
+     */
+    public void playMusic() {
+        myPlaying = true;
+    }
+
+    /**
+     * Pauses the music, until playMusic() is run.
+     */
+    public void pauseMusic() {
+        myPlaying = false;
+    }
+
+    /**
+     * Stops the decoder thread.
+     */
+    public void close() {
+        synchronized (myRing) {
+            myClosed = true;
+            myRing.notifyAll();
+        }
+    }
+
+    /**
+     * Takes up to theLength bytes of decoded music without waiting. Nothing is taken
+     * while the music is paused.
+     * @param theChunk the array to copy the music into.
+     * @param theLength the maximum number of bytes to copy.
+     * @return the number of bytes copied.
+     */
+    int read(final byte[] theChunk, final int theLength) {
+        int count = 0;
+        if (myPlaying) {
+            synchronized (myRing) {
+                count = (int) Math.min(theLength, myWritten - myRead);
+                for (int i = 0; i < count; i++) {
+                    theChunk[i] = myRing[(int) ((myRead + i) % RING_SIZE)];
+                }
+                myRead += count;
+                myRing.notifyAll();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Opens an audio stream of the music file decoded to the mixer format.
+     * @return the decoded stream.
+     * @throws IOException If the file could not be read.
+     * @throws UnsupportedAudioFileException If the file format is wrong.
+     */
+    private AudioInputStream openStream() throws IOException, UnsupportedAudioFileException {
+        final AudioInputStream raw = AudioSystem.getAudioInputStream(myFile);
+        final AudioInputStream result;
+        if (raw.getFormat().matches(myFormat)) {
+            result = raw;
+        } else {
+            result = AudioSystem.getAudioInputStream(myFormat, raw);
+        }
+        return result;
+    }
+
+    /**
+     * Decoder thread loop. Keeps the ring buffer filled, reopening the stream whenever
+     * the track ends.
+     */
+    private void decode() {
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        try {
+            AudioInputStream stream = openStream();
+            while (!isClosed()) {
+                final int count = stream.read(chunk, 0, chunk.length);
+                if (count < 0) {
+                    stream.close();
+                    stream = openStream();
+                } else {
+                    fill(chunk, count);
+                }
+            }
+            stream.close();
+        } catch (final IOException | UnsupportedAudioFileException
+                       | IllegalArgumentException e) {
+            e.printStackTrace();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Copies decoded audio into the ring buffer, waiting while it is full.
+     * @param theChunk the decoded audio.
+     * @param theCount the number of bytes in the chunk.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private void fill(final byte[] theChunk, final int theCount) throws InterruptedException {
+        synchronized (myRing) {
+            while (!myClosed && myWritten - myRead + theCount > RING_SIZE) {
+                myRing.wait();
+            }
+            for (int i = 0; i < theCount; i++) {
+                myRing[(int) ((myWritten + i) % RING_SIZE)] = theChunk[i];
+            }
+            myWritten += theCount;
+        }
+    }
+
+    /**
+     * Checks whether the player has been closed.
+     * @return true once close() has been called.
+     */
+    private boolean isClosed() {
+        synchronized (myRing) {
+            return myClosed;
+        }
+    }
+}
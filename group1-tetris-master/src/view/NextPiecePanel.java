@@ -1,11 +1,9 @@
 package view;
 
-import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.Serial;
@@ -46,6 +44,9 @@ public class NextPiecePanel extends JPanel implements PropertyChangeListener {
     /** Object of TetrisPiece class. */
     private TetrisPiece myNextPiece;
 
+    /** Pre-rendered background and next piece. */
+    private final StaticLayer myLayer = new StaticLayer(this::renderPiece);
+
     /**
      * Constructor to initialize the panel.
      */
@@ -66,44 +67,32 @@ public class NextPiecePanel extends JPanel implements PropertyChangeListener {
     }
 
     /**
-     * Repaints the components of this panels GUI.
+     * Repaints the components of this panels GUI from the pre-rendered layer.
      * @param theG the <code>Graphics</code> object to protect
      */
     @Override
     protected void paintComponent(final Graphics theG) {
-        super.paintComponent(theG);
-        final double stroke = 0.5;
-
-        final Graphics2D g2d = (Graphics2D) theG;
-
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                RenderingHints.VALUE_ANTIALIAS_ON);
-
-        g2d.setStroke(new BasicStroke((float) stroke));
-        g2d.setColor(Color.CYAN);
-
+        myLayer.draw(theG, this);
+    }
 
+    /**
+     * Renders the next piece into the layer.
+     * @param theGraphics the graphics of the layer.
+     * @param theWidth the width of the layer.
+     * @param theHeight the height of the layer.
+     */
+    private void renderPiece(final Graphics2D theGraphics, final int theWidth,
+                             final int theHeight) {
         if (myNextPiece != null) {
             final int offsetX = 2;
             final int offsetY = 1;
+            final TileAtlas tiles =
+                    TileAtlas.forSize(TileAtlas.deviceSize(theGraphics, BLOCK_SIZE));
 
             for (final int[] square : myNextPiece.getPointsByRotation(Rotation.NONE)) {
-                final int x = square[0];
-                final int y = square[1];
-
-                //Draw the actual Piece
-                g2d.setColor(Color.magenta);
-                g2d.fill3DRect((x + offsetX) * BLOCK_SIZE,
-                        (y + offsetY) * BLOCK_SIZE,
-                        BLOCK_SIZE, BLOCK_SIZE, true);
-
-                //Draw the black outline
-                g2d.setColor(Color.BLACK);
-                g2d.setStroke(new BasicStroke((float) 1));
-                g2d.drawRect((x + offsetX) * BLOCK_SIZE,
-                        (y + offsetY) * BLOCK_SIZE,
-                        BLOCK_SIZE, BLOCK_SIZE);
-
+                tiles.drawTile(theGraphics, myNextPiece.getBlock(),
+                        (square[0] + offsetX) * BLOCK_SIZE,
+                        (square[1] + offsetY) * BLOCK_SIZE, BLOCK_SIZE);
             }
         }
     }
@@ -117,6 +106,7 @@ public class NextPiecePanel extends JPanel implements PropertyChangeListener {
     public void propertyChange(final PropertyChangeEvent theEvent) {
         if (Board.PROPERTY_CHANGE_NEXT.equals(theEvent.getPropertyName())) {
             myNextPiece = (TetrisPiece) theEvent.getNewValue();
+            myLayer.invalidate();
         } else if (MenuBar.PROPERTY_CHANGE_NEXT_COLOR.equals(theEvent.getPropertyName())) {
             final Color color = (Color) theEvent.getNewValue();
             this.setBackground(color);
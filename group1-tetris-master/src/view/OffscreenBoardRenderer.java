@@ -0,0 +1,156 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.List;
+import model.Block;
+import model.Board;
+import model.MovableTetrisPiece;
+
+/**
+ * Draws a Board into a BufferedImage without any window, for thumbnails and frame
+ * sequences of recorded games. It works with java.awt.headless=true.
+ * <p>The renderer listens to the Board like BoardPanel does and draws with the same
+ * BoardRenderer and tiles. The background and gridlines are rendered once and
+ * copied into every frame.</p>
+ * <p>A renderer belongs to one Board and is not thread safe, but the images it draws
+ * into can come from anywhere, so a worker thread can reuse one image for many
+ * frames and many boards of the same size.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class OffscreenBoardRenderer implements PropertyChangeListener {
+
+    /** The background color of the board. */
+    private static final Color BACKGROUND = Color.ORANGE;
+
+    /** Draws the blocks. */
+    private final BoardRenderer myRenderer;
+
+    /** The width of a frame. */
+    private final int myWidth;
+
+    /** The height of a frame. */
+    private final int myHeight;
+
+    /** Pre-rendered background and gridlines. */
+    private final BufferedImage myBackground;
+
+    /** The board data from the last board event. */
+    private List<Block[]> myBoardData;
+
+    /** The current piece. */
+    private MovableTetrisPiece myCurrShape;
+
+    /** Whether any cell changed since the last frame was drawn. */
+    private boolean myChanged;
+
+    /**
+     * Creates a renderer for a board.
+     * @param theColumns the width of the board in blocks.
+     * @param theRows the height of the board in blocks.
+     * @param theCellSize the size of a block in pixels.
+     */
+    public OffscreenBoardRenderer(final int theColumns, final int theRows,
+                                  final int theCellSize) {
+        myRenderer = new BoardRenderer(theColumns, theRows);
+        myWidth = theColumns * theCellSize;
+        myHeight = theRows * theCellSize;
+        myBackground = new BufferedImage(myWidth, myHeight, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2d = myBackground.createGraphics();
+        g2d.setColor(BACKGROUND);
+        g2d.fillRect(0, 0, myWidth, myHeight);
+        myRenderer.renderGrid(g2d, myWidth, myHeight);
+        g2d.dispose();
+    }
+
+    /**
+     * Creates a renderer for a Board and adds it as a listener of the Board.
+     * @param theBoard the board to draw.
+     * @param theCellSize the size of a block in pixels.
+     * @return the renderer.
+     */
+    public static OffscreenBoardRenderer attach(final Board theBoard, final int theCellSize) {
+        final OffscreenBoardRenderer result = new OffscreenBoardRenderer(
+                theBoard.getWidth(), theBoard.getHeight(), theCellSize);
+        theBoard.addPropertyChangeListener(result);
+        return result;
+    }
+
+    /**
+     * Gets the width of a frame.
+     * @return the width in pixels.
+     */
+    public int getWidth() {
+        return myWidth;
+    }
+
+    /**
+     * Gets the height of a frame.
+     * @return the height in pixels.
+     */
+    public int getHeight() {
+        return myHeight;
+    }
+
+    /**
+     * Checks whether any cell changed since the last frame was drawn.
+     * @return true if the next frame would differ from the last one.
+     */
+    public boolean isChanged() {
+        return myChanged;
+    }
+
+    /**
+     * Creates an image a frame can be drawn into.
+     * @return a new image of the frame size.
+     */
+    public BufferedImage createImage() {
+        return new BufferedImage(myWidth, myHeight, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Draws the board as it is now.
+     * @param theImage the image to draw into, at least as large as a frame.
+     */
+    public void render(final BufferedImage theImage) {
+        final Graphics2D g2d = theImage.createGraphics();
+        g2d.drawImage(myBackground, 0, 0, null);
+        myRenderer.paintBlocks(g2d, new Rectangle(0, 0, myWidth, myHeight));
+        g2d.dispose();
+        myChanged = false;
+    }
+
+    /**
+     * Updates the cells from Board events.
+     * @param theEvent A PropertyChangeEvent object describing the event source
+     *          and the property that has changed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        if (Board.PROPERTY_CHANGE_CURR.equals(theEvent.getPropertyName())) {
+            myCurrShape = (MovableTetrisPiece) theEvent.getNewValue();
+            updateCells();
+        } else if (Board.PROPERTY_CHANGE_BOARD.equals(theEvent.getPropertyName())) {
+            myBoardData = (List<Block[]>) theEvent.getNewValue();
+            updateCells();
+        }
+    }
+
+    /**
+     * Updates the renderer and remembers whether any cell changed.
+     */
+    private void updateCells() {
+        if (myRenderer.update(myBoardData, myCurrShape) != null) {
+            myChanged = true;
+        }
+    }
+}
@@ -2,20 +2,19 @@ package view;
 
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.io.Serial;
 import javax.swing.Box;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
-import model.Board;
+import model.ScoreKeeper;
 
 /**
  * This class represents a JPanel that displays an "Info Area" label and has a green
  * background color. The panel is positioned at a specific location on the parent container.
+ * The statistics come from a ScoreKeeper, so painting the panel never changes them.
  * @author Harman Singh
  *         Lucas Perry
  *         Windie Le
@@ -24,9 +23,6 @@ import model.Board;
  * */
 public class OtherPanel extends JPanel implements PropertyChangeListener {
 
-    /** The Property Change variable for changing the level. */
-    public static final String PROPERTY_CHANGE_LEVEL = "LEVEL++";
-
     @Serial
     private static final long serialVersionUID = 1205221436623192212L;
 
@@ -36,11 +32,6 @@ public class OtherPanel extends JPanel implements PropertyChangeListener {
     /** Next Piece height. */
     private static final int PANEL_HEIGHT = 350;
 
-    /**
-     * The number of cleared rows needed to progress to the next level.
-     */
-    private static final int LEVEL_SCALE = 5;
-
     /** Default dimension for the panel. */
     private static final Dimension SIZE = new Dimension(PANEL_WIDTH, PANEL_HEIGHT);
 
@@ -49,8 +40,6 @@ public class OtherPanel extends JPanel implements PropertyChangeListener {
 
     /** The current level of the player. */
     private int myLevelCount = 1;
-    /** The current number of rows left to complete until level up. */
-    private int myRowsLeft = LEVEL_SCALE;
 
     /** The number of points the player has. */
     private int myPoints;
@@ -73,11 +62,6 @@ public class OtherPanel extends JPanel implements PropertyChangeListener {
     /** The points count label. */
     private final JLabel myPointsCountLabel;
 
-    /**
-     * The Property Change Support.
-     */
-    private final PropertyChangeSupport myPCS;
-
     /**
      * Constructor for the OtherInformation class that sets up the panel with
      * a green background color,
@@ -87,8 +71,6 @@ public class OtherPanel extends JPanel implements PropertyChangeListener {
 
         super();
 
-        myPCS = new PropertyChangeSupport(this);
-
         myLevelLabel = new JLabel("LEVEL");
 
         myRowsLabel = new JLabel("ROWS  CLEARED: ");
@@ -152,56 +134,6 @@ public class OtherPanel extends JPanel implements PropertyChangeListener {
         myPointsCountLabel.setText(Integer.toString(myPoints));
     }
 
-    /**
-     * Updates the player's statistics.
-     */
-    private void updateStats() {
-        myLevelCount = 1 + (myRowsCounter / LEVEL_SCALE);
-
-        myRowsLeft = myRowsCounter - (myLevelCount * LEVEL_SCALE);
-
-        if (myRowsLeft == 4) {
-            myPoints += 40 * myLevelCount;
-        } else if (myRowsLeft == 3) {
-            myPoints += 100 * myLevelCount;
-        } else if (myRowsLeft == 2) {
-            myPoints += 300 * myLevelCount;
-        } else if (myRowsLeft == 1) {
-            myPoints += 1200 * myLevelCount;
-        }
-
-        updateLabels();
-        notifyObserversOfLevelChange();
-    }
-
-    /**
-     * Adds PropertyChangeListener to this object.
-     * @param theListener  the PropertyChangeListener to be added
-     *
-     */
-    public void addPropertyChangeListener(final PropertyChangeListener theListener) {
-        myPCS.addPropertyChangeListener(theListener);
-    }
-
-    /**
-     * Notifies listeners of changes to the level.
-     */
-    public void notifyObserversOfLevelChange() {
-        if (myLevelCount > 1) {
-            myPCS.firePropertyChange(PROPERTY_CHANGE_LEVEL, null, myLevelCount);
-        }
-    }
-
-    /**
-     * Paints the components.
-     * @param theGraphics the Graphics to be painted with
-     */
-    @Override
-    protected void paintComponent(final Graphics theGraphics) {
-        super.paintComponent(theGraphics);
-        updateStats();
-    }
-
     /**
      * Handles property change events.
      * @param theEvent A PropertyChangeEvent object describing the event source
@@ -209,13 +141,13 @@ public class OtherPanel extends JPanel implements PropertyChangeListener {
      */
     @Override
     public void propertyChange(final PropertyChangeEvent theEvent) {
-        final int pointsPerFreeze = 4;
-        if (Board.PROPERTY_CHANGE_ROW.equals(theEvent.getPropertyName())) {
-            myRowsCounter++;
-            myRowsLeft--;
-        } else if (Board.PROPERTY_CHANGE_FREEZE.equals(theEvent.getPropertyName())) {
-            myPoints += pointsPerFreeze;
+        if (ScoreKeeper.PROPERTY_CHANGE_SCORE.equals(theEvent.getPropertyName())) {
+            myPoints = (int) theEvent.getNewValue();
+        } else if (ScoreKeeper.PROPERTY_CHANGE_LINES.equals(theEvent.getPropertyName())) {
+            myRowsCounter = (int) theEvent.getNewValue();
+        } else if (ScoreKeeper.PROPERTY_CHANGE_LEVEL.equals(theEvent.getPropertyName())) {
+            myLevelCount = (int) theEvent.getNewValue();
         }
-        repaint();
+        updateLabels();
     }
 }
@@ -0,0 +1,203 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.Serial;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.swing.JComponent;
+import javax.swing.Timer;
+import metrics.LatencyHistogram;
+import model.Board;
+
+/**
+ * A toggleable overlay showing frames per second, board paint time percentiles,
+ * Board events per second and the allocation rate of the event dispatch thread.
+ * <p>The overlay is installed as the glass pane of the frame. Paint times are
+ * recorded into a lock-free histogram only while the overlay is enabled, and the
+ * overlay listens to the Board only while it is enabled, so it costs nothing when
+ * it is off.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public class PerformanceOverlay extends JComponent implements PropertyChangeListener {
+
+    /** Default serial version UID. */
+    @Serial
+    private static final long serialVersionUID = -4217533102387646159L;
+
+    /** Milliseconds between updates of the overlay. */
+    private static final int UPDATE_MILLIS = 1000;
+
+    /** Width of the overlay box. */
+    private static final int BOX_WIDTH = 190;
+
+    /** Height of one line of text. */
+    private static final int LINE_HEIGHT = 14;
+
+    /** Margin around the text. */
+    private static final int MARGIN = 6;
+
+    /** Bytes per kilobyte. */
+    private static final double KB = 1024.0;
+
+    /** Whether any overlay is enabled. Checked before recording anything. */
+    private static volatile boolean ourEnabled;
+
+    /** Board paint times in nanoseconds. */
+    private static final LatencyHistogram PAINT_TIMES = new LatencyHistogram();
+
+    /** The board the overlay counts events from. */
+    private final transient Board myBoard;
+
+    /** Events received from the board since the last update. */
+    private final transient LongAdder myEvents = new LongAdder();
+
+    /** Updates the statistics once a second while enabled. */
+    private final Timer myTimer;
+
+    /** Thread bean used to read the EDT allocation counter, or null if unsupported. */
+    private final transient com.sun.management.ThreadMXBean myThreadBean;
+
+    /** EDT allocated bytes at the last update. */
+    private long myLastAllocated;
+
+    /** System.nanoTime() at the last update. */
+    private long myLastUpdate;
+
+    /** The lines of text currently shown. */
+    private String[] myLines = new String[0];
+
+    /**
+     * Creates an overlay for a board.
+     * @param theBoard the board to count events from.
+     */
+    public PerformanceOverlay(final Board theBoard) {
+        super();
+        myBoard = theBoard;
+        myTimer = new Timer(UPDATE_MILLIS, e -> update());
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            myThreadBean = (com.sun.management.ThreadMXBean) bean;
+        } else {
+            myThreadBean = null;
+        }
+        setOpaque(false);
+        setVisible(false);
+        setFont(new Font(Font.MONOSPACED, Font.PLAIN, LINE_HEIGHT - 2));
+    }
+
+    /**
+     * Checks whether paint times should be recorded.
+     * @return true while an overlay is shown.
+     */
+    public static boolean isRecording() {
+        return ourEnabled;
+    }
+
+    /**
+     * Records the time one board paint took. Callers should only measure paints while
+     * isRecording() returns true.
+     * @param theNanos the paint time in nanoseconds.
+     */
+    public static void recordPaint(final long theNanos) {
+        PAINT_TIMES.record(theNanos);
+    }
+
+    /**
+     * Shows or hides the overlay.
+     * @param theEnabled true to show the overlay.
+     */
+    public void setOverlayEnabled(final boolean theEnabled) {
+        if (theEnabled != ourEnabled) {
+            ourEnabled = theEnabled;
+            if (theEnabled) {
+                PAINT_TIMES.drain();
+                myEvents.reset();
+                myLastUpdate = System.nanoTime();
+                myLastAllocated = allocatedBytes();
+                myLines = new String[] {"collecting..."};
+                myBoard.addPropertyChangeListener(this);
+                myTimer.start();
+            } else {
+                myTimer.stop();
+                myBoard.removePropertyChangeListener(this);
+            }
+            setVisible(theEnabled);
+        }
+    }
+
+    /**
+     * Counts a Board event.
+     * @param theEvent the event.
+     */
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        myEvents.increment();
+    }
+
+    /**
+     * Paints the statistics in the top right corner.
+     * @param theGraphics the Graphics to be painted with
+     */
+    @Override
+    protected void paintComponent(final Graphics theGraphics) {
+        final int x = getWidth() - BOX_WIDTH - MARGIN;
+        theGraphics.setColor(new Color(0, 0, 0, 180));
+        theGraphics.fillRect(x, MARGIN, BOX_WIDTH, myLines.length * LINE_HEIGHT + MARGIN);
+        theGraphics.setColor(Color.GREEN);
+        theGraphics.setFont(getFont());
+        for (int i = 0; i < myLines.length; i++) {
+            theGraphics.drawString(myLines[i], x + MARGIN, MARGIN + (i + 1) * LINE_HEIGHT);
+        }
+    }
+
+    /**
+     * Computes the statistics for the last interval and repaints the overlay.
+     */
+    private void update() {
+        final long now = System.nanoTime();
+        final double seconds = Math.max(1, now - myLastUpdate)
+                / (double) TimeUnit.SECONDS.toNanos(1);
+        final long allocated = allocatedBytes();
+        final LatencyHistogram.Snapshot paints = PAINT_TIMES.drain();
+
+        myLines = new String[] {
+            String.format("FPS        %8.1f", paints.getCount() / seconds),
+            String.format("paint p50  %8.1f us", paints.percentile(LatencyHistogram.MEDIAN)
+                    / LatencyHistogram.NANOS_PER_MICRO),
+            String.format("paint p99  %8.1f us", paints.percentile(LatencyHistogram.TAIL)
+                    / LatencyHistogram.NANOS_PER_MICRO),
+            String.format("paint max  %8.1f us", paints.percentile(LatencyHistogram.MAX)
+                    / LatencyHistogram.NANOS_PER_MICRO),
+            String.format("events/s   %8.1f", myEvents.sumThenReset() / seconds),
+            myThreadBean == null ? "alloc      n/a"
+                    : String.format("alloc KB/s %8.1f",
+                            Math.max(0, allocated - myLastAllocated) / KB / seconds),
+        };
+        myLastUpdate = now;
+        myLastAllocated = allocated;
+        repaint(getWidth() - BOX_WIDTH - MARGIN, 0, BOX_WIDTH + MARGIN,
+                myLines.length * LINE_HEIGHT + 2 * MARGIN);
+    }
+
+    /**
+     * Reads the number of bytes allocated by the calling thread, the EDT.
+     * @return the allocated bytes, or 0 if unsupported.
+     */
+    private long allocatedBytes() {
+        long result = 0;
+        if (myThreadBean != null && myThreadBean.isThreadAllocatedMemorySupported()) {
+            result = myThreadBean.getCurrentThreadAllocatedBytes();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,265 @@
+package view;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import model.Board;
+import model.MovableTetrisPiece;
+
+/**
+ * Software mixer that plays the background music and the sound effects through a
+ * single audio line.
+ * <p>Sound effects are short PCM buffers synthesized once at construction. Board
+ * events only increment a per-effect trigger counter, so the game never blocks on
+ * audio. The mixer thread picks up the triggers every few milliseconds, mixes the
+ * active effects over the music and writes the result to the line.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+class SoundMixer implements PropertyChangeListener {
+
+    /** The sample rate of the mixer. */
+    private static final float SAMPLE_RATE = 44_100f;
+
+    /** The number of channels of the mixer. */
+    private static final int CHANNELS = 2;
+
+    /** The number of bytes in one stereo 16 bit frame. */
+    private static final int FRAME_BYTES = 4;
+
+    /** The number of frames mixed at once, about 3 ms of audio. */
+    private static final int CHUNK_FRAMES = 128;
+
+    /** The size of the line buffer in chunks. Bounds the effect start latency. */
+    private static final int LINE_CHUNKS = 3;
+
+    /** The number of effects that can sound at the same time. */
+    private static final int MAX_VOICES = 8;
+
+    /** The volume of an effect relative to full scale. */
+    private static final double EFFECT_VOLUME = 0.3;
+
+    /** The format the mixer produces. */
+    static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, Short.SIZE, CHANNELS,
+            true, false);
+
+    /** The sound effects the mixer can play. */
+    enum Effect {
+        /** Piece moved sideways. */
+        CLICK(0.02, 1200, 1200),
+        /** Piece rotated. */
+        ROTATE(0.045, 600, 950),
+        /** Piece frozen in place. */
+        FREEZE(0.07, 180, 110),
+        /** One or more rows cleared. */
+        LINE_CLEAR(0.25, 520, 1560);
+
+        /** The mono samples of the effect. */
+        private final short[] mySamples;
+
+        /**
+         * Synthesizes an effect as a decaying tone sweeping between two pitches.
+         * @param theSeconds the length of the effect.
+         * @param theStartHz the pitch at the start.
+         * @param theEndHz the pitch at the end.
+         */
+        Effect(final double theSeconds, final double theStartHz, final double theEndHz) {
+            mySamples = new short[(int) (theSeconds * SAMPLE_RATE)];
+            double phase = 0;
+            for (int i = 0; i < mySamples.length; i++) {
+                final double t = (double) i / mySamples.length;
+                phase += 2 * Math.PI * (theStartHz + (theEndHz - theStartHz) * t)
+                        / SAMPLE_RATE;
+                final double envelope = (1 - t) * (1 - t);
+                mySamples[i] = (short) (Math.sin(phase) * envelope * EFFECT_VOLUME
+                        * Short.MAX_VALUE);
+            }
+        }
+    }
+
+    /** The effects, indexed by ordinal, so the mixer thread does not copy values(). */
+    private static final Effect[] EFFECTS = Effect.values();
+
+    /** Pending triggers per effect, incremented by the game and drained by the mixer. */
+    private final AtomicIntegerArray myTriggers;
+
+    /** The effect each voice is playing, or -1 for an idle voice. Mixer thread only. */
+    private final int[] myVoiceEffect;
+
+    /** The next sample each voice will play. Mixer thread only. */
+    private final int[] myVoicePosition;
+
+    /** The background music, mixed under the effects. */
+    private final MusicPlayer myMusic;
+
+    /** Whether the mixer has been closed. */
+    private volatile boolean myClosed;
+
+    /**
+     * The last current piece seen, used to tell moves from rotations. Cleared when a
+     * piece freezes or the board changes, so a new piece never sounds. EDT only.
+     */
+    private MovableTetrisPiece myLastPiece;
+
+    /**
+     * Creates a mixer. No audio line is opened until start() is called.
+     * @param theMusic the background music to mix under the effects.
+     */
+    SoundMixer(final MusicPlayer theMusic) {
+        myMusic = theMusic;
+        myTriggers = new AtomicIntegerArray(EFFECTS.length);
+        myVoiceEffect = new int[MAX_VOICES];
+        myVoicePosition = new int[MAX_VOICES];
+        Arrays.fill(myVoiceEffect, -1);
+    }
+
+    /**
+     * Starts the music decoder and the mixer thread.
+     * @param theReadyCallback run on the mixer thread once the audio line is playing.
+     */
+    public void start(final Runnable theReadyCallback) {
+        myMusic.start();
+        final Thread mixer = new Thread(() -> mix(theReadyCallback), "SoundMixer");
+        mixer.setDaemon(true);
+        mixer.setPriority(Thread.MAX_PRIORITY);
+        mixer.start();
+    }
+
+    /**
+     * Requests an effect to be played. Never blocks.
+     * @param theEffect the effect to play.
+     */
+    public void trigger(final Effect theEffect) {
+        myTriggers.incrementAndGet(theEffect.ordinal());
+    }
+
+    /**
+     * Stops the mixer thread and the music.
+     */
+    public void close() {
+        myClosed = true;
+        myMusic.close();
+    }
+
+    /**
+     * Plays effects for Board events.
+     * @param theEvent A PropertyChangeEvent object describing the event source
+     *          and the property that has changed.
+     */
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        if (Board.PROPERTY_CHANGE_CURR.equals(theEvent.getPropertyName())) {
+            final MovableTetrisPiece piece = (MovableTetrisPiece) theEvent.getNewValue();
+            if (piece != null && myLastPiece != null
+                    && piece.getTetrisPiece() == myLastPiece.getTetrisPiece()) {
+                if (piece.getRotation() != myLastPiece.getRotation()) {
+                    trigger(Effect.ROTATE);
+                } else if (piece.getPosition().x() != myLastPiece.getPosition().x()) {
+                    trigger(Effect.CLICK);
+                }
+            }
+            myLastPiece = piece;
+        } else if (Board.PROPERTY_CHANGE_FREEZE.equals(theEvent.getPropertyName())) {
+            myLastPiece = null;
+            trigger(Effect.FREEZE);
+        } else if (Board.PROPERTY_CHANGE_BOARD.equals(theEvent.getPropertyName())) {
+            myLastPiece = null;
+        } else if (Board.PROPERTY_CHANGE_ROW.equals(theEvent.getPropertyName())) {
+            trigger(Effect.LINE_CLEAR);
+        }
+    }
+
+    /**
+     * Mixer thread loop. Each pass mixes one chunk and writes it to the line, which
+     * blocks until the line has room and so paces the loop.
+     * @param theReadyCallback run once the line is playing.
+     */
+    private void mix(final Runnable theReadyCallback) {
+        final int[] mix = new int[CHUNK_FRAMES * CHANNELS];
+        final byte[] bytes = new byte[CHUNK_FRAMES * FRAME_BYTES];
+        try (SourceDataLine line = AudioSystem.getSourceDataLine(FORMAT)) {
+            line.open(FORMAT, bytes.length * LINE_CHUNKS);
+            line.start();
+            theReadyCallback.run();
+            while (!myClosed) {
+                startTriggeredVoices();
+                Arrays.fill(mix, 0);
+                addMusic(mix, bytes);
+                addVoices(mix);
+                for (int i = 0; i < mix.length; i++) {
+                    final int sample = Math.max(Short.MIN_VALUE,
+                            Math.min(Short.MAX_VALUE, mix[i]));
+                    bytes[2 * i] = (byte) sample;
+                    bytes[2 * i + 1] = (byte) (sample >> Byte.SIZE);
+                }
+                line.write(bytes, 0, bytes.length);
+            }
+        } catch (final LineUnavailableException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Assigns an idle voice, or the oldest one, to every triggered effect.
+     */
+    private void startTriggeredVoices() {
+        for (final Effect effect : EFFECTS) {
+            if (myTriggers.getAndSet(effect.ordinal(), 0) > 0) {
+                int voice = 0;
+                for (int v = 0; v < MAX_VOICES; v++) {
+                    if (myVoiceEffect[v] < 0) {
+                        voice = v;
+                        break;
+                    }
+                    if (myVoicePosition[v] > myVoicePosition[voice]) {
+                        voice = v;
+                    }
+                }
+                myVoiceEffect[voice] = effect.ordinal();
+                myVoicePosition[voice] = 0;
+            }
+        }
+    }
+
+    /**
+     * Adds the next chunk of music to the mix.
+     * @param theMix the mix buffer.
+     * @param theScratch a byte buffer large enough for one chunk.
+     */
+    private void addMusic(final int[] theMix, final byte[] theScratch) {
+        final int count = myMusic.read(theScratch, theScratch.length) / 2;
+        for (int i = 0; i < count; i++) {
+            theMix[i] += (short) (theScratch[2 * i] & 0xFF | theScratch[2 * i + 1] << Byte.SIZE);
+        }
+    }
+
+    /**
+     * Adds the next chunk of every active voice to the mix.
+     * @param theMix the mix buffer.
+     */
+    private void addVoices(final int[] theMix) {
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (myVoiceEffect[v] >= 0) {
+                final short[] samples = EFFECTS[myVoiceEffect[v]].mySamples;
+                final int count = Math.min(CHUNK_FRAMES, samples.length - myVoicePosition[v]);
+                for (int i = 0; i < count; i++) {
+                    final short sample = samples[myVoicePosition[v] + i];
+                    theMix[CHANNELS * i] += sample;
+                    theMix[CHANNELS * i + 1] += sample;
+                }
+                myVoicePosition[v] += count;
+                if (myVoicePosition[v] >= samples.length) {
+                    myVoiceEffect[v] = -1;
+                }
+            }
+        }
+    }
+}
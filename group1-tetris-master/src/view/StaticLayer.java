@@ -0,0 +1,128 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * A pre-rendered image of the parts of a component that rarely change, such as the
+ * background and the grid. The image is only re-rendered when the size or the
+ * background color of the component changes, or when it is invalidated, so each
+ * paint can start with a single blit.
+ * <p>The image is a compatible BufferedImage. Java2D keeps an accelerated copy of
+ * such managed images in video memory, which gives VolatileImage speed without
+ * having to check for lost contents on every paint. The image is rendered at the
+ * device resolution of the graphics it is drawn on, so a HiDPI scale does not
+ * stretch it.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+final class StaticLayer {
+
+    /**
+     * Renders the contents of a layer.
+     */
+    @FunctionalInterface
+    interface Renderer {
+        /**
+         * Renders the layer.
+         * @param theGraphics the graphics of the layer image.
+         * @param theWidth the width of the layer.
+         * @param theHeight the height of the layer.
+         */
+        void render(Graphics2D theGraphics, int theWidth, int theHeight);
+    }
+
+    /** Renders the layer when it needs to be rebuilt. */
+    private final Renderer myRenderer;
+
+    /** The rendered layer, or null before the first paint. */
+    private BufferedImage myImage;
+
+    /** The background color the layer was rendered with. */
+    private Color myBackground;
+
+    /** The device scale the layer was rendered at. */
+    private double myScale;
+
+    /** Whether the layer must be rendered again before the next blit. */
+    private boolean myInvalid;
+
+    /**
+     * Creates a layer.
+     * @param theRenderer renders the layer contents.
+     */
+    StaticLayer(final Renderer theRenderer) {
+        myRenderer = theRenderer;
+    }
+
+    /**
+     * Forces the layer to be rendered again before the next blit.
+     */
+    void invalidate() {
+        myInvalid = true;
+    }
+
+    /**
+     * Draws the layer at the origin of a component's graphics, rendering it first if
+     * the component's size or background color changed.
+     * @param theGraphics the graphics to draw on.
+     * @param theComponent the component the layer belongs to.
+     */
+    void draw(final Graphics theGraphics, final Component theComponent) {
+        final int width = Math.max(1, theComponent.getWidth());
+        final int height = Math.max(1, theComponent.getHeight());
+        double scale = 1;
+        if (theGraphics instanceof Graphics2D) {
+            scale = ((Graphics2D) theGraphics).getTransform().getScaleX();
+        }
+        final int deviceWidth = (int) Math.ceil(width * scale);
+        final int deviceHeight = (int) Math.ceil(height * scale);
+        if (myInvalid || myImage == null || myImage.getWidth() != deviceWidth
+                || myImage.getHeight() != deviceHeight || scale != myScale
+                || !theComponent.getBackground().equals(myBackground)) {
+            render(theComponent, width, height, scale);
+        }
+        theGraphics.drawImage(myImage, 0, 0, width, height, null);
+    }
+
+    /**
+     * Renders the layer image.
+     * @param theComponent the component the layer belongs to.
+     * @param theWidth the width of the layer.
+     * @param theHeight the height of the layer.
+     * @param theScale the device scale to render at.
+     */
+    private void render(final Component theComponent, final int theWidth,
+                        final int theHeight, final double theScale) {
+        final int deviceWidth = (int) Math.ceil(theWidth * theScale);
+        final int deviceHeight = (int) Math.ceil(theHeight * theScale);
+        if (myImage == null || myImage.getWidth() != deviceWidth
+                || myImage.getHeight() != deviceHeight) {
+            final GraphicsConfiguration config = theComponent.getGraphicsConfiguration();
+            if (config == null) {
+                myImage = new BufferedImage(deviceWidth, deviceHeight,
+                        BufferedImage.TYPE_INT_RGB);
+            } else {
+                myImage = config.createCompatibleImage(deviceWidth, deviceHeight,
+                        Transparency.OPAQUE);
+            }
+        }
+        myBackground = theComponent.getBackground();
+        myScale = theScale;
+        final Graphics2D g2d = myImage.createGraphics();
+        g2d.setColor(myBackground);
+        g2d.fillRect(0, 0, deviceWidth, deviceHeight);
+        g2d.scale(theScale, theScale);
+        myRenderer.render(g2d, theWidth, theHeight);
+        g2d.dispose();
+        myInvalid = false;
+    }
+}
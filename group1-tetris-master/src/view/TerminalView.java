@@ -0,0 +1,338 @@
+package view;
+
+import java.awt.Color;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import model.Block;
+import model.Board;
+import model.MovableTetrisPiece;
+import model.ScoreKeeper;
+
+/**
+ * Draws a Tetris board on an ANSI terminal.
+ * <p>The view keeps the frame it last wrote to the terminal. Each call to render()
+ * compares the board with that frame and writes only the cells that changed, as
+ * cursor moves and colors, so a moving piece costs a few dozen bytes instead of a
+ * whole board. A frame is built in memory and written with a single write.</p>
+ * <p>Board and ScoreKeeper events only update the state; the caller decides when a
+ * frame is written, usually once per input or timer tick.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class TerminalView implements PropertyChangeListener {
+
+    /** Starts an ANSI escape sequence. */
+    private static final String CSI = "\u001b[";
+
+    /** Resets all colors. */
+    private static final String RESET = CSI + "0m";
+
+    /** Frame state of a cell that was never written, forcing it to be written. */
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    /** Terminal columns per board cell, so cells look square. */
+    private static final int CELL_WIDTH = 2;
+
+    /** The terminal row of the top of the board, inside the border. */
+    private static final int TOP = 2;
+
+    /** The terminal column of the left of the board, inside the border. */
+    private static final int LEFT = 2;
+
+    /** Columns between the board border and the statistics. */
+    private static final int STATS_GAP = 3;
+
+    /** The number of statistics lines. */
+    private static final int STATS_LINES = 4;
+
+    /** Number of steps per channel of the 256 color cube. */
+    private static final int CUBE_STEPS = 6;
+
+    /** Index of the first color of the 256 color cube. */
+    private static final int CUBE_START = 16;
+
+    /** The largest value of a color channel. */
+    private static final int CHANNEL_MAX = 255;
+
+    /** Background color escapes of each Block type, in Block order. */
+    private static final String[] BLOCK_COLORS = new String[Block.values().length];
+
+    /** Foreground color escapes of each Block type for ghost cells, in Block order. */
+    private static final String[] GHOST_COLORS = new String[Block.values().length];
+
+    static {
+        for (final Block block : Block.values()) {
+            final int color = cubeIndex(TileAtlas.colorOf(block));
+            BLOCK_COLORS[block.ordinal()] = CSI + "48;5;" + color + "m";
+            GHOST_COLORS[block.ordinal()] = CSI + "0;38;5;" + color + "m";
+        }
+    }
+
+    /** Where the frames are written. */
+    private final OutputStream myOut;
+
+    /** Works out what each cell shows. */
+    private final BoardRenderer myRenderer;
+
+    /** What each cell showed in the last frame written, as from BoardRenderer.blockAt. */
+    private final int[][] myScreen;
+
+    /** The frame being built. */
+    private final StringBuilder myFrame = new StringBuilder();
+
+    /** The bytes of the frame being written, reused between frames. */
+    private byte[] myBytes = new byte[0];
+
+    /** The statistics lines last written. */
+    private final String[] myStatsShown = new String[STATS_LINES];
+
+    /** The board data from the last board event. */
+    private List<Block[]> myBoardData;
+
+    /** The current piece. */
+    private MovableTetrisPiece myCurrShape;
+
+    /** The score. */
+    private int myScore;
+
+    /** The number of cleared lines. */
+    private int myLines;
+
+    /** The level. */
+    private int myLevel = 1;
+
+    /** Game over boolean. */
+    private boolean myGameOver;
+
+    /** Whether the border must be drawn before the next frame. */
+    private boolean myNeedsBorder = true;
+
+    /** The escape of the color last set in the frame being built. */
+    private String myColor;
+
+    /** Terminal row of the cursor in the frame being built, or 0 if unknown. */
+    private int myCursorRow;
+
+    /** Terminal column of the cursor in the frame being built. */
+    private int myCursorColumn;
+
+    /**
+     * Creates a terminal view for a board.
+     * @param theOut where the frames are written, usually standard output.
+     * @param theColumns the width of the board in blocks.
+     * @param theRows the height of the board in blocks.
+     */
+    public TerminalView(final OutputStream theOut, final int theColumns, final int theRows) {
+        myOut = theOut;
+        myRenderer = new BoardRenderer(theColumns, theRows);
+        myScreen = new int[theRows][theColumns];
+        for (final int[] row : myScreen) {
+            Arrays.fill(row, UNKNOWN);
+        }
+    }
+
+    /**
+     * Forgets the frame on the terminal so the next frame redraws everything, for
+     * example after the screen was cleared.
+     */
+    public void invalidate() {
+        myNeedsBorder = true;
+        for (final int[] row : myScreen) {
+            Arrays.fill(row, UNKNOWN);
+        }
+        Arrays.fill(myStatsShown, null);
+    }
+
+    /**
+     * Writes the cells and statistics that changed since the last frame with a single
+     * write. Nothing is written if nothing changed.
+     * @throws IOException if the frame could not be written.
+     */
+    public void render() throws IOException {
+        myFrame.setLength(0);
+        //Every frame ends by resetting the colors
+        myColor = RESET;
+        myCursorRow = 0;
+        if (myNeedsBorder) {
+            appendBorder();
+            myNeedsBorder = false;
+        }
+        for (int row = 0; row < myRenderer.getRows(); row++) {
+            for (int col = 0; col < myRenderer.getColumns(); col++) {
+                final int cell = myRenderer.blockAt(row, col);
+                if (cell != myScreen[row][col]) {
+                    myScreen[row][col] = cell;
+                    appendCell(row, col, cell);
+                }
+            }
+        }
+        appendStats();
+        if (myFrame.length() > 0) {
+            myFrame.append(RESET);
+            write();
+        }
+    }
+
+    /**
+     * Restores the terminal colors and cursor and moves below the board.
+     * @throws IOException if the terminal could not be written.
+     */
+    public void close() throws IOException {
+        myFrame.setLength(0);
+        moveTo(TOP + myRenderer.getRows() + 1, 1);
+        myFrame.append(RESET).append(CSI).append("?25h\r\n");
+        write();
+    }
+
+    /**
+     * Handles Property Change Events.
+     * @param theEvent A PropertyChangeEvent object describing the event source
+     *          and the property that has changed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        final String name = theEvent.getPropertyName();
+        if (Board.PROPERTY_CHANGE_CURR.equals(name)) {
+            myCurrShape = (MovableTetrisPiece) theEvent.getNewValue();
+            myRenderer.update(myBoardData, myCurrShape);
+        } else if (Board.PROPERTY_CHANGE_BOARD.equals(name)) {
+            myBoardData = (List<Block[]>) theEvent.getNewValue();
+            myRenderer.update(myBoardData, myCurrShape);
+        } else if (Board.PROPERTY_CHANGE_GAME.equals(name)) {
+            myGameOver = (boolean) theEvent.getNewValue();
+        } else if (ScoreKeeper.PROPERTY_CHANGE_SCORE.equals(name)) {
+            myScore = (int) theEvent.getNewValue();
+        } else if (ScoreKeeper.PROPERTY_CHANGE_LINES.equals(name)) {
+            myLines = (int) theEvent.getNewValue();
+        } else if (ScoreKeeper.PROPERTY_CHANGE_LEVEL.equals(name)) {
+            myLevel = (int) theEvent.getNewValue();
+        }
+    }
+
+    /**
+     * Clears the screen, hides the cursor and draws the border around the board.
+     */
+    private void appendBorder() {
+        final int width = myRenderer.getColumns() * CELL_WIDTH;
+        final int bottom = TOP + myRenderer.getRows();
+        myFrame.append(RESET).append(CSI).append("2J").append(CSI).append("?25l");
+        myCursorRow = 0;
+        moveTo(TOP - 1, LEFT - 1);
+        myFrame.append('+').append("-".repeat(width)).append('+');
+        for (int row = TOP; row < bottom; row++) {
+            moveTo(row, LEFT - 1);
+            myFrame.append('|');
+            moveTo(row, LEFT + width);
+            myFrame.append('|');
+        }
+        moveTo(bottom, LEFT - 1);
+        myFrame.append('+').append("-".repeat(width)).append('+');
+        myCursorRow = 0;
+    }
+
+    /**
+     * Appends a cell to the frame.
+     * @param theRow the board row, 0 at the bottom.
+     * @param theColumn the board column.
+     * @param theCell what the cell shows, as from BoardRenderer.blockAt.
+     */
+    private void appendCell(final int theRow, final int theColumn, final int theCell) {
+        moveTo(TOP + myRenderer.getRows() - 1 - theRow, LEFT + theColumn * CELL_WIDTH);
+        if (theCell > 0) {
+            setColor(BLOCK_COLORS[theCell - 1]);
+            myFrame.append("  ");
+        } else if (theCell < 0) {
+            setColor(GHOST_COLORS[-theCell - 1]);
+            myFrame.append("[]");
+        } else {
+            setColor(RESET);
+            myFrame.append("  ");
+        }
+        myCursorColumn += CELL_WIDTH;
+    }
+
+    /**
+     * Appends the statistics lines that changed to the frame.
+     */
+    private void appendStats() {
+        final String[] lines = {
+            "SCORE " + myScore,
+            "LINES " + myLines,
+            "LEVEL " + myLevel,
+            myGameOver ? "GAME OVER" : "",
+        };
+        final int column = LEFT + myRenderer.getColumns() * CELL_WIDTH + STATS_GAP;
+        for (int i = 0; i < lines.length; i++) {
+            if (!lines[i].equals(myStatsShown[i])) {
+                myStatsShown[i] = lines[i];
+                moveTo(TOP + i, column);
+                setColor(RESET);
+                //Erase the rest of the line in case the text got shorter
+                myFrame.append(lines[i]).append(CSI).append('K');
+                myCursorRow = 0;
+            }
+        }
+    }
+
+    /**
+     * Moves the cursor unless it is already there.
+     * @param theRow the terminal row, starting at 1.
+     * @param theColumn the terminal column, starting at 1.
+     */
+    private void moveTo(final int theRow, final int theColumn) {
+        if (theRow != myCursorRow || theColumn != myCursorColumn) {
+            myFrame.append(CSI).append(theRow).append(';').append(theColumn).append('H');
+            myCursorRow = theRow;
+            myCursorColumn = theColumn;
+        }
+    }
+
+    /**
+     * Sets the color unless it is already set.
+     * @param theColor the color escape.
+     */
+    private void setColor(final String theColor) {
+        if (!theColor.equals(myColor)) {
+            myFrame.append(theColor);
+            myColor = theColor;
+        }
+    }
+
+    /**
+     * Writes the frame with a single write. The frame is plain ASCII.
+     * @throws IOException if the frame could not be written.
+     */
+    private void write() throws IOException {
+        final int length = myFrame.length();
+        if (myBytes.length < length) {
+            myBytes = new byte[Math.max(length, myBytes.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            myBytes[i] = (byte) myFrame.charAt(i);
+        }
+        myOut.write(myBytes, 0, length);
+        myOut.flush();
+    }
+
+    /**
+     * Finds the nearest color of the 256 color palette's color cube.
+     * @param theColor the color.
+     * @return the palette index.
+     */
+    private static int cubeIndex(final Color theColor) {
+        final int red = Math.round(theColor.getRed() * (CUBE_STEPS - 1) / (float) CHANNEL_MAX);
+        final int green = Math.round(theColor.getGreen() * (CUBE_STEPS - 1)
+                / (float) CHANNEL_MAX);
+        final int blue = Math.round(theColor.getBlue() * (CUBE_STEPS - 1)
+                / (float) CHANNEL_MAX);
+        return CUBE_START + red * CUBE_STEPS * CUBE_STEPS + green * CUBE_STEPS + blue;
+    }
+}
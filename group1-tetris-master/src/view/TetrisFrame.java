@@ -1,6 +1,8 @@
 package view;
 
+import java.awt.Component;
 import java.awt.Dimension;
+import java.awt.Graphics;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.beans.PropertyChangeEvent;
@@ -9,21 +11,26 @@ import java.beans.PropertyChangeSupport;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serial;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
+import java.util.concurrent.TimeUnit;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JFrame;
 import javax.swing.JMenuBar;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
+import metrics.BoardMetrics;
+import metrics.FrameMetrics;
+import metrics.MetricsRegistry;
+import metrics.StartupProfile;
 import model.Board;
 import model.Boardable;
+import model.GameJournal;
+import model.ScoreKeeper;
 
 /**
  * This class represents a JFrame that displays a Tetris game GUI demo.
@@ -36,9 +43,18 @@ import model.Boardable;
  */
 public class TetrisFrame extends JFrame implements PropertyChangeListener {
 
+    /** The Property Change variable for the timing of the game timer. */
+    public static final String PROPERTY_CHANGE_TICK = "TICK";
+
     /** The default delay time. */
     private static final int DEFAULT_DELAY = 1000;
 
+    /** Milliseconds the tick delay shrinks by per level. */
+    private static final int DELAY_PER_LEVEL = 100;
+
+    /** The shortest delay between timer ticks in milliseconds. */
+    private static final int MIN_DELAY = 50;
+
     /** The default width of the Frame. */
     private static final int DEFAULT_WIDTH = 425;
 
@@ -52,8 +68,26 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
     /** Title of the game JFrame. */
     private static final String WINDOW_TITLE = "Tetris";
 
-    /** The music player. */
-    private MusicPlayer myPlayer;
+    /** Path of the background music file. */
+    private static final String MUSIC_FILE = "support_files/ThemeMusic.wav";
+
+    /** Directory the journals of the games are written to. */
+    private static final String JOURNAL_DIR = "journals";
+
+    /** The background music, mixed by a SoundMixer once audio is ready. */
+    private final MusicPlayer myMusic;
+
+    /** Records the startup phases of this frame. */
+    private final StartupProfile myProfile;
+
+    /** The performance overlay, shown in the glass pane. */
+    private PerformanceOverlay myOverlay;
+
+    /** The menu bar. */
+    private MenuBar myMenuBar;
+
+    /** Frame cap of the active rendering board, or 0 to paint the board with Swing. */
+    private final int myFrameCap;
 
     /** Reference to the primary model object (Board). */
     private final Boardable myBoard;
@@ -63,6 +97,9 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
      */
     private final Timer myTimer;
 
+    /** Journal of the current game, or null if it could not be opened. */
+    private volatile GameJournal myJournal;
+
     /** Keeps track of whether the current game is active. */
 
     private boolean myGameOver;
@@ -76,8 +113,6 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
     /** PropertyChangeSupport to manage various property changes. */
     private final PropertyChangeSupport myPCS;
 
-    /** The input audio. */
-    private AudioInputStream myAudioInput;
     /**
      * Constructor for the TetrisFrame class that sets up the JFrame with a specific size,
      * adds a title, and sets up the layout with the Tetris board, Tetris piece, and other
@@ -85,7 +120,20 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
      */
 
     public TetrisFrame() {
+        this(new StartupProfile(false), 0);
+    }
+
+    /**
+     * Constructor for a TetrisFrame that records its startup phases.
+     * @param theProfile the startup profile to record to.
+     * @param theFrameCap frames per second of the active rendering board,
+     *                    or 0 to paint the board with Swing.
+     */
+    public TetrisFrame(final StartupProfile theProfile, final int theFrameCap) {
         super();
+        myProfile = theProfile;
+        myFrameCap = theFrameCap;
+        myMusic = new MusicPlayer(new File(MUSIC_FILE), SoundMixer.FORMAT);
         final Dimension preferredFrameSize = new Dimension(DEFAULT_WIDTH, DEFAULT_HEIGHT);
         setPreferredSize(preferredFrameSize);
         myBoard = new Board();
@@ -93,7 +141,9 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
         //Initializing timer
         myTimer = new Timer(DEFAULT_DELAY, e -> {
             if (!myGameOver) {
+                final long tick = System.nanoTime();
                 myBoard.step();
+                fireFallTiming(tick);
             }
         });
         //Setting Up PC Support
@@ -102,6 +152,10 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
         //Initializing the game state parameters to their initial values
         setUpGameParams();
 
+        //Writing what is left of the journal when the JVM exits, even after a crash
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeJournal,
+                "GameJournal-close"));
+
 
         //Adding the key listener to the frame.
         addKeyListener(new ControlKeyListener());
@@ -119,24 +173,32 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
         //Defining parameters of the JFrame object such as close behavior, focusable, etc.
         this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        //Keep this set to false as our game doesn't implement resizability yet
-        this.setResizable(false);
+        //The board view scales its cells to whatever space the window gives it
+        this.setResizable(true);
         this.setTitle(WINDOW_TITLE);
 
         //Creating a container that holds the side UI elements
         // and placing it and the grid panel into the frame.
         final Box sideContainerBox = new Box(BoxLayout.PAGE_AXIS);
         final Box mainContainerBox = new Box(BoxLayout.LINE_AXIS);
-        final BoardPanel boardPanel = new BoardPanel();
+        final Component boardPanel;
+        if (myFrameCap > 0) {
+            boardPanel = new ActiveBoardCanvas(myFrameCap, myBoard.getWidth(),
+                    myBoard.getHeight());
+        } else {
+            boardPanel = new BoardPanel(myBoard.getWidth(), myBoard.getHeight());
+        }
+        final PropertyChangeListener boardListener = (PropertyChangeListener) boardPanel;
         final NextPiecePanel nextPiecePanel = new NextPiecePanel();
         final OtherPanel otherPanel = new OtherPanel();
 
         //Adding menu bar
         final MenuBar menu = new MenuBar(this);
+        myMenuBar = menu;
 
         //Adding Listeners to the menu
         menu.addPropertyChangeListener(nextPiecePanel);
-        menu.addPropertyChangeListener(boardPanel);
+        menu.addPropertyChangeListener(boardListener);
         menu.addPropertyChangeListener(this);
 
         //Adding Menu Bar to the frame
@@ -151,27 +213,46 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
         this.add(mainContainerBox);
 
         //Adding Listeners to the board
-        ((Board) myBoard).addPropertyChangeListener(boardPanel);
+        ((Board) myBoard).addPropertyChangeListener(boardListener);
         ((Board) myBoard).addPropertyChangeListener(this);
         ((Board) myBoard).addPropertyChangeListener(nextPiecePanel);
-        ((Board) myBoard).addPropertyChangeListener(otherPanel);
 
-        //Adding Listeners to this frame
-        this.addPropertyChangeListener(boardPanel);
+        //Scoring is done once per Board event by the ScoreKeeper, not by the panel
+        final ScoreKeeper scoreKeeper = new ScoreKeeper();
+        ((Board) myBoard).addPropertyChangeListener(scoreKeeper);
+        scoreKeeper.addPropertyChangeListener(otherPanel);
+        scoreKeeper.addPropertyChangeListener(this);
 
-        //Adding Listeners to the other information panel
-        otherPanel.addPropertyChangeListener(this);
+        //The performance overlay is hidden until toggled from the menu or with F3
+        myOverlay = new PerformanceOverlay((Board) myBoard);
+        setGlassPane(myOverlay);
 
+        //Adding Listeners to this frame
+        this.addPropertyChangeListener(boardListener);
 
-        //Setting up the music player
 
-        try {
-            setUpMusicPlayer();
-        } catch (final IOException | NullPointerException | UnsupportedAudioFileException e) {
-            e.printStackTrace();
+        //Counting into metrics that JMX clients such as JConsole can read
+        final BoardMetrics boardMetrics = new BoardMetrics();
+        final FrameMetrics frameMetrics = new FrameMetrics();
+        ((Board) myBoard).setMetrics(boardMetrics);
+        if (boardPanel instanceof BoardPanel) {
+            ((BoardPanel) boardPanel).setMetrics(frameMetrics);
+        } else {
+            ((ActiveBoardCanvas) boardPanel).setMetrics(frameMetrics);
         }
 
-        myPlayer = new MusicPlayer();
+        //Registering the MBeans starts the platform MBean server, which is slow
+        final Thread metricsSetUp = new Thread(() -> {
+            MetricsRegistry.register("Board", boardMetrics);
+            MetricsRegistry.register("Frame", frameMetrics);
+        }, "Metrics-setup");
+        metricsSetUp.setDaemon(true);
+        metricsSetUp.start();
+
+        //Setting up the sound off the EDT, it isn't needed for the first frame
+        final Thread audioSetUp = new Thread(this::setUpSound, "Audio-setup");
+        audioSetUp.setDaemon(true);
+        audioSetUp.start();
 
         //Displaying the GUI
 
@@ -180,6 +261,30 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
         this.setVisible(true);
     }
 
+    /**
+     * Paints the frame, recording the first frame and the first idle event queue
+     * after it in the startup profile.
+     * @param theGraphics the Graphics to paint with.
+     */
+    @Override
+    public void paint(final Graphics theGraphics) {
+        super.paint(theGraphics);
+        if (!myProfile.isReached(StartupProfile.Phase.FIRST_FRAME)) {
+            myProfile.mark(StartupProfile.Phase.FIRST_FRAME);
+            SwingUtilities.invokeLater(() -> myProfile.mark(StartupProfile.Phase.INTERACTIVE));
+        }
+    }
+
+    /**
+     * Creates the sound mixer, attaches it to the board and starts the audio threads.
+     * Runs on a background thread so the effects are synthesized off the EDT.
+     */
+    private void setUpSound() {
+        final SoundMixer mixer = new SoundMixer(myMusic);
+        ((Board) myBoard).addPropertyChangeListener(mixer);
+        mixer.start(() -> myProfile.mark(StartupProfile.Phase.AUDIO_READY));
+    }
+
     /**
      * Sets up parameters used for controlling the game state such as pause status.
      */
@@ -197,8 +302,10 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
         //or no game has been started yet.
         final boolean success;
         if (myGameIsNew || myGameOver) {
+            startJournal();
             myBoard.newGame();
             myTimer.start();
+            fireFallTiming(System.nanoTime());
             myGameIsNew = false;
             myGameOver = false;
             success = true;
@@ -211,28 +318,60 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
     }
 
     /**
-     * Attempts to end the current game.
+     * Closes the journal of the last game and starts journaling the next one to a new
+     * file in the journal directory. The game goes on without a journal if the file
+     * can not be opened.
      */
-    public void attemptEndOfGame() {
-        if (!myGameOver) {
-            myTimer.stop();
-            myGameOver = true;
-            myPaused = true;
+    private void startJournal() {
+        closeJournal();
+        final Path path = Path.of(JOURNAL_DIR, "game-" + System.currentTimeMillis()
+                + ".journal");
+        try {
+            Files.createDirectories(path.getParent());
+            myJournal = GameJournal.open(path);
+        } catch (final IOException e) {
+            System.err.println("Could not open the game journal " + path + ": " + e);
         }
+        ((Board) myBoard).setJournal(myJournal);
     }
 
     /**
-     * Helper method that up an audio input stream with the default music file path.
-     * @throws NullPointerException If the object is null.
-     * @throws UnsupportedAudioFileException If the file format is wrong.
-     * @throws IOException If the I/O operation failed or was interrupted.
+     * Hands the records of the journal to its writer thread.
      */
-    private void setUpMusicPlayer()
-            throws NullPointerException, UnsupportedAudioFileException, IOException {
+    private void flushJournal() {
+        final GameJournal journal = myJournal;
+        if (journal != null) {
+            journal.flush();
+        }
+    }
 
-        myAudioInput = AudioSystem.getAudioInputStream(
-                new File("support_files/ThemeMusic.wav"));
+    /**
+     * Writes the rest of the journal and closes it, leaving no journal to attach to a
+     * game until the next one is opened. Called before a new game and from the
+     * shutdown hook.
+     */
+    private void closeJournal() {
+        final GameJournal journal = myJournal;
+        myJournal = null;
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (final IOException e) {
+                System.err.println("Could not write the game journal: " + e);
+            }
+        }
+    }
 
+    /**
+     * Attempts to end the current game.
+     */
+    public void attemptEndOfGame() {
+        if (!myGameOver) {
+            myTimer.stop();
+            myGameOver = true;
+            myPaused = true;
+            fireFallTiming(System.nanoTime());
+        }
     }
 
     /**
@@ -246,6 +385,7 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
             myTimer.stop();
             myPaused = true;
         }
+        fireFallTiming(System.nanoTime());
     }
 
     /**
@@ -254,27 +394,46 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
      */
     private void updateTimer(final int theLevel) {
         if (!myGameIsNew) {
-            //For any level n, a new timer is started that is 100 * n milliseconds faster
-            //than the default tick rate (1000 ms)
-
-
-            final int levelScaledDelay = DEFAULT_DELAY - (theLevel * 100);
+            //For any level n above 1, a new timer is started that is 100 * n milliseconds
+            //faster than the default tick rate (1000 ms), but never faster than MIN_DELAY.
+            //Level 1 is a new game.
+            int levelScaledDelay = DEFAULT_DELAY;
+            if (theLevel > 1) {
+                levelScaledDelay = Math.max(MIN_DELAY, DEFAULT_DELAY - theLevel * DELAY_PER_LEVEL);
+            }
             myTimer.setDelay(levelScaledDelay);
 
 
             myTimer.restart();
+            fireFallTiming(System.nanoTime());
         }
     }
 
+    /**
+     * Tells the board views when the timer last ticked and how long until the next
+     * tick, so they can draw the falling piece between ticks.
+     * @param theTickNanos System.nanoTime() of the tick.
+     */
+    private void fireFallTiming(final long theTickNanos) {
+        final FallTiming timing;
+        if (myTimer.isRunning() && !myGameOver) {
+            timing = new FallTiming(theTickNanos,
+                    TimeUnit.MILLISECONDS.toNanos(myTimer.getDelay()));
+        } else {
+            timing = FallTiming.STOPPED;
+        }
+        myPCS.firePropertyChange(PROPERTY_CHANGE_TICK, null, timing);
+    }
+
     /**
      * Helper method to propertyChange to toggle the music when necessary.
      * @param theValue if true, then play music, else pause the music.
      */
     private void toggleMusic(final boolean theValue) {
         if (theValue) {
-            myPlayer.playMusic();
+            myMusic.playMusic();
         } else {
-            myPlayer.pauseMusic();
+            myMusic.pauseMusic();
         }
     }
 
@@ -282,10 +441,17 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
     public void propertyChange(final PropertyChangeEvent theEvent) {
         if (theEvent.getPropertyName().equals(Board.PROPERTY_CHANGE_GAME)) {
             myGameOver = (boolean) theEvent.getNewValue();
-        } else if (theEvent.getPropertyName().equals(OtherPanel.PROPERTY_CHANGE_LEVEL)) {
+            fireFallTiming(System.nanoTime());
+            flushJournal();
+        } else if (theEvent.getPropertyName().equals(Board.PROPERTY_CHANGE_FREEZE)) {
+            //Handing the records to the writer once per piece bounds what a crash loses
+            flushJournal();
+        } else if (theEvent.getPropertyName().equals(ScoreKeeper.PROPERTY_CHANGE_LEVEL)) {
             updateTimer((int) theEvent.getNewValue());
         } else if (theEvent.getPropertyName().equals(MenuBar.PROPERTY_CHANGE_MUSIC)) {
             toggleMusic((boolean) theEvent.getNewValue());
+        } else if (theEvent.getPropertyName().equals(MenuBar.PROPERTY_CHANGE_OVERLAY)) {
+            myOverlay.setOverlayEnabled((boolean) theEvent.getNewValue());
         }
         //repaint();
     }
@@ -350,6 +516,9 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
             //Pause/UnPause
             myKeyMap.put(KeyEvent.VK_P, TetrisFrame.this::pause);
 
+            //Performance Overlay
+            myKeyMap.put(KeyEvent.VK_F3, () -> myMenuBar.toggleOverlay());
+
             //View Controls
             myKeyMap.put(KeyEvent.VK_F1, () -> {
                 //Pause the Game
@@ -363,6 +532,7 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
                         Rotate Clockwise: E, e
                         Rotate Counter Clockwise: Q, q
                         Pause/Unpause: P, p
+                        Performance Overlay: F3
                         Controls: F1""");
 
             });
@@ -381,8 +551,9 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
                 if (myPaused && !myGameOver && theEvent.getKeyCode() == KeyEvent.VK_P) {
                     myKeyMap.get(theEvent.getKeyCode()).run();
 
-                }  else if (myPaused && theEvent.getKeyCode() == KeyEvent.VK_F1) {
-                    //Allows user to view controls even when the game is paused
+                }  else if (myPaused && (theEvent.getKeyCode() == KeyEvent.VK_F1
+                        || theEvent.getKeyCode() == KeyEvent.VK_F3)) {
+                    //Allows user to view controls and the overlay even when the game is paused
                     myKeyMap.get(theEvent.getKeyCode()).run();
 
 
@@ -394,38 +565,4 @@ public class TetrisFrame extends JFrame implements PropertyChangeListener {
 
         }
     } //End of ControlKeyListener Inner Class
-
-    /**
-     * Helper inner class adds a music playing abilities to the program.
-     * @author Harman Singh
-     */
-    private class MusicPlayer {
-        /** The music clip. */
-        private Clip myMusicClip;
-
-
-        MusicPlayer() {
-            try {
-                myMusicClip = AudioSystem.getClip();
-                myMusicClip.open(myAudioInput);
-            } catch (final IOException | LineUnavailableException e) {
-                e.printStackTrace();
-            }
-        }
-
-        /**
-         * Starts playing the music and sets it to loop continuously.
-         */
-        public void playMusic() {
-            myMusicClip.start();
-            myMusicClip.loop(Clip.LOOP_CONTINUOUSLY);
-        }
-
-        /**
-         * Pauses the music, until playMusic() is run.
-         */
-        public void pauseMusic() {
-            myMusicClip.stop();
-        }
-    }
 } //End of Tetris Frame
\ No newline at end of file
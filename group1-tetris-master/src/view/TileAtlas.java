@@ -0,0 +1,204 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.Serial;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import model.Block;
+
+/**
+ * A sprite atlas holding one pre-rendered bevelled tile for every Block type at a
+ * given cell size. Drawing a cell is a single drawImage from the atlas.
+ * The atlases of the sizes used most recently are cached per device pixel size and
+ * shared by all panels, so a cell drawn through a HiDPI transform uses tiles
+ * rendered at the scaled size instead of stretched ones.
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public final class TileAtlas {
+
+    /**
+     * The most atlases cached: the sizes in use at once, such as the board and the
+     * next piece on two screens, with room to spare.
+     */
+    private static final int CACHE_SIZE = 8;
+
+    /**
+     * The atlases used most recently, by cell size in device pixels, least recently
+     * used first. Guarded by itself. Sizes passed through while a window is resized
+     * are evicted, so they are not kept for the life of the JVM; the renderers hold
+     * on to the atlas they draw with.
+     */
+    private static final Map<Integer, TileAtlas> CACHE =
+            new LinkedHashMap<>(CACHE_SIZE, 1, true) {
+                /** Serial version UID. */
+                @Serial
+                private static final long serialVersionUID = 1L;
+
+                /**
+                 * Evicts the least recently used atlas when the cache is full.
+                 * @param theEldest the least recently used entry.
+                 * @return true if the cache holds more than CACHE_SIZE atlases.
+                 */
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Integer, TileAtlas> theEldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /** Opacity of a ghost cell, out of 255. */
+    private static final int GHOST_ALPHA = 80;
+
+    /** The fill color of a ghost cell for each Block type, in Block order. */
+    private static final Color[] GHOST_FILLS = new Color[Block.values().length];
+
+    /** The outline color of a ghost cell for each Block type, in Block order. */
+    private static final Color[] GHOST_OUTLINES = new Color[Block.values().length];
+
+    static {
+        for (final Block block : Block.values()) {
+            final Color color = colorOf(block);
+            GHOST_OUTLINES[block.ordinal()] = color;
+            GHOST_FILLS[block.ordinal()] = new Color(color.getRed(), color.getGreen(),
+                    color.getBlue(), GHOST_ALPHA);
+        }
+    }
+
+    /** The width of the bevel relative to the cell size. */
+    private static final int BEVEL_DIVISOR = 6;
+
+    /** The size of a tile in pixels. */
+    private final int myCellSize;
+
+    /** The atlas image, tiles side by side in Block order. */
+    private final BufferedImage myImage;
+
+    /**
+     * Renders an atlas.
+     * @param theCellSize the size of a tile in pixels.
+     */
+    private TileAtlas(final int theCellSize) {
+        myCellSize = theCellSize;
+        myImage = new BufferedImage(theCellSize * Block.values().length, theCellSize,
+                BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2d = myImage.createGraphics();
+        for (final Block block : Block.values()) {
+            renderTile(g2d, block.ordinal() * theCellSize, colorOf(block));
+        }
+        g2d.dispose();
+    }
+
+    /**
+     * Gets the atlas for a cell size, rendering it the first time it is needed.
+     * @param theCellSize the size of a tile in pixels.
+     * @return the atlas.
+     */
+    public static TileAtlas forSize(final int theCellSize) {
+        final TileAtlas result;
+        synchronized (CACHE) {
+            result = CACHE.computeIfAbsent(Math.max(1, theCellSize), TileAtlas::new);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the size of a tile.
+     * @return the size of a tile in pixels.
+     */
+    public int getCellSize() {
+        return myCellSize;
+    }
+
+    /**
+     * Draws the tile of a block into a cell of a different size, for graphics whose
+     * transform scales the cell to the size of this atlas.
+     * @param theGraphics the graphics to draw on.
+     * @param theBlock the block type.
+     * @param theX the x coordinate of the cell.
+     * @param theY the y coordinate of the cell.
+     * @param theSize the size of the cell in user space.
+     */
+    public void drawTile(final Graphics theGraphics, final Block theBlock, final int theX,
+                         final int theY, final int theSize) {
+        final int source = theBlock.ordinal() * myCellSize;
+        theGraphics.drawImage(myImage, theX, theY, theX + theSize, theY + theSize,
+                source, 0, source + myCellSize, myCellSize, null);
+    }
+
+    /**
+     * Draws a ghost cell, a translucent outline showing where a piece will land.
+     * @param theGraphics the graphics to draw on.
+     * @param theBlock the block type of the piece.
+     * @param theX the x coordinate of the cell.
+     * @param theY the y coordinate of the cell.
+     * @param theSize the size of the cell.
+     */
+    public static void drawGhost(final Graphics theGraphics, final Block theBlock,
+                                 final int theX, final int theY, final int theSize) {
+        theGraphics.setColor(GHOST_FILLS[theBlock.ordinal()]);
+        theGraphics.fillRect(theX, theY, theSize, theSize);
+        theGraphics.setColor(GHOST_OUTLINES[theBlock.ordinal()]);
+        theGraphics.drawRect(theX, theY, theSize - 1, theSize - 1);
+    }
+
+    /**
+     * Finds the size in device pixels of a cell drawn on some graphics.
+     * @param theGraphics the graphics that will be drawn on.
+     * @param theSize the size of the cell in user space.
+     * @return the size of the cell on the device, at least 1.
+     */
+    public static int deviceSize(final Graphics2D theGraphics, final int theSize) {
+        final double scale = theGraphics.getTransform().getScaleX();
+        return Math.max(1, (int) Math.round(theSize * scale));
+    }
+
+    /**
+     * Gets the color of a block type.
+     * @param theBlock the block type.
+     * @return the color of its tile.
+     */
+    public static Color colorOf(final Block theBlock) {
+        return switch (theBlock) {
+            case I -> new Color(0, 220, 235);
+            case J -> new Color(20, 70, 230);
+            case L -> new Color(240, 140, 0);
+            case O -> new Color(240, 220, 0);
+            case S -> new Color(40, 200, 40);
+            case T -> new Color(160, 40, 220);
+            case Z -> new Color(225, 30, 30);
+            case GARBAGE -> new Color(130, 130, 130);
+        };
+    }
+
+    /**
+     * Renders one bevelled tile.
+     * @param theGraphics the graphics of the atlas.
+     * @param theX the x coordinate of the tile in the atlas.
+     * @param theColor the color of the tile.
+     */
+    private void renderTile(final Graphics2D theGraphics, final int theX, final Color theColor) {
+        final int size = myCellSize;
+        final int bevel = Math.max(1, size / BEVEL_DIVISOR);
+
+        theGraphics.setColor(theColor.darker());
+        theGraphics.fillRect(theX, 0, size, size);
+
+        //Light top and left edges
+        theGraphics.setColor(theColor.brighter());
+        theGraphics.fillPolygon(new int[] {theX, theX + size, theX + size - bevel,
+            theX + bevel, theX + bevel, theX},
+            new int[] {0, 0, bevel, bevel, size - bevel, size}, 6);
+
+        theGraphics.setColor(theColor);
+        theGraphics.fillRect(theX + bevel, bevel, size - 2 * bevel, size - 2 * bevel);
+
+        theGraphics.setColor(Color.BLACK);
+        theGraphics.drawRect(theX, 0, size - 1, size - 1);
+    }
+}
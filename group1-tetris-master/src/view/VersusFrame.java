@@ -0,0 +1,172 @@
+package view;
+
+import java.awt.BorderLayout;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.Serial;
+import java.util.HashMap;
+import java.util.Map;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.SwingConstants;
+import javax.swing.Timer;
+import model.Board;
+import model.GreedyBot;
+import model.VersusMatch;
+
+/**
+ * A local versus match of the player against a GreedyBot, side by side in one window.
+ * <p>Both boards step on a shared timer and the bot makes one move every
+ * {@value #BOT_DELAY} milliseconds. Lines cleared on either board send garbage rows
+ * to the other through a VersusMatch.</p>
+ * <p>Keys: A/D or the arrow keys move, S or down moves down, Q/E rotate, space drops
+ * and N starts a new match.</p>
+ * @author Harman Singh
+ *         Lucas Perry
+ *         Windie Le
+ *         Shuaib Ali
+ * @version Winter 2023
+ */
+public class VersusFrame extends JFrame implements PropertyChangeListener {
+
+    /** A generated serial version UID for object Serialization. */
+    @Serial
+    private static final long serialVersionUID = 4370981287530621466L;
+
+    /** The title of the window. */
+    private static final String WINDOW_TITLE = "Tetris Versus";
+
+    /** Milliseconds between the steps of both boards. */
+    private static final int STEP_DELAY = 1000;
+
+    /** Milliseconds between the moves of the bot. */
+    private static final int BOT_DELAY = 150;
+
+    /** The match being played. */
+    private final VersusMatch myMatch;
+
+    /** Steps both boards. */
+    private final Timer myStepTimer;
+
+    /** Moves the bot. */
+    private final Timer myBotTimer;
+
+    /** Shows the garbage sent and the winner. */
+    private final JLabel myStatus = new JLabel(" ", SwingConstants.CENTER);
+
+    /**
+     * Creates the window of a versus match.
+     */
+    public VersusFrame() {
+        super(WINDOW_TITLE);
+        myMatch = new VersusMatch(System.nanoTime());
+        final GreedyBot bot = new GreedyBot();
+        myStepTimer = new Timer(STEP_DELAY, e -> {
+            myMatch.getBoard(0).step();
+            myMatch.getBoard(1).step();
+        });
+        myBotTimer = new Timer(BOT_DELAY, e -> bot.move(myMatch.getBoard(1)));
+        myMatch.addPropertyChangeListener(this);
+        addKeyListener(new ControlKeyListener());
+        setFocusable(true);
+    }
+
+    /**
+     * Lays out the two boards, shows the window and starts the first match.
+     */
+    public void createAndShowGUI() {
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        final Box boards = new Box(BoxLayout.LINE_AXIS);
+        for (int i = 0; i < 2; i++) {
+            final Board board = myMatch.getBoard(i);
+            final BoardPanel panel = new BoardPanel(board.getWidth(), board.getHeight());
+            board.addPropertyChangeListener(panel);
+            boards.add(panel);
+            boards.add(Box.createHorizontalStrut(BoardRenderer.BLOCK_SIZE));
+        }
+        add(boards, BorderLayout.CENTER);
+        add(myStatus, BorderLayout.SOUTH);
+        pack();
+        setVisible(true);
+        requestFocus();
+        newMatch();
+    }
+
+    /**
+     * Updates the status when garbage is sent or the match is won.
+     * @param theEvent the VersusMatch event.
+     */
+    @Override
+    public void propertyChange(final PropertyChangeEvent theEvent) {
+        if (VersusMatch.PROPERTY_CHANGE_WINNER.equals(theEvent.getPropertyName())) {
+            myStepTimer.stop();
+            myBotTimer.stop();
+            final String winner = myMatch.getWinner() == 0 ? "You win" : "The bot wins";
+            myStatus.setText(winner + "! Press N for a new match.");
+        } else if (VersusMatch.PROPERTY_CHANGE_GARBAGE.equals(theEvent.getPropertyName())) {
+            updateStatus();
+        }
+    }
+
+    /**
+     * Starts a new match.
+     */
+    private void newMatch() {
+        myMatch.newGame();
+        updateStatus();
+        myStepTimer.restart();
+        myBotTimer.restart();
+    }
+
+    /**
+     * Shows the garbage each player has sent.
+     */
+    private void updateStatus() {
+        myStatus.setText("Garbage sent: you " + myMatch.getGarbageSent(0) + ", bot "
+                + myMatch.getGarbageSent(1));
+    }
+
+    /**
+     * Maps the keys to the moves of the player's board.
+     */
+    private class ControlKeyListener extends KeyAdapter {
+
+        /** The action of each key. */
+        private final Map<Integer, Runnable> myKeyMap = new HashMap<>();
+
+        /**
+         * Creates the key map.
+         */
+        ControlKeyListener() {
+            final Board board = myMatch.getBoard(0);
+            myKeyMap.put(KeyEvent.VK_A, board::left);
+            myKeyMap.put(KeyEvent.VK_LEFT, board::left);
+            myKeyMap.put(KeyEvent.VK_D, board::right);
+            myKeyMap.put(KeyEvent.VK_RIGHT, board::right);
+            myKeyMap.put(KeyEvent.VK_S, board::down);
+            myKeyMap.put(KeyEvent.VK_DOWN, board::down);
+            myKeyMap.put(KeyEvent.VK_SPACE, board::drop);
+            myKeyMap.put(KeyEvent.VK_E, board::rotateCW);
+            myKeyMap.put(KeyEvent.VK_UP, board::rotateCW);
+            myKeyMap.put(KeyEvent.VK_Q, board::rotateCCW);
+            myKeyMap.put(KeyEvent.VK_N, VersusFrame.this::newMatch);
+        }
+
+        /**
+         * Runs the action of a key, ignoring moves once the match is over.
+         * @param theEvent the key event.
+         */
+        @Override
+        public void keyPressed(final KeyEvent theEvent) {
+            final Runnable action = myKeyMap.get(theEvent.getKeyCode());
+            if (action != null
+                    && (!myMatch.isOver() || theEvent.getKeyCode() == KeyEvent.VK_N)) {
+                action.run();
+            }
+        }
+    }
+}